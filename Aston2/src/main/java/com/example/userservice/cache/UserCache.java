@@ -0,0 +1,116 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш пользователей по id в памяти экземпляра: LRU с ограничением размера и TTL.
+ * <p>
+ * Запись сбрасывается после коммита изменения на этом экземпляре (UserChangedEvent), изменения с других
+ * экземпляров приходят через журнал изменений ({@link UserCacheSynchronizer}): другой экземпляр может отдавать
+ * прежнего пользователя не дольше user-cache.sync-interval + user-changes.visibility-lag. Чтобы чтение из БД,
+ * начатое до изменения, не положило в кэш старое значение, put принимает поколение,
+ * взятое до чтения, и игнорируется, если с тех пор была инвалидация.
+ * Наружу отдаются копии: UserResponse изменяемый.
+ */
+public class UserCache {
+
+    private record Entry(UserResponse user, long expiresAt) {
+    }
+
+    private final UserCacheProperties properties;
+    private final Map<Long, Entry> entries;
+    private long generation;
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int maxEntries = properties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        Gauge.builder("user.cache.size", this, UserCache::size)
+                .description("Пользователи в кэше по id")
+                .register(meterRegistry);
+    }
+
+    public UserResponse get(Long id) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(id);
+            if (entry != null && entry.expiresAt() - System.nanoTime() <= 0) {
+                entries.remove(id);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(entry.user());
+    }
+
+    // Поколение берется до чтения из БД и передается в put
+    public synchronized long generation() { return generation; }
+
+    public void put(UserResponse user, long readGeneration) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Entry entry = new Entry(copy(user), System.nanoTime() + properties.getTtl().toNanos());
+        synchronized (this) {
+            if (readGeneration == generation) {
+                entries.put(user.getUserId(), entry);
+            }
+        }
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    private static UserResponse copy(UserResponse user) {
+        UserResponse copy = new UserResponse(user.getUserId(), user.getName(), user.getEmail(), user.getAge(),
+                user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("user.cache.requests")
+                .description("Обращения к кэшу пользователей по id")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
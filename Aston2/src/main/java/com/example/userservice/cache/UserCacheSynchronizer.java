@@ -0,0 +1,106 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserChange;
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.exception.CursorExpiredException;
+import com.example.userservice.service.UserChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сбрасывает в {@link UserCache} пользователей, измененных или удаленных другими экземплярами.
+ * <p>
+ * UserChangedEvent видит только свой экземпляр, поэтому раз в sync-interval читается журнал изменений
+ * (тот же, что отдает GET /api/users/changes) с курсора прошлого чтения. Журнал отдает изменение через
+ * visibility-lag после записи, так что кэш отстает от БД не дольше sync-interval + visibility-lag.
+ * Если журнал прочитать не удалось, кэш очищается целиком: что изменилось, неизвестно.
+ */
+public class UserCacheSynchronizer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCacheSynchronizer.class);
+
+    private final UserChangeService userChangeService;
+    private final UserCache userCache;
+    private final UserCacheProperties properties;
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+    private volatile boolean running;
+
+    // Доступ только из потока синхронизации
+    private String cursor;
+
+    public UserCacheSynchronizer(UserChangeService userChangeService, UserCache userCache,
+                                 UserCacheProperties properties) {
+        this.userChangeService = userChangeService;
+        this.userCache = userCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        // Кэш при старте пуст: достаточно изменений с этого момента
+        cursor = userChangeService.latestCursor();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-cache-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = properties.getSyncInterval().toMillis();
+        task = executor.scheduleWithFixedDelay(this::sync, period, period, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (task != null) {
+            task.cancel(false);
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() { return running; }
+
+    @Override
+    public boolean isAutoStartup() { return properties.isEnabled(); }
+
+    // Читает журнал до конца и сбрасывает измененных пользователей; вызывается по расписанию
+    public synchronized void sync() {
+        if (cursor == null) {
+            cursor = userChangeService.latestCursor();
+        }
+        try {
+            UserChangesResponse page;
+            do {
+                page = userChangeService.getChangesSince(cursor, null);
+                for (UserChange change : page.getChanges()) {
+                    userCache.invalidate(change.getId());
+                }
+                cursor = page.getCursor();
+            } while (page.isHasMore());
+        } catch (CursorExpiredException e) {
+            log.warn("User cache sync cursor expired, clearing the cache");
+            userCache.invalidateAll();
+            cursor = userChangeService.latestCursor();
+        } catch (RuntimeException e) {
+            log.warn("User cache sync failed, clearing the cache: {}", e.toString());
+            userCache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.userservice.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Бинарные представления ответов для межсервисных клиентов (Accept: application/cbor
+ * или application/x-jackson-smile). Те же DTO и настройки Jackson, что у JSON, но без ссылок:
+ * машинному клиенту HAL-навигация не нужна, а ее построение и вывод заметно дороже самих данных.
+ * Бины заменяют одноименные конвертеры по умолчанию в HttpMessageConverters.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.factory(new CBORFactory()).mixIn(RepresentationModel.class, WithoutLinks.class).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(new SmileFactory()).mixIn(RepresentationModel.class, WithoutLinks.class).build());
+    }
+
+    @JsonIgnoreProperties("links")
+    abstract static class WithoutLinks {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.userservice.config;
+
+import com.example.userservice.refresh.CircuitBreakerRebinder;
+import com.example.userservice.refresh.ConfigChangeSubscriber;
+import com.example.userservice.refresh.ConfigRefresher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@EnableConfigurationProperties(ConfigPushProperties.class)
+public class ConfigRefreshConfig {
+
+    @Bean
+    public ConfigRefresher configRefresher(ContextRefresher contextRefresher, MeterRegistry meterRegistry) {
+        return new ConfigRefresher(contextRefresher, meterRegistry);
+    }
+
+    @Bean
+    public CircuitBreakerRebinder circuitBreakerRebinder(Resilience4JCircuitBreakerFactory factory, Environment environment) {
+        return new CircuitBreakerRebinder(factory, environment);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "config.push", name = "enabled", havingValue = "true")
+    public ConfigChangeSubscriber configChangeSubscriber(ConfigPushProperties properties, Environment environment,
+                                                         ConfigRefresher refresher, ObjectMapper objectMapper) {
+        return new ConfigChangeSubscriber(properties, environment.getProperty("spring.application.name"),
+                refresher, objectMapper);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.userservice.config;
+
+import com.example.userservice.id.IdGenerator;
+import com.example.userservice.id.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(IdGeneratorProperties.class)
+public class IdGeneratorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    private static final String NODE_ID_METADATA = "node-id";
+
+    // Только в этом профиле номер узла можно не задавать: он выводится из хоста и pid
+    private static final String DEV_PROFILE = "dev";
+
+    // Свой бин IdGenerator заменяет генератор по умолчанию
+    @Bean
+    @ConditionalOnMissingBean(IdGenerator.class)
+    public IdGenerator idGenerator(IdGeneratorProperties properties,
+                                   ObjectProvider<EurekaInstanceConfigBean> eurekaInstance, Environment environment) {
+        int nodeId = resolveNodeId(properties, eurekaInstance.getIfAvailable(), environment);
+        log.info("User id generator node id: {}", nodeId);
+        return new SnowflakeIdGenerator(nodeId, properties.getEpoch(), properties.getMaxClockSkew(), Clock.systemUTC());
+    }
+
+    // Выведенный номер совпадает у пары инстансов с вероятностью 1/128, и тогда их id пересекаются:
+    // вне профиля dev старт без заданного номера узла отклоняется
+    private static int resolveNodeId(IdGeneratorProperties properties, EurekaInstanceConfigBean eurekaInstance,
+                                     Environment environment) {
+        if (eurekaInstance != null) {
+            String metadata = eurekaInstance.getMetadataMap().get(NODE_ID_METADATA);
+            if (metadata != null) {
+                return Integer.parseInt(metadata.trim());
+            }
+        }
+        if (properties.getNodeId() != null) {
+            return properties.getNodeId();
+        }
+        if (!environment.acceptsProfiles(Profiles.of(DEV_PROFILE))) {
+            throw new IllegalStateException("Node id is not configured: set eureka.instance.metadata-map."
+                    + NODE_ID_METADATA + " or user-ids.node-id (0.." + SnowflakeIdGenerator.MAX_NODE_ID
+                    + "), unique per instance; only the '" + DEV_PROFILE + "' profile derives it from host and pid");
+        }
+        int derived = Math.floorMod((hostName() + ":" + ProcessHandle.current().pid()).hashCode(),
+                SnowflakeIdGenerator.MAX_NODE_ID + 1);
+        log.warn("Node id is not configured (eureka.instance.metadata-map.{} or user-ids.node-id), "
+                + "using derived {}: ids may collide with another instance", NODE_ID_METADATA, derived);
+        return derived;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
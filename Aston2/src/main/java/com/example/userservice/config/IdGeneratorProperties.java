@@ -0,0 +1,30 @@
+package com.example.userservice.config;
+
+import com.example.userservice.id.SnowflakeIdGenerator;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@ConfigurationProperties(prefix = "user-ids")
+public class IdGeneratorProperties {
+
+    // Номер узла 0..127, если его нет в метаданных Eureka (eureka.instance.metadata-map.node-id).
+    // Без обоих сервис не стартует; только в профиле dev номер выводится из имени хоста и pid
+    private Integer nodeId;
+
+    // Начало отсчета времени в id; 40 бит миллисекунд хватает примерно на 34 года. Менять нельзя
+    private Instant epoch = SnowflakeIdGenerator.DEFAULT_EPOCH;
+
+    // Откат часов (NTP) в этих пределах пережидается, больше - генератор отказывает
+    private Duration maxClockSkew = Duration.ofSeconds(5);
+
+    public Integer getNodeId() { return nodeId; }
+    public void setNodeId(Integer nodeId) { this.nodeId = nodeId; }
+
+    public Instant getEpoch() { return epoch; }
+    public void setEpoch(Instant epoch) { this.epoch = epoch; }
+
+    public Duration getMaxClockSkew() { return maxClockSkew; }
+    public void setMaxClockSkew(Duration maxClockSkew) { this.maxClockSkew = maxClockSkew; }
+}
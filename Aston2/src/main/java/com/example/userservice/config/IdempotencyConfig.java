@@ -0,0 +1,31 @@
+package com.example.userservice.config;
+
+import com.example.userservice.idempotency.IdempotencyFilter;
+import com.example.userservice.idempotency.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        return new IdempotencyStore(properties, meterRegistry);
+    }
+
+    // После фильтров метрик и трассировки: ответы из памяти тоже попадают в http.server.requests.
+    // Метод и путь (только POST /api/users и PUT /api/users/{id}) проверяет сам фильтр
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store, IdempotencyProperties properties,
+                                                                       ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, properties, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/api/users", "/api/users/*");
+        return registration;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    // Заголовок Idempotency-Key на POST /api/users и PUT /api/users/{id}
+    private boolean enabled = true;
+
+    // Предел числа запомненных ответов, дальше вытесняются давно не запрошенные
+    private int maxEntries = 10000;
+
+    // Сколько повтор с тем же ключом получает сохраненный ответ
+    private Duration ttl = Duration.ofHours(1);
+
+    // Сколько дубликат ждет ответа запроса с тем же ключом, который еще выполняется; дальше 409
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public Duration getWaitTimeout() { return waitTimeout; }
+    public void setWaitTimeout(Duration waitTimeout) { this.waitTimeout = waitTimeout; }
+}
@@ -0,0 +1,48 @@
+package com.example.userservice.config;
+
+import com.example.userservice.jdbc.AsyncQueryLog;
+import com.example.userservice.jdbc.JdbcStatementInspector;
+import com.example.userservice.jdbc.QueryBudgetFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(JdbcInspectorProperties.class)
+@ConditionalOnProperty(prefix = "jdbc-inspector", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcInspectorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public AsyncQueryLog asyncQueryLog(JdbcInspectorProperties properties, MeterRegistry meterRegistry) {
+        return new AsyncQueryLog(properties.getLogQueue(), meterRegistry);
+    }
+
+    @Bean
+    public JdbcStatementInspector jdbcStatementInspector(JdbcInspectorProperties properties, AsyncQueryLog queryLog,
+                                                         MeterRegistry meterRegistry) {
+        return new JdbcStatementInspector(properties.getSlowThreshold(), queryLog, meterRegistry);
+    }
+
+    // static и ленивый доступ к инспектору: пост-процессор создается раньше остальных бинов
+    @Bean
+    public static BeanPostProcessor inspectingDataSourcePostProcessor(ObjectProvider<JdbcStatementInspector> inspector) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? inspector.getObject().wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryBudgetFilter queryBudgetFilter(JdbcInspectorProperties properties, AsyncQueryLog queryLog,
+                                               MeterRegistry meterRegistry) {
+        return new QueryBudgetFilter(properties, queryLog, meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "jdbc-inspector")
+public class JdbcInspectorProperties {
+
+    // Учет и замер SQL-запросов через обертку DataSource
+    private boolean enabled = true;
+
+    // Запросы не быстрее этого порога логируются (асинхронно)
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    // Бюджет SQL-запросов на один HTTP-запрос, 0 - без ограничения
+    private int maxQueriesPerRequest = 20;
+
+    // Сколько выполнений одного и того же запроса за HTTP-запрос считается признаком N+1
+    private int repeatedStatementThreshold = 5;
+
+    // Превышение бюджета - ошибка запроса, а не только предупреждение в логе (для тестов)
+    private boolean failOnBudgetExceeded = false;
+
+    // Очередь асинхронного лога; при переполнении записи отбрасываются
+    private int logQueue = 1000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getSlowThreshold() { return slowThreshold; }
+    public void setSlowThreshold(Duration slowThreshold) { this.slowThreshold = slowThreshold; }
+
+    public int getMaxQueriesPerRequest() { return maxQueriesPerRequest; }
+    public void setMaxQueriesPerRequest(int maxQueriesPerRequest) { this.maxQueriesPerRequest = maxQueriesPerRequest; }
+
+    public int getRepeatedStatementThreshold() { return repeatedStatementThreshold; }
+    public void setRepeatedStatementThreshold(int repeatedStatementThreshold) { this.repeatedStatementThreshold = repeatedStatementThreshold; }
+
+    public boolean isFailOnBudgetExceeded() { return failOnBudgetExceeded; }
+    public void setFailOnBudgetExceeded(boolean failOnBudgetExceeded) { this.failOnBudgetExceeded = failOnBudgetExceeded; }
+
+    public int getLogQueue() { return logQueue; }
+    public void setLogQueue(int logQueue) { this.logQueue = logQueue; }
+}
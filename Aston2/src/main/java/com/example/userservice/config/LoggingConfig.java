@@ -0,0 +1,20 @@
+package com.example.userservice.config;
+
+import com.example.userservice.logging.RequestIdFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Appender-ы, JSON и сэмплирование - в logback-spring.xml (профиль json-logs)
+@Configuration
+public class LoggingConfig {
+
+    // Первым в цепочке: requestId есть в MDC у всех остальных фильтров
+    @Bean
+    public FilterRegistrationBean<RequestIdFilter> requestIdFilter() {
+        FilterRegistrationBean<RequestIdFilter> registration = new FilterRegistrationBean<>(new RequestIdFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.userservice.config;
+
+import com.example.userservice.metrics.EndpointSloMeterFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SloProperties.class)
+public class MetricsConfig {
+
+    @Bean
+    public EndpointSloMeterFilter endpointSloMeterFilter(SloProperties properties) {
+        return new EndpointSloMeterFilter(properties);
+    }
+
+    // Целевые задержки как метрика: дашборд рисует их линией поверх перцентилей
+    @Bean
+    public MeterBinder sloObjectiveMetrics(SloProperties properties) {
+        return registry -> {
+            for (SloProperties.Endpoint endpoint : properties.getEndpoints()) {
+                double seconds = endpoint.getObjective().toNanos() / 1e9;
+                Gauge.builder("http.server.requests.objective", () -> seconds)
+                        .baseUnit("seconds")
+                        .tag("method", endpoint.getMethod())
+                        .tag("uri", endpoint.getUri())
+                        .register(registry);
+            }
+        };
+    }
+}
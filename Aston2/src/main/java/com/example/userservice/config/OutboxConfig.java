@@ -0,0 +1,47 @@
+package com.example.userservice.config;
+
+import com.example.userservice.outbox.FileOutboxSink;
+import com.example.userservice.outbox.InMemoryOutboxSink;
+import com.example.userservice.outbox.LoggingOutboxSink;
+import com.example.userservice.outbox.OutboxRelay;
+import com.example.userservice.outbox.OutboxSink;
+import com.example.userservice.outbox.OutboxWriter;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.example.userservice.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Bean
+    public OutboxWriter outboxWriter(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        return new OutboxWriter(repository, objectMapper, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.getSink()) {
+            case LOG -> new LoggingOutboxSink();
+            case MEMORY -> new InMemoryOutboxSink();
+            case FILE -> new FileOutboxSink(Path.of(properties.getFile()), objectMapper);
+        };
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository repository, OutboxSink sink, OutboxProperties properties,
+                                   MeterRegistry meterRegistry, ShardRouter shardRouter) {
+        return new OutboxRelay(repository, sink, properties, Clock.systemUTC(), meterRegistry, shardRouter);
+    }
+}
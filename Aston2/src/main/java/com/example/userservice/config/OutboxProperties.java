@@ -0,0 +1,59 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    public enum Sink { LOG, MEMORY, FILE }
+
+    // Запись изменений пользователей в outbox и фоновая публикация
+    private boolean enabled = true;
+
+    // Сколько записей публикуется одной пачкой
+    private int batchSize = 100;
+
+    // Сколько неполная пачка ждет новых событий перед публикацией
+    private Duration linger = Duration.ofMillis(50);
+
+    // Пауза между проверками outbox, когда публиковать нечего
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    // Пропуск в id старше этого считается откатом, а не незакоммиченной транзакцией
+    private Duration gapTimeout = Duration.ofSeconds(5);
+
+    // Предельная пауза между повторами при ошибке получателя
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    // Получатель, если в контексте нет своего бина OutboxSink
+    private Sink sink = Sink.LOG;
+
+    // Файл JSON Lines для sink=file
+    private String file = "outbox/user-events.jsonl";
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public Duration getLinger() { return linger; }
+    public void setLinger(Duration linger) { this.linger = linger; }
+
+    public Duration getPollInterval() { return pollInterval; }
+    public void setPollInterval(Duration pollInterval) { this.pollInterval = pollInterval; }
+
+    public Duration getGapTimeout() { return gapTimeout; }
+    public void setGapTimeout(Duration gapTimeout) { this.gapTimeout = gapTimeout; }
+
+    public Duration getMaxBackoff() { return maxBackoff; }
+    public void setMaxBackoff(Duration maxBackoff) { this.maxBackoff = maxBackoff; }
+
+    public Sink getSink() { return sink; }
+    public void setSink(Sink sink) { this.sink = sink; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+}
@@ -2,29 +2,46 @@ package com.example.userservice.config;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.cloud.client.circuitbreaker.Customizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration
+@EnableConfigurationProperties(CircuitBreakerProperties.class)
 public class Resilience4jConfig {
 
     @Bean
-    public Customizer<Resilience4JCircuitBreakerFactory> defaultCustomizer() {
-        return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
+    public Customizer<Resilience4JCircuitBreakerFactory> defaultCustomizer(CircuitBreakerProperties properties) {
+        return factory -> factory.configureDefault(id -> apply(new Resilience4JConfigBuilder(id), properties).build());
+    }
+
+    // Supplier circuit breaker выполняется в пуле Resilience4J: туда переносятся ThreadLocal вызывающего потока
+    // (observation для трассировки, QueryScope для учета SQL-запросов)
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> contextPropagationCustomizer() {
+        ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+        return factory -> factory.configureExecutorService(
+                ContextExecutorService.wrap(Executors.newCachedThreadPool(), () -> snapshots.captureAll()));
+    }
+
+    // Используется и при старте, и при перепривязке настроек (CircuitBreakerRebinder)
+    public static Resilience4JConfigBuilder apply(Resilience4JConfigBuilder builder, CircuitBreakerProperties properties) {
+        return builder
                 .timeLimiterConfig(TimeLimiterConfig.custom()
-                        .timeoutDuration(Duration.ofSeconds(4))
+                        .timeoutDuration(properties.getTimeout())
                         .build())
                 .circuitBreakerConfig(CircuitBreakerConfig.custom()
-                        .slidingWindowSize(10)
-                        .failureRateThreshold(50)
-                        .waitDurationInOpenState(Duration.ofSeconds(10))
-                        .permittedNumberOfCallsInHalfOpenState(3)
-                        .build())
-                .build());
+                        .slidingWindowSize(properties.getSlidingWindowSize())
+                        .failureRateThreshold(properties.getFailureRateThreshold())
+                        .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                        .permittedNumberOfCallsInHalfOpenState(properties.getPermittedNumberOfCallsInHalfOpenState())
+                        .build());
     }
-}
\ No newline at end of file
+}
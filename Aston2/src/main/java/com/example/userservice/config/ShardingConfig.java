@@ -0,0 +1,88 @@
+package com.example.userservice.config;
+
+import com.example.userservice.repository.UserEmailRepository;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.sharding.EmailDirectoryMigrator;
+import com.example.userservice.sharding.OrphanEmailCleaner;
+import com.example.userservice.sharding.ShardRouter;
+import com.example.userservice.sharding.ShardRoutingDataSource;
+import com.example.userservice.sharding.ShardSchemaReplicator;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        int shardCount = Math.max(1, properties.getShards().size());
+        return new ShardRouter(shardCount, fanOutExecutor(), new TransactionTemplate(transactionManager));
+    }
+
+    // Пулы шардов вместо пула spring.datasource; метрики hikaricp.* с тегом pool=shard-N
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "sharding", name = "shards[0].url")
+    public ShardRoutingDataSource dataSource(ShardingProperties properties, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + i);
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername());
+            pool.setPassword(shard.getPassword());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(pool);
+        }
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "shards[0].url")
+    public ShardSchemaReplicator shardSchemaReplicator(ShardRoutingDataSource dataSource) {
+        return new ShardSchemaReplicator(dataSource);
+    }
+
+    // Строки user_emails переезжают на свой шард до приема запросов, в том числе после добавления шардов
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "shards[0].url")
+    public EmailDirectoryMigrator emailDirectoryMigrator(ShardRoutingDataSource dataSource, ShardRouter shardRouter) {
+        return new EmailDirectoryMigrator(dataSource, shardRouter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "shards[0].url")
+    public OrphanEmailCleaner orphanEmailCleaner(UserEmailRepository userEmailRepository, UserRepository userRepository,
+                                                 ShardRouter shardRouter, ShardingProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new OrphanEmailCleaner(userEmailRepository, userRepository, shardRouter, properties.getEmailCleanup(),
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    // Запросы к шардам идут в своих потоках: туда переносятся observation и QueryScope вызывающего
+    private static ExecutorService fanOutExecutor() {
+        ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+        return ContextExecutorService.wrap(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        }), () -> snapshots.captureAll());
+    }
+}
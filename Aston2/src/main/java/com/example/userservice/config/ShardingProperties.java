@@ -0,0 +1,68 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    // БД шардов по порядку: номер шарда - индекс в списке, он же зашит в id пользователей.
+    // Пусто - один шард на spring.datasource. Шарды можно только добавлять в конец;
+    // строки user_emails при этом переезжают на новые места при старте (EmailDirectoryMigrator)
+    private List<Shard> shards = new ArrayList<>();
+
+    private EmailCleanup emailCleanup = new EmailCleanup();
+
+    public List<Shard> getShards() { return shards; }
+    public void setShards(List<Shard> shards) { this.shards = shards; }
+
+    public EmailCleanup getEmailCleanup() { return emailCleanup; }
+    public void setEmailCleanup(EmailCleanup emailCleanup) { this.emailCleanup = emailCleanup; }
+
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+
+        // Свой пул соединений у каждого шарда
+        private int maximumPoolSize = 10;
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+    }
+
+    // Удаление строк user_emails без пользователя с этим email (OrphanEmailCleaner)
+    public static class EmailCleanup {
+        private boolean enabled = true;
+        private Duration interval = Duration.ofMinutes(10);
+
+        // Строки моложе не проверяются: смена email между занятием адреса и изменением пользователя еще может идти
+        private Duration gracePeriod = Duration.ofMinutes(10);
+
+        private int batchSize = 500;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public Duration getInterval() { return interval; }
+        public void setInterval(Duration interval) { this.interval = interval; }
+
+        public Duration getGracePeriod() { return gracePeriod; }
+        public void setGracePeriod(Duration gracePeriod) { this.gracePeriod = gracePeriod; }
+
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "metrics.slo")
+public class SloProperties {
+
+    // Бакеты гистограммы для http.server.requests: перцентили считаются на стороне Prometheus
+    private boolean percentilesHistogram = true;
+
+    // Диапазон, в котором заводятся бакеты гистограммы
+    private Duration minimumExpected = Duration.ofMillis(1);
+    private Duration maximumExpected = Duration.ofSeconds(10);
+
+    // Границы SLO, общие для всех эндпоинтов
+    private List<Duration> buckets = new ArrayList<>(List.of(Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1)));
+
+    // Целевая задержка эндпоинта, для которого нет записи в endpoints
+    private Duration defaultObjective = Duration.ofMillis(250);
+
+    // Целевые задержки отдельных эндпоинтов (метод + шаблон uri, как в теге http.server.requests)
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    public boolean isPercentilesHistogram() { return percentilesHistogram; }
+    public void setPercentilesHistogram(boolean percentilesHistogram) { this.percentilesHistogram = percentilesHistogram; }
+
+    public Duration getMinimumExpected() { return minimumExpected; }
+    public void setMinimumExpected(Duration minimumExpected) { this.minimumExpected = minimumExpected; }
+
+    public Duration getMaximumExpected() { return maximumExpected; }
+    public void setMaximumExpected(Duration maximumExpected) { this.maximumExpected = maximumExpected; }
+
+    public List<Duration> getBuckets() { return buckets; }
+    public void setBuckets(List<Duration> buckets) { this.buckets = buckets; }
+
+    public Duration getDefaultObjective() { return defaultObjective; }
+    public void setDefaultObjective(Duration defaultObjective) { this.defaultObjective = defaultObjective; }
+
+    public List<Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(List<Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Endpoint {
+        private String method = "GET";
+        private String uri;
+        private Duration objective;
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getUri() { return uri; }
+        public void setUri(String uri) { this.uri = uri; }
+
+        public Duration getObjective() { return objective; }
+        public void setObjective(Duration objective) { this.objective = objective; }
+    }
+}
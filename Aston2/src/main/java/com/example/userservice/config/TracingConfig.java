@@ -0,0 +1,29 @@
+package com.example.userservice.config;
+
+import com.example.tracing.FileSpanExporter;
+import com.example.userservice.tracing.RepositoryObservationAspect;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    @Bean
+    public RepositoryObservationAspect repositoryObservationAspect(ObservationRegistry observationRegistry) {
+        return new RepositoryObservationAspect(observationRegistry);
+    }
+
+    // Подхватывается BatchSpanProcessor из автоконфигурации OpenTelemetry вместе с OTLP-экспортером, если он задан
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing", name = "file-enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(TracingProperties properties, ObjectMapper objectMapper) {
+        return new FileSpanExporter(Path.of(properties.getFile()), objectMapper, properties.getMaxFileSize().toBytes());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    // Писать завершенные span-ы в локальный файл JSON Lines (OTLP включается management.otlp.tracing.endpoint)
+    private boolean fileEnabled = false;
+
+    // Файл JSON Lines для span-ов
+    private String file = "traces/user-service.jsonl";
+
+    // Размер, после которого файл переименовывается в <file>.1 и запись начинается в новый
+    private DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+    public boolean isFileEnabled() { return fileEnabled; }
+    public void setFileEnabled(boolean fileEnabled) { this.fileEnabled = fileEnabled; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public DataSize getMaxFileSize() { return maxFileSize; }
+    public void setMaxFileSize(DataSize maxFileSize) { this.maxFileSize = maxFileSize; }
+}
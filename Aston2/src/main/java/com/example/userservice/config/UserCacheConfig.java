@@ -0,0 +1,25 @@
+package com.example.userservice.config;
+
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.cache.UserCacheSynchronizer;
+import com.example.userservice.service.UserChangeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class UserCacheConfig {
+
+    @Bean
+    public UserCache userCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        return new UserCache(properties, meterRegistry);
+    }
+
+    @Bean
+    public UserCacheSynchronizer userCacheSynchronizer(UserChangeService userChangeService, UserCache userCache,
+                                                       UserCacheProperties properties) {
+        return new UserCacheSynchronizer(userChangeService, userCache, properties);
+    }
+}
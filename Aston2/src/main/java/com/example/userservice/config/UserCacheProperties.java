@@ -0,0 +1,33 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "user-cache")
+public class UserCacheProperties {
+
+    // Кэш пользователей по id для GET /api/users/{id} и пакетного поиска
+    private boolean enabled = true;
+
+    // Предел числа пользователей в кэше, дальше вытесняются давно не читанные
+    private int maxEntries = 10000;
+
+    // Страховка на случай пропущенной инвалидации
+    private Duration ttl = Duration.ofSeconds(60);
+
+    // Как часто читается журнал изменений, чтобы сбросить пользователей, измененных другими экземплярами
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public Duration getSyncInterval() { return syncInterval; }
+    public void setSyncInterval(Duration syncInterval) { this.syncInterval = syncInterval; }
+}
@@ -0,0 +1,9 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserChangesProperties.class)
+public class UserChangesConfig {
+}
@@ -0,0 +1,32 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "user-changes")
+public class UserChangesProperties {
+
+    // Размер страницы GET /api/users/changes по умолчанию и его предел
+    private int defaultLimit = 100;
+    private int maxLimit = 1000;
+
+    // Изменения моложе этого не отдаются: метка времени ставится до коммита,
+    // и транзакция, которая коммитится дольше, не должна оказаться позади курсора
+    private Duration visibilityLag = Duration.ofSeconds(2);
+
+    // Сколько хранится журнал удалений; более старый курсор получает 410 и делает полную синхронизацию
+    private Duration tombstoneRetention = Duration.ofDays(7);
+
+    public int getDefaultLimit() { return defaultLimit; }
+    public void setDefaultLimit(int defaultLimit) { this.defaultLimit = defaultLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public Duration getVisibilityLag() { return visibilityLag; }
+    public void setVisibilityLag(Duration visibilityLag) { this.visibilityLag = visibilityLag; }
+
+    public Duration getTombstoneRetention() { return tombstoneRetention; }
+    public void setTombstoneRetention(Duration tombstoneRetention) { this.tombstoneRetention = tombstoneRetention; }
+}
@@ -0,0 +1,17 @@
+package com.example.userservice.config;
+
+import com.example.userservice.event.UserEventStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserEventProperties.class)
+public class UserEventConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public UserEventStream userEventStream(UserEventProperties properties, MeterRegistry meterRegistry) {
+        return new UserEventStream(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "user-events")
+public class UserEventProperties {
+
+    // Сколько последних событий хранится для продолжения по Last-Event-ID
+    private int bufferSize = 1024;
+
+    // Очередь одного подписчика; при переполнении поток закрывается и клиент переподключается
+    private int subscriberQueue = 256;
+
+    // Потоки, которые пишут события в сокеты подписчиков
+    private int dispatchThreads = 4;
+
+    // Комментарий-heartbeat держит соединение через прокси и выявляет отключившихся клиентов; 0 - выключен
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    // Максимальное время жизни одного потока, после него клиент переподключается с Last-Event-ID
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // Пауза перед переподключением, которую сервер сообщает клиенту в поле retry
+    private Duration retry = Duration.ofSeconds(2);
+
+    public int getBufferSize() { return bufferSize; }
+    public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+
+    public int getSubscriberQueue() { return subscriberQueue; }
+    public void setSubscriberQueue(int subscriberQueue) { this.subscriberQueue = subscriberQueue; }
+
+    public int getDispatchThreads() { return dispatchThreads; }
+    public void setDispatchThreads(int dispatchThreads) { this.dispatchThreads = dispatchThreads; }
+
+    public Duration getHeartbeat() { return heartbeat; }
+    public void setHeartbeat(Duration heartbeat) { this.heartbeat = heartbeat; }
+
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+
+    public Duration getRetry() { return retry; }
+    public void setRetry(Duration retry) { this.retry = retry; }
+}
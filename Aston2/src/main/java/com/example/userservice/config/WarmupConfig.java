@@ -0,0 +1,53 @@
+package com.example.userservice.config;
+
+import com.example.userservice.sharding.ShardRouter;
+import com.example.userservice.warmup.EurekaReadinessListener;
+import com.example.userservice.warmup.WarmupRequestFilter;
+import com.example.userservice.warmup.WarmupRequests;
+import com.example.userservice.warmup.WarmupRunner;
+import com.netflix.appinfo.ApplicationInfoManager;
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public WarmupRunner warmupRunner(DataSource dataSource, ShardRouter shardRouter, Environment environment,
+                                     WarmupProperties properties,
+                                     Resilience4JCircuitBreakerFactory circuitBreakerFactory) {
+        return new WarmupRunner(dataSource, shardRouter, environment, properties, circuitBreakerFactory);
+    }
+
+    // Раньше ServerHttpObservationFilter (HIGHEST_PRECEDENCE + 1): признак прогрева должен быть виден
+    // уже при создании наблюдения http.server.requests
+    @Bean
+    public FilterRegistrationBean<WarmupRequestFilter> warmupRequestFilter() {
+        FilterRegistrationBean<WarmupRequestFilter> registration = new FilterRegistrationBean<>(new WarmupRequestFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Прогрев не создает наблюдений: нет ни таймеров http.server.requests и user.repository, ни спанов
+    @Bean
+    public ObservationPredicate skipWarmupObservations() {
+        return (name, context) -> !WarmupRequests.isActive();
+    }
+
+    @Bean
+    public EurekaReadinessListener eurekaReadinessListener(ObjectProvider<ApplicationInfoManager> applicationInfoManager) {
+        return new EurekaReadinessListener(applicationInfoManager);
+    }
+}
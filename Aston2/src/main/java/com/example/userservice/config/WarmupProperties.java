@@ -0,0 +1,33 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    // Прогрев перед переходом в readiness ACCEPTING_TRAFFIC и статусом UP в Eureka
+    private boolean enabled = true;
+
+    // Сколько раз прогоняются синтетические запросы по горячим путям
+    private int iterations = 300;
+
+    // Прогрев прерывается по времени, даже если итерации не закончились
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    // Сколько соединений пула открыть заранее
+    private int poolConnections = 10;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getIterations() { return iterations; }
+    public void setIterations(int iterations) { this.iterations = iterations; }
+
+    public Duration getMaxDuration() { return maxDuration; }
+    public void setMaxDuration(Duration maxDuration) { this.maxDuration = maxDuration; }
+
+    public int getPoolConnections() { return poolConnections; }
+    public void setPoolConnections(int poolConnections) { this.poolConnections = poolConnections; }
+}
@@ -0,0 +1,47 @@
+package com.example.userservice.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+/**
+ * Нужны ли клиенту HAL-ссылки. Не нужны, если он предпочитает бинарный формат
+ * (ссылки в нем все равно не выводятся) или прислал Prefer: return=minimal (RFC 7240).
+ * Тогда контроллер не тратит время на построение ссылок через linkTo/methodOn.
+ */
+final class HypermediaPreference {
+
+    private static final List<MediaType> BINARY = List.of(
+            MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    private HypermediaPreference() {
+    }
+
+    static boolean linksRequested() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return true;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String prefer = request.getHeader("Prefer");
+        if (prefer != null && prefer.contains("return=minimal")) {
+            return false;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return true;
+        }
+        try {
+            List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(acceptable);
+            return acceptable.isEmpty() || BINARY.stream().noneMatch(acceptable.get(0)::equalsTypeAndSubtype);
+        } catch (InvalidMediaTypeException e) {
+            return true;
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.dto.UserLookupRequest;
+import com.example.userservice.dto.UserLookupResponse;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.idempotency.IdempotencyFilter;
 import com.example.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
@@ -22,6 +29,7 @@ import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -84,8 +92,11 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Пользователь успешно создан"),
             @ApiResponse(responseCode = "400", description = "Невалидные данные пользователя"),
-            @ApiResponse(responseCode = "409", description = "Пользователь с таким email уже существует")
+            @ApiResponse(responseCode = "409", description = "Пользователь с таким email уже существует"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key уже использован с другим телом")
     })
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyFilter.HEADER,
+            description = "Ключ повтора: запрос с тем же ключом получает первый ответ, пользователь не создается повторно")
     @PostMapping
     public ResponseEntity<EntityModel<UserResponse>> createUser(
             @Parameter(description = "Данные пользователя")
@@ -94,8 +105,10 @@ public class UserController {
         UserResponse user = userService.createUser(userRequest);
         EntityModel<UserResponse> resource = EntityModel.of(user);
 
-        resource.add(linkTo(methodOn(UserController.class).getUserById(user.getUserId())).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        if (HypermediaPreference.linksRequested()) {
+            resource.add(linkTo(methodOn(UserController.class).getUserById(user.getUserId())).withSelfRel());
+            resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED).body(resource);
     }
@@ -113,8 +126,10 @@ public class UserController {
         UserResponse user = userService.getUserById(id);
         EntityModel<UserResponse> resource = EntityModel.of(user);
 
-        resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        if (HypermediaPreference.linksRequested()) {
+            resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
+            resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        }
 
         return ResponseEntity.ok(resource);
     }
@@ -124,30 +139,89 @@ public class UserController {
     @GetMapping
     public ResponseEntity<CollectionModel<EntityModel<UserResponse>>> getAllUsers() {
         List<UserResponse> users = userService.getAllUsers();
+        boolean links = HypermediaPreference.linksRequested();
 
         List<EntityModel<UserResponse>> userResources = users.stream()
                 .map(user -> {
                     EntityModel<UserResponse> resource = EntityModel.of(user);
-                    resource.add(linkTo(methodOn(UserController.class).getUserById(user.getUserId())).withSelfRel());
+                    if (links) {
+                        resource.add(linkTo(methodOn(UserController.class).getUserById(user.getUserId())).withSelfRel());
+                    }
                     return resource;
                 })
                 .collect(Collectors.toList());
 
         CollectionModel<EntityModel<UserResponse>> resources = CollectionModel.of(userResources);
 
-        resources.add(linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel());
-        resources.add(linkTo(methodOn(UserController.class).createUser(new UserRequest())).withRel("create-user"));
+        if (links) {
+            resources.add(linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel());
+            resources.add(linkTo(methodOn(UserController.class).createUser(new UserRequest())).withRel("create-user"));
+        }
 
         return ResponseEntity.ok(resources);
     }
 
+    @Operation(summary = "Получить список пользователей с выбранными полями",
+            description = "Возвращает только перечисленные поля (id всегда), без ссылок; "
+                    + "непрочитанные колонки не выбираются из БД. Доступны: id, name, email, age, createdAt, updatedAt")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Список пользователей"),
+            @ApiResponse(responseCode = "400", description = "Неизвестное поле")
+    })
+    @GetMapping(params = {"fields", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> getAllUsersWithFields(
+            @Parameter(description = "Поля через запятую, например id,name")
+            @RequestParam List<String> fields) {
+
+        return ResponseEntity.ok(userService.getAllUsers(fields));
+    }
+
+    @Operation(summary = "Компактный список пользователей",
+            description = "id и name без ссылок - для выпадающих списков; то же, что fields=id,name")
+    @ApiResponse(responseCode = "200", description = "Список пользователей")
+    @GetMapping(params = {"view=compact", "!fields", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> getAllUsersCompact() {
+        return ResponseEntity.ok(userService.getAllUsers(UserService.COMPACT_FIELDS));
+    }
+
+    @Operation(summary = "Получить пользователей по списку ID",
+            description = "Один запрос вместо GET /{id} на каждого: пользователи в порядке ids, отсутствующие id - в missing")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результат поиска"),
+            @ApiResponse(responseCode = "400", description = "Пустой список или больше " + UserLookupRequest.MAX_IDS + " id")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<UserLookupResponse> getUsersByIds(
+            @Parameter(description = "ID пользователей через запятую")
+            @RequestParam @NotEmpty @Size(max = UserLookupRequest.MAX_IDS) List<Long> ids) {
+
+        return ResponseEntity.ok(userService.lookupUsers(ids));
+    }
+
+    @Operation(summary = "Получить пользователей по списку ID (POST)",
+            description = "То же, что GET /api/users?ids=..., для списков, не помещающихся в URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результат поиска"),
+            @ApiResponse(responseCode = "400", description = "Пустой список или больше " + UserLookupRequest.MAX_IDS + " id")
+    })
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookupResponse> lookupUsers(
+            @Parameter(description = "Список ID")
+            @Valid @RequestBody UserLookupRequest request) {
+
+        return ResponseEntity.ok(userService.lookupUsers(request.getIds()));
+    }
+
     @Operation(summary = "Обновить пользователя", description = "Обновляет данные пользователя по указанному ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Пользователь успешно обновлен"),
             @ApiResponse(responseCode = "400", description = "Невалидные данные"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
-            @ApiResponse(responseCode = "409", description = "Email уже используется другим пользователем")
+            @ApiResponse(responseCode = "409", description = "Email уже используется другим пользователем"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key уже использован с другим телом")
     })
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyFilter.HEADER,
+            description = "Ключ повтора: запрос с тем же ключом получает первый ответ")
     @PutMapping("/{id}")
     public ResponseEntity<EntityModel<UserResponse>> updateUser(
             @Parameter(description = "ID пользователя")
@@ -158,8 +232,10 @@ public class UserController {
         UserResponse user = userService.updateUser(id, userRequest);
         EntityModel<UserResponse> resource = EntityModel.of(user);
 
-        resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        if (HypermediaPreference.linksRequested()) {
+            resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
+            resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        }
 
         return ResponseEntity.ok(resource);
     }
@@ -183,6 +259,24 @@ public class UserController {
         return ResponseEntity.ok("Circuit Breaker endpoints are available. Use /test/circuit-breaker with parameters: delay, error, success");
     }
 
+    @Operation(summary = "Изменения пользователей с момента курсора",
+            description = "Возвращает измененных и удаленных пользователей после since в порядке изменения. "
+                    + "Без since - все текущие пользователи. cursor из ответа передается в следующий запрос")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница изменений"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор"),
+            @ApiResponse(responseCode = "410", description = "Курсор старше журнала удалений, нужна полная синхронизация")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<UserChangesResponse> getUserChanges(
+            @Parameter(description = "Курсор из предыдущего ответа")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(required = false) Integer limit) {
+
+        return ResponseEntity.ok(userService.getChangesSince(since, limit));
+    }
+
     @Operation(summary = "Получить количество пользователей", description = "Возвращает общее количество пользователей в системе")
     @ApiResponse(responseCode = "200", description = "Количество пользователей успешно получено")
     @GetMapping("/count")
@@ -201,8 +295,10 @@ public class UserController {
         boolean exists = userService.existsByEmail(email);
 
         EntityModel<Boolean> resource = EntityModel.of(exists);
-        resource.add(linkTo(methodOn(UserController.class).checkEmailExists(email)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        if (HypermediaPreference.linksRequested()) {
+            resource.add(linkTo(methodOn(UserController.class).checkEmailExists(email)).withSelfRel());
+            resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        }
 
         return ResponseEntity.ok(resource);
     }
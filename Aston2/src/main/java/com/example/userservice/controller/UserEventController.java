@@ -0,0 +1,45 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.event.UserEventStream;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/users")
+@Tag(name = "User API", description = "API для управления пользователями")
+public class UserEventController {
+
+    @Autowired
+    private UserEventStream userEventStream;
+
+    @Operation(summary = "Поток изменений пользователей",
+            description = "SSE: события created/updated/deleted. После обрыва поток продолжается с Last-Event-ID, "
+                    + "если пропущенные события еще в буфере, иначе приходит событие reset и состояние нужно перечитать")
+    @ApiResponse(responseCode = "200", description = "Поток событий открыт")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserEvents(
+            @Parameter(description = "id последнего полученного события")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @Parameter(description = "То же, что Last-Event-ID, для клиентов без управления заголовками")
+            @RequestParam(value = "lastEventId", required = false) String lastEventId) {
+
+        SseEmitter emitter = userEventStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        // no-store: поток не должны кэшировать ни браузер, ни stale-кэш gateway; X-Accel-Buffering - для nginx
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
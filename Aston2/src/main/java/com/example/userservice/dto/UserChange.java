@@ -0,0 +1,41 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Элемент выборки изменений: актуальное состояние пользователя или отметка об удалении.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChange {
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    private boolean deleted;
+    private LocalDateTime changedAt;
+    private UserResponse user;
+
+    public UserChange() {}
+
+    public UserChange(Long id, boolean deleted, LocalDateTime changedAt, UserResponse user) {
+        this.id = id;
+        this.deleted = deleted;
+        this.changedAt = changedAt;
+        this.user = user;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+
+    public UserResponse getUser() { return user; }
+    public void setUser(UserResponse user) { this.user = user; }
+}
@@ -0,0 +1,31 @@
+package com.example.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Страница изменений. cursor передается в следующий запрос как since;
+ * hasMore - изменения еще есть и следующую страницу можно запросить сразу.
+ */
+public class UserChangesResponse {
+
+    private List<UserChange> changes;
+    private String cursor;
+    private boolean hasMore;
+
+    public UserChangesResponse() {}
+
+    public UserChangesResponse(List<UserChange> changes, String cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<UserChange> getChanges() { return changes; }
+    public void setChanges(List<UserChange> changes) { this.changes = changes; }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
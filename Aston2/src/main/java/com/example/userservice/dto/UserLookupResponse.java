@@ -0,0 +1,29 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.util.List;
+
+/**
+ * Результат пакетного поиска: найденные пользователи в порядке запроса и id, которых нет.
+ */
+public class UserLookupResponse {
+
+    private List<UserResponse> users;
+    @JsonSerialize(contentUsing = ToStringSerializer.class)
+    private List<Long> missing;
+
+    public UserLookupResponse() {}
+
+    public UserLookupResponse(List<UserResponse> users, List<Long> missing) {
+        this.users = users;
+        this.missing = missing;
+    }
+
+    public List<UserResponse> getUsers() { return users; }
+    public void setUsers(List<UserResponse> users) { this.users = users; }
+
+    public List<Long> getMissing() { return missing; }
+    public void setMissing(List<Long> missing) { this.missing = missing; }
+}
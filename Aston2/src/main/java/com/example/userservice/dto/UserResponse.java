@@ -1,19 +1,24 @@
 package com.example.userservice.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.time.LocalDateTime;
 
 public class UserResponse extends RepresentationModel<UserResponse> {
 
+    // Id длиннее 53 бит: в JSON строкой, иначе JavaScript-клиенты теряют младшие разряды
     @JsonProperty("id")
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long userId;
 
     private String name;
     private String email;
     private Integer age;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 
     public UserResponse() {}
 
@@ -64,4 +69,12 @@ public class UserResponse extends RepresentationModel<UserResponse> {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.userservice.event;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
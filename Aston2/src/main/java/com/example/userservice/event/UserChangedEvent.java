@@ -0,0 +1,13 @@
+package com.example.userservice.event;
+
+import com.example.userservice.dto.UserResponse;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+/**
+ * Изменение пользователя, публикуется UserService после записи в репозиторий.
+ * Для DELETED поле user пустое.
+ */
+public record UserChangedEvent(UserChangeType type, @JsonSerialize(using = ToStringSerializer.class) Long userId,
+                               UserResponse user) {
+}
@@ -0,0 +1,54 @@
+package com.example.userservice.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кольцевой буфер последних событий с монотонными номерами.
+ * Позволяет продолжить поток с Last-Event-ID, пока нужные события не вытеснены.
+ */
+public class UserEventBuffer {
+
+    public record Entry(long sequence, UserChangedEvent event) {
+    }
+
+    /**
+     * События после запрошенного номера; gap означает, что часть событий уже потеряна
+     * и клиенту нужно перечитать состояние целиком.
+     */
+    public record Replay(List<Entry> entries, boolean gap) {
+    }
+
+    private final Entry[] ring;
+    private long latest;
+
+    public UserEventBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.ring = new Entry[capacity];
+    }
+
+    public synchronized Entry append(UserChangedEvent event) {
+        Entry entry = new Entry(++latest, event);
+        ring[(int) ((entry.sequence() - 1) % ring.length)] = entry;
+        return entry;
+    }
+
+    public synchronized Replay since(long lastSequence) {
+        long oldest = Math.max(1, latest - ring.length + 1);
+        // Номер из будущего - клиент видел другой экземпляр буфера
+        if (lastSequence > latest || lastSequence < oldest - 1) {
+            return new Replay(List.of(), true);
+        }
+        List<Entry> entries = new ArrayList<>((int) (latest - lastSequence));
+        for (long sequence = lastSequence + 1; sequence <= latest; sequence++) {
+            entries.add(ring[(int) ((sequence - 1) % ring.length)]);
+        }
+        return new Replay(entries, false);
+    }
+
+    public synchronized long latest() { return latest; }
+
+    public int capacity() { return ring.length; }
+}
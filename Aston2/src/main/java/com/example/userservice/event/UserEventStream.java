@@ -0,0 +1,242 @@
+package com.example.userservice.event;
+
+import com.example.userservice.config.UserEventProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Раздает изменения пользователей подписчикам SSE.
+ * <p>
+ * Публикующий поток только кладет событие в кольцевой буфер и в ограниченную очередь
+ * каждого подписчика, запись в сокеты идет в отдельном пуле. Если подписчик не успевает
+ * и его очередь переполнена, поток для него закрывается: клиент переподключается
+ * с Last-Event-ID и дочитывает пропущенное из буфера, а если и там уже нет - получает reset.
+ */
+public class UserEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventStream.class);
+
+    public static final String RESET_EVENT = "reset";
+
+    private final UserEventBuffer buffer;
+    private final UserEventProperties properties;
+    // Номера событий уникальны только в пределах запуска, поэтому id содержит эпоху
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object lock = new Object();
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+    private final Counter overflows;
+    private final Counter resets;
+
+    public UserEventStream(UserEventProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buffer = new UserEventBuffer(properties.getBufferSize());
+        this.dispatcher = Executors.newFixedThreadPool(properties.getDispatchThreads(), daemon("user-events-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("user-events-heartbeat-"));
+        long period = properties.getHeartbeat().toMillis();
+        if (period > 0) {
+            heartbeat.scheduleAtFixedRate(this::heartbeat, period, period, TimeUnit.MILLISECONDS);
+        }
+        Gauge.builder("user.events.subscribers", subscribers, Set::size)
+                .description("Открытые SSE-потоки изменений пользователей")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("user.events.overflow")
+                .description("Потоки, закрытые из-за переполнения очереди медленного подписчика")
+                .register(meterRegistry);
+        this.resets = Counter.builder("user.events.reset")
+                .description("Переподключения, для которых пропущенных событий уже нет в буфере")
+                .register(meterRegistry);
+    }
+
+    // Подписчики видят только закоммиченные изменения
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (lock) {
+            UserEventBuffer.Entry entry = buffer.append(event);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * Открывает поток. lastEventId - id последнего полученного события или null для подписки с текущего момента.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // Replay и регистрация под одной блокировкой с публикацией: события не теряются и не дублируются
+        synchronized (lock) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                long sequence = parseSequence(lastEventId);
+                UserEventBuffer.Replay replay = sequence < 0 ? new UserEventBuffer.Replay(List.of(), true)
+                        : buffer.since(sequence);
+                if (replay.gap()) {
+                    subscriber.reset = buffer.latest();
+                    resets.increment();
+                } else {
+                    subscriber.replay.addAll(replay.entries());
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    public int getSubscriberCount() { return subscribers.size(); }
+
+    public String eventId(long sequence) { return epoch + '-' + sequence; }
+
+    // -1, если id выдан другим запуском или не разбирается
+    long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        dispatcher.shutdown();
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Subscriber {
+
+        final SseEmitter emitter;
+        final Deque<UserEventBuffer.Entry> replay = new ArrayDeque<>();
+        final BlockingQueue<UserEventBuffer.Entry> live;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        volatile boolean subscribed;
+        volatile boolean heartbeatDue;
+        // Номер, с которого продолжается поток после reset; -1 - reset не нужен
+        volatile long reset = -1;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.live = new ArrayBlockingQueue<>(properties.getSubscriberQueue());
+        }
+
+        // Вызывается под lock из публикующего потока, поэтому не блокируется
+        void offer(UserEventBuffer.Entry entry) {
+            if (closed) {
+                return;
+            }
+            if (!live.offer(entry)) {
+                overflows.increment();
+                log.debug("Подписчик не успевает читать события, поток закрыт на {}", eventId(entry.sequence() - 1));
+                closed = true;
+                subscribers.remove(this);
+                dispatcher.execute(emitter::complete);
+                return;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        // Один поток на подписчика за раз: события уходят в порядке номеров
+        private void drain() {
+            try {
+                if (!subscribed) {
+                    subscribed = true;
+                    emitter.send(SseEmitter.event().comment("subscribed").reconnectTime(properties.getRetry().toMillis()));
+                }
+                if (reset >= 0) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).id(eventId(reset)).data(Map.of("latest", eventId(reset))));
+                    reset = -1;
+                }
+                UserEventBuffer.Entry entry;
+                while (!closed && ((entry = replay.poll()) != null || (entry = live.poll()) != null)) {
+                    emitter.send(toSse(entry));
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или emitter уже завершен
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && (!live.isEmpty() || heartbeatDue)) {
+                schedule();
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toSse(UserEventBuffer.Entry entry) {
+            return SseEmitter.event()
+                    .id(eventId(entry.sequence()))
+                    .name(entry.event().type().name().toLowerCase())
+                    .data(entry.event());
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.userservice.exception;
+
+public class CursorExpiredException extends RuntimeException {
+    public CursorExpiredException(String cursor) {
+        super("Changes cursor is older than the deletion log, full resync required: " + cursor);
+    }
+}
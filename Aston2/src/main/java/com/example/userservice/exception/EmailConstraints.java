@@ -0,0 +1,49 @@
+package com.example.userservice.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нарушение уникальности email, распознанное по имени ограничения: uk_users_email (users.email)
+ * или первичный ключ user_emails. Остальные нарушения, в том числе первичного ключа users, сюда не относятся.
+ */
+public final class EmailConstraints {
+
+    public static final String USERS_EMAIL = "uk_users_email";
+    public static final String USER_EMAILS = "user_emails";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // PostgreSQL: uk_users_email, user_emails_pkey. H2: "PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL ...) VALUES ..."
+    private static final Pattern CONSTRAINT = Pattern.compile("^\"?(?:\\w+\\.)?(\\w+)(?: ON (?:\\w+\\.)?(\\w+)\\()?",
+            Pattern.CASE_INSENSITIVE);
+
+    private EmailConstraints() {
+    }
+
+    public static boolean isTakenEmail(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return UNIQUE_VIOLATION.equals(violation.getSQLState()) && isEmailConstraint(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+
+    static boolean isEmailConstraint(String constraintName) {
+        if (constraintName == null) {
+            return false;
+        }
+        Matcher matcher = CONSTRAINT.matcher(constraintName.strip());
+        if (!matcher.find()) {
+            return false;
+        }
+        String name = matcher.group(1).toLowerCase(Locale.ROOT);
+        String table = matcher.group(2) == null ? null : matcher.group(2).toLowerCase(Locale.ROOT);
+        return name.equals(USERS_EMAIL) || name.startsWith(USERS_EMAIL + "_index")
+                || name.equals(USER_EMAILS + "_pkey") || USER_EMAILS.equals(table) && name.startsWith("primary_key");
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.userservice.exception;
+
+import java.util.Collection;
+
+public class InvalidFieldsException extends RuntimeException {
+    public InvalidFieldsException(Collection<String> unknown, Collection<String> allowed) {
+        super("Unknown fields " + unknown + ", allowed: " + allowed);
+    }
+}
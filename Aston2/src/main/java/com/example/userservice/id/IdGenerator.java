@@ -0,0 +1,12 @@
+package com.example.userservice.id;
+
+/**
+ * Источник id пользователей без обращения к БД. Значения уникальны между всеми инстансами сервиса
+ * и укладываются в {@link #ID_BITS} бит: младшие биты итогового id занимает номер шарда.
+ */
+public interface IdGenerator {
+
+    int ID_BITS = 57;
+
+    long nextId();
+}
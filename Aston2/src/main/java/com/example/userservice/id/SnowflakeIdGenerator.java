@@ -0,0 +1,81 @@
+package com.example.userservice.id;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id в стиле Snowflake: 40 бит миллисекунд от epoch | 7 бит номера узла | 10 бит последовательности.
+ * <p>
+ * Id растут со временем, поэтому вставки идут в конец индекса, а уникальность между инстансами
+ * обеспечивает номер узла. Последняя выданная миллисекунда и последовательность хранятся в одном
+ * AtomicLong и меняются CAS-ом без блокировок. За миллисекунду узел выдает до 1024 id,
+ * дальше ждет следующую. Если часы отошли назад не больше чем на maxClockSkew, id продолжают
+ * выдаваться от последней миллисекунды; при большем откате генератор отказывает, а не повторяет id.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final int TIMESTAMP_BITS = 40;
+    public static final int NODE_BITS = 7;
+    public static final int SEQUENCE_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final Instant DEFAULT_EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << TIMESTAMP_BITS) - 1;
+
+    private final long node;
+    private final long epochMillis;
+    private final long maxClockSkewMillis;
+    private final Clock clock;
+
+    // (миллисекунда от epoch << SEQUENCE_BITS) | последовательность последнего выданного id
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId, Instant epoch, Duration maxClockSkew, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be in [0, " + MAX_NODE_ID + "]: " + nodeId);
+        }
+        this.node = nodeId;
+        this.epochMillis = epoch.toEpochMilli();
+        this.maxClockSkewMillis = maxClockSkew.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long last = current >>> SEQUENCE_BITS;
+            long now = clock.millis() - epochMillis;
+            long next;
+            if (now > last) {
+                if (now > MAX_TIMESTAMP) {
+                    throw new IllegalStateException("Id timestamp overflow: epoch is too old");
+                }
+                next = now << SEQUENCE_BITS;
+            } else if (last - now > maxClockSkewMillis) {
+                throw new IllegalStateException("Clock moved backwards by " + (last - now)
+                        + " ms, more than allowed " + maxClockSkewMillis + " ms: refusing to generate ids");
+            } else if ((current & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                // Миллисекунда исчерпана (или часы отстают): ждем, пока время уйдет вперед
+                Thread.onSpinWait();
+                continue;
+            } else {
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | next & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS & MAX_NODE_ID);
+    }
+
+    public Instant timestampOf(long id) {
+        return Instant.ofEpochMilli(epochMillis + (id >>> (NODE_BITS + SEQUENCE_BITS)));
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.userservice.idempotency;
+
+import com.example.userservice.config.IdempotencyProperties;
+import com.example.userservice.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Idempotency-Key для создания (POST /api/users) и обновления (PUT /api/users/{id}) пользователя: повтор запроса с тем же ключом, методом и путем получает ответ
+ * первого запроса из {@link IdempotencyStore}, не доходя до контроллера и БД. Дубликат, пришедший,
+ * пока первый запрос выполняется, ждет его ответа. Тот же ключ с другим телом - 422.
+ * Ответы 5xx не запоминаются: повтор после сбоя выполняется заново.
+ * Читающие POST, например /api/users/lookup, не перехватываются: их ответ меняется вместе с данными.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String CREATE_PATH = "/api/users";
+    private static final Pattern UPDATE_PATH = Pattern.compile("/api/users/\\d+");
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getHeader(HEADER) == null || !isWrite(request);
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (request.getMethod()) {
+            case "POST" -> CREATE_PATH.equals(path);
+            case "PUT" -> UPDATE_PATH.matcher(path).matches();
+            default -> false;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        // Ключ хранится в памяти, поэтому длина ограничена
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST, "Invalid Idempotency Key",
+                    HEADER + " must be 1.." + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        String key = request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+        String fingerprint = fingerprint(body);
+        HttpServletRequest bufferedRequest = new BufferedBodyRequest(request, body);
+
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+            if (claim.owner()) {
+                execute(bufferedRequest, response, chain, key, claim);
+                return;
+            }
+            if (!claim.fingerprint().equals(fingerprint)) {
+                count("mismatch");
+                writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency Key Reused",
+                        HEADER + " was already used with a different request body");
+                return;
+            }
+            IdempotencyStore.StoredResponse stored = await(claim);
+            if (stored == null && !claim.response().isDone()) {
+                count("timeout");
+                writeError(request, response, HttpStatus.CONFLICT, "Request In Progress",
+                        "A request with this " + HEADER + " is still being processed");
+                return;
+            }
+            if (stored != null) {
+                count("replayed");
+                replay(stored, response);
+                return;
+            }
+            // Первый запрос закончился без ответа для повтора: ключ свободен, пробуем стать владельцем
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String key, IdempotencyStore.Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        Set<String> headersBefore = new HashSet<>(response.getHeaderNames());
+        boolean completed = false;
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < 500) {
+                store.complete(key, claim, capture(wrapper, headersBefore));
+                completed = true;
+            }
+            count("executed");
+            wrapper.copyBodyToResponse();
+        } finally {
+            if (!completed) {
+                store.release(key, claim);
+            }
+        }
+    }
+
+    // null - ответа нет: владелец освободил ключ или не уложился в wait-timeout
+    private IdempotencyStore.StoredResponse await(IdempotencyStore.Claim claim) throws ServletException {
+        try {
+            return claim.response().get(properties.getWaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for the request with the same " + HEADER, e);
+        } catch (ExecutionException e) {
+            throw new ServletException(e.getCause());
+        }
+    }
+
+    // Заголовки, выставленные обработкой запроса; выставленные раньше фильтрами (X-Request-Id) не сохраняются
+    private static IdempotencyStore.StoredResponse capture(ContentCachingResponseWrapper response, Set<String> headersBefore) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!headersBefore.contains(name) && !name.equalsIgnoreCase("Content-Type")
+                    && !name.equalsIgnoreCase("Content-Length")) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return new IdempotencyStore.StoredResponse(response.getStatus(), response.getContentType(), headers,
+                response.getContentAsByteArray());
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                            String error, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.value(), error, message, request.getRequestURI()));
+    }
+
+    private void count(String result) {
+        Counter.builder("idempotency.requests")
+                .description("Запросы с Idempotency-Key по исходу")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Тело уже прочитано для отпечатка, контроллер читает его копию
+    static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() { return input.available() == 0; }
+
+                @Override
+                public boolean isReady() { return true; }
+
+                // Тело уже в памяти: данные доступны сразу, после них - конец потока
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() { return input.read(); }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) { return input.read(buffer, offset, length); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
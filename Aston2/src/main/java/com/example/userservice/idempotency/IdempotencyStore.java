@@ -0,0 +1,93 @@
+package com.example.userservice.idempotency;
+
+import com.example.userservice.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ответы на запросы с Idempotency-Key в памяти экземпляра: LRU с ограничением размера и TTL.
+ * <p>
+ * Первый запрос с ключом становится владельцем записи и выполняется, остальные получают его ответ:
+ * пока он выполняется - ожиданием на той же записи, потом - из памяти. Если владелец не дал ответа,
+ * который можно повторить, запись освобождается и ждущие выполняют запрос сами.
+ */
+public class IdempotencyStore {
+
+    public record StoredResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    // owner - запрос должен выполниться и закончить запись через complete или release
+    public record Claim(boolean owner, String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        private long expiresAt;
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final IdempotencyProperties properties;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int maxEntries = properties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Gauge.builder("idempotency.store.size", this, IdempotencyStore::size)
+                .description("Запомненные ответы на запросы с Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    public synchronized Claim claim(String key, String fingerprint) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - now <= 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry != null) {
+            return new Claim(false, entry.fingerprint, entry.response);
+        }
+        entry = new Entry(fingerprint, now + properties.getTtl().toNanos());
+        entries.put(key, entry);
+        return new Claim(true, fingerprint, entry.response);
+    }
+
+    // TTL отсчитывается от ответа, а не от начала запроса
+    public void complete(String key, Claim claim, StoredResponse response) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response == claim.response()) {
+                entry.expiresAt = System.nanoTime() + properties.getTtl().toNanos();
+            }
+        }
+        claim.response().complete(response);
+    }
+
+    public void release(String key, Claim claim) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response == claim.response()) {
+                entries.remove(key);
+            }
+        }
+        claim.response().complete(null);
+    }
+
+    public synchronized int size() { return entries.size(); }
+}
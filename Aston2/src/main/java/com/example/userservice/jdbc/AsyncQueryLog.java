@@ -0,0 +1,50 @@
+package com.example.userservice.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Логирование медленных и повторяющихся запросов в отдельном потоке: поток запроса только кладет
+ * запись в ограниченную очередь. При переполнении записи отбрасываются (jdbc.log.dropped).
+ */
+public class AsyncQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncQueryLog.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Counter dropped;
+
+    public AsyncQueryLog(int queueCapacity, MeterRegistry meterRegistry) {
+        this.dropped = Counter.builder("jdbc.log.dropped")
+                .description("Slow/repeated query log records dropped because the log queue was full")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "jdbc-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> dropped.increment());
+    }
+
+    public void slowStatement(String sql, long elapsedNanos) {
+        executor.execute(() -> log.warn("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql));
+    }
+
+    public void repeatedStatement(String request, String sql, int times) {
+        executor.execute(() -> log.warn("Possible N+1 in {}: statement executed {} times: {}", request, times, sql));
+    }
+
+    public void budgetExceeded(String request, int queries, int budget) {
+        executor.execute(() -> log.warn("Query budget exceeded in {}: {} queries, budget {}", request, queries, budget));
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.userservice.jdbc;
+
+import com.example.userservice.warmup.WarmupRequests;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инспектор SQL на уровне JDBC: оборачивает DataSource, засекает каждый execute* и
+ * <ul>
+ *   <li>учитывает запрос в текущей {@link QueryScope} (счетчик на HTTP-запрос, бюджет в тестах);</li>
+ *   <li>пишет таймер jdbc.statements с тегом operation (select/insert/update/delete/other);</li>
+ *   <li>отдает запросы дольше порога в {@link AsyncQueryLog}, не блокируя поток запроса.</li>
+ * </ul>
+ * Запросы прогрева в таймер и лог медленных запросов не попадают.
+ * Заменяет spring.jpa.show-sql, который синхронно логирует каждый запрос.
+ */
+public class JdbcStatementInspector {
+
+    private final long slowThresholdNanos;
+    private final AsyncQueryLog queryLog;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public JdbcStatementInspector(Duration slowThreshold, AsyncQueryLog queryLog, MeterRegistry meterRegistry) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.queryLog = queryLog;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Прокси наследует класс пула (HikariDataSource): приведение типа, метрики пула и перепривязка
+    // spring.datasource.hikari при обновлении конфигурации работают как с исходным бином
+    public DataSource wrap(DataSource dataSource) {
+        ProxyFactory factory = new ProxyFactory(dataSource);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            return result instanceof Connection connection && "getConnection".equals(invocation.getMethod().getName())
+                    ? inspect(connection) : result;
+        });
+        return (DataSource) factory.getProxy();
+    }
+
+    void record(String sql, long elapsedNanos) {
+        String statement = sql != null ? sql : "<batch>";
+        QueryScope.recordInCurrent(statement, elapsedNanos);
+        if (WarmupRequests.isActive()) {
+            return;
+        }
+        timers.computeIfAbsent(operation(statement), operation -> Timer.builder("jdbc.statements")
+                        .description("JDBC statement execution time")
+                        .tag("operation", operation)
+                        .register(meterRegistry))
+                .record(Duration.ofNanos(elapsedNanos));
+        if (elapsedNanos >= slowThresholdNanos) {
+            queryLog.slowStatement(statement, elapsedNanos);
+        }
+    }
+
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> "other";
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private Connection inspect(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return inspect(statement, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    // PreparedStatement/CallableStatement знают свой SQL заранее, у Statement он приходит в execute(sql)
+    private Object inspect(Statement statement, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                record(sql, System.nanoTime() - start);
+            }
+        });
+    }
+
+}
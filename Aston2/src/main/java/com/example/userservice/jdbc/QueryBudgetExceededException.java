@@ -0,0 +1,9 @@
+package com.example.userservice.jdbc;
+
+// Бросается фильтром при jdbc-inspector.fail-on-budget-exceeded=true (включено в тестах)
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String request, int queries, int budget) {
+        super("Query budget exceeded in " + request + ": " + queries + " queries, budget " + budget);
+    }
+}
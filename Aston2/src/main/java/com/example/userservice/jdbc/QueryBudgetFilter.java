@@ -0,0 +1,74 @@
+package com.example.userservice.jdbc;
+
+import com.example.userservice.config.JdbcInspectorProperties;
+import com.example.userservice.warmup.WarmupRequests;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Считает SQL-запросы каждого HTTP-запроса: метрика http.server.requests.queries по эндпоинтам,
+ * предупреждение о повторах одного запроса (N+1) и о превышении бюджета запросов. Прогревочные запросы не считаются.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final JdbcInspectorProperties properties;
+    private final AsyncQueryLog queryLog;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(JdbcInspectorProperties properties, AsyncQueryLog queryLog, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queryLog = queryLog;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return WarmupRequests.isActive();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryScope scope = QueryScope.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+        report(request, scope);
+    }
+
+    private void report(HttpServletRequest request, QueryScope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.getCount());
+
+        String endpoint = request.getMethod() + " " + uri;
+        for (Map.Entry<String, Integer> execution : scope.getExecutions().entrySet()) {
+            if (execution.getValue() >= properties.getRepeatedStatementThreshold()) {
+                queryLog.repeatedStatement(endpoint, execution.getKey(), execution.getValue());
+            }
+        }
+        int budget = properties.getMaxQueriesPerRequest();
+        if (budget > 0 && scope.getCount() > budget) {
+            queryLog.budgetExceeded(endpoint, scope.getCount(), budget);
+            if (properties.isFailOnBudgetExceeded()) {
+                throw new QueryBudgetExceededException(endpoint, scope.getCount(), budget);
+            }
+        }
+    }
+}
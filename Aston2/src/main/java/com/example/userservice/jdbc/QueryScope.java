@@ -0,0 +1,75 @@
+package com.example.userservice.jdbc;
+
+import io.micrometer.context.ContextRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчик SQL-запросов единицы работы: HTTP-запроса ({@link QueryBudgetFilter}) или блока в тесте:
+ * <pre>
+ * try (QueryScope scope = QueryScope.open()) {
+ *     userService.getUserById(id);
+ *     assertThat(scope.getCount()).isEqualTo(1);
+ * }
+ * </pre>
+ * Область привязана к потоку; вложенные области видят и запросы внутренних. В потоки circuit breaker
+ * область переносится через context-propagation (см. Resilience4jConfig).
+ */
+public final class QueryScope implements AutoCloseable {
+
+    public static final String CONTEXT_KEY = "user-service.query-scope";
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(CONTEXT_KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private final QueryScope parent;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+
+    private QueryScope(QueryScope parent) {
+        this.parent = parent;
+    }
+
+    public static QueryScope open() {
+        QueryScope scope = new QueryScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void recordInCurrent(String sql, long elapsedNanos) {
+        for (QueryScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.count.incrementAndGet();
+            scope.nanos.addAndGet(elapsedNanos);
+            scope.executions.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    public int getCount() { return count.get(); }
+
+    public long getNanos() { return nanos.get(); }
+
+    // Сколько раз выполнялся каждый текст запроса: повторы одного и того же SELECT - признак N+1
+    public Map<String, Integer> getExecutions() {
+        Map<String, Integer> snapshot = new ConcurrentHashMap<>();
+        executions.forEach((sql, times) -> snapshot.put(sql, times.get()));
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
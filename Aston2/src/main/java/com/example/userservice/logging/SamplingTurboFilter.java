@@ -0,0 +1,68 @@
+package com.example.userservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сэмплирование логов горячих путей: из событий логгера (и его потомков) уровня level и ниже
+ * пропускается только каждое rate-е. Решение принимается до создания LoggingEvent и форматирования
+ * сообщения, поэтому отброшенные события ничего не аллоцируют. События выше level проходят всегда.
+ * <pre>
+ * &lt;turboFilter class="com.example.userservice.logging.SamplingTurboFilter"&gt;
+ *     &lt;logger&gt;com.example.userservice.outbox&lt;/logger&gt;
+ *     &lt;level&gt;INFO&lt;/level&gt;
+ *     &lt;rate&gt;100&lt;/rate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong counter = new AtomicLong();
+    private String logger;
+    private Level level = Level.INFO;
+    private int rate = 1;
+
+    @Override
+    public void start() {
+        if (logger == null || logger.isEmpty()) {
+            addError("logger is not set for " + getName());
+            return;
+        }
+        if (rate < 1) {
+            addError("rate must be positive, got " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger target, Level eventLevel, String format, Object[] params, Throwable t) {
+        if (!isStarted() || rate == 1 || eventLevel.toInt() > level.toInt() || !matches(target)) {
+            return FilterReply.NEUTRAL;
+        }
+        // isEnabledFor снова вызвал бы turbo-фильтры, поэтому уровень логгера сравнивается напрямую
+        if (!eventLevel.isGreaterOrEqual(target.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(Logger target) {
+        String name = target.getName();
+        return name.startsWith(logger) && (name.length() == logger.length() || name.charAt(logger.length()) == '.');
+    }
+
+    public String getLogger() { return logger; }
+    public void setLogger(String logger) { this.logger = logger; }
+
+    public Level getLevel() { return level; }
+    public void setLevel(Level level) { this.level = level; }
+
+    public int getRate() { return rate; }
+    public void setRate(int rate) { this.rate = rate; }
+}
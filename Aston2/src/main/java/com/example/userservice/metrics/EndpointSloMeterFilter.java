@@ -0,0 +1,58 @@
+package com.example.userservice.metrics;
+
+import com.example.userservice.config.SloProperties;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Гистограмма и бакеты SLO для http.server.requests по каждому эндпоинту (теги method и uri).
+ * К общим бакетам добавляется целевая задержка эндпоинта, чтобы долю запросов в SLO
+ * можно было считать в Prometheus по точной границе le.
+ */
+public class EndpointSloMeterFilter implements MeterFilter {
+
+    public static final String METER_NAME = "http.server.requests";
+
+    private final SloProperties properties;
+    private final Map<String, Duration> objectives = new HashMap<>();
+
+    public EndpointSloMeterFilter(SloProperties properties) {
+        this.properties = properties;
+        for (SloProperties.Endpoint endpoint : properties.getEndpoints()) {
+            objectives.put(key(endpoint.getMethod(), endpoint.getUri()), endpoint.getObjective());
+        }
+    }
+
+    @Override
+    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (!METER_NAME.equals(id.getName())) {
+            return config;
+        }
+        TreeSet<Double> boundaries = new TreeSet<>();
+        for (Duration bucket : properties.getBuckets()) {
+            boundaries.add((double) bucket.toNanos());
+        }
+        boundaries.add((double) objective(id.getTag("method"), id.getTag("uri")).toNanos());
+        return DistributionStatisticConfig.builder()
+                .percentilesHistogram(properties.isPercentilesHistogram())
+                .serviceLevelObjectives(boundaries.stream().mapToDouble(Double::doubleValue).toArray())
+                .minimumExpectedValue((double) properties.getMinimumExpected().toNanos())
+                .maximumExpectedValue((double) properties.getMaximumExpected().toNanos())
+                .build()
+                .merge(config);
+    }
+
+    public Duration objective(String method, String uri) {
+        return objectives.getOrDefault(key(method, uri), properties.getDefaultObjective());
+    }
+
+    private static String key(String method, String uri) {
+        return method + " " + uri;
+    }
+}
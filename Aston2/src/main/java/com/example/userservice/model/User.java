@@ -1,18 +1,24 @@
 package com.example.userservice.model;
 
+import com.example.userservice.sharding.ShardedIdGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_updated_at", columnList = "updated_at, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"))
 public class User {
+    // Глобально уникальный id с номером шарда (см. ShardedIds), назначается до INSERT без обращения к БД
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "user_id")
+    @GenericGenerator(name = "user_id", type = ShardedIdGenerator.class)
     private Long id;
 
     @NotBlank
@@ -20,10 +26,11 @@ public class User {
     @Column(nullable = false)
     private String name;
 
+    // Занятый email - нарушение uk_users_email при вставке, без проверки заранее (см. UserService)
     @NotBlank
     @Email
     @Size(max = 255)
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     private Integer age;
@@ -32,6 +39,11 @@ public class User {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Обновляется при каждой записи, по нему работает выборка изменений GET /api/users/changes
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     public User() {}
 
     public User(String name, String email, Integer age) {
@@ -54,4 +66,7 @@ public class User {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.userservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Занятый email при нескольких шардах. Строка лежит на шарде, куда email попадает по хэшу, и ее первичный
+ * ключ держит уникальность email между шардами: сменивший email пользователь остается на своем шарде.
+ * После добавления шардов строки переносятся на новые места при старте ({@code EmailDirectoryMigrator}).
+ * С одним шардом таблица не используется, уникальность держит индекс users.email.
+ */
+@Entity
+@Table(name = "user_emails")
+public class UserEmail {
+    @Id
+    private String email;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Время занятия: OrphanEmailCleaner не трогает свежие строки, смена email с ними еще может идти
+    @Column(name = "registered_at", nullable = false)
+    private Instant registeredAt;
+
+    public UserEmail() {}
+
+    public UserEmail(String email, Long userId, Instant registeredAt) {
+        this.email = email;
+        this.userId = userId;
+        this.registeredAt = registeredAt;
+    }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Instant getRegisteredAt() { return registeredAt; }
+    public void setRegisteredAt(Instant registeredAt) { this.registeredAt = registeredAt; }
+}
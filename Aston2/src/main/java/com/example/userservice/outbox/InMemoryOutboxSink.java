@@ -0,0 +1,21 @@
+package com.example.userservice.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Копит опубликованные сообщения в памяти; для тестов и локального запуска.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> messages = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) {
+        messages.addAll(batch);
+    }
+
+    public synchronized List<OutboxMessage> getMessages() { return List.copyOf(messages); }
+
+    public synchronized void clear() { messages.clear(); }
+}
@@ -0,0 +1,23 @@
+package com.example.userservice.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Получатель по умолчанию, пока не подключен брокер: пишет события в лог.
+ */
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        for (OutboxMessage message : batch) {
+            log.debug("outbox {} {} user {}: {}", message.id(), message.type(), message.aggregateId(), message.payload());
+        }
+        log.info("Опубликовано событий outbox: {} (id {}..{})", batch.size(),
+                batch.get(0).id(), batch.get(batch.size() - 1).id());
+    }
+}
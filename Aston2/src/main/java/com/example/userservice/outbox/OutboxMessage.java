@@ -0,0 +1,19 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.model.OutboxEvent;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.time.Instant;
+
+/**
+ * Сообщение, которое relay передает в OutboxSink. id растет в порядке записи в outbox своего шарда.
+ */
+public record OutboxMessage(long id, @JsonSerialize(using = ToStringSerializer.class) long aggregateId, String type,
+                            String payload, Instant createdAt) {
+
+    static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateId(), event.getType(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.example.userservice.sharding.ShardRouter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая публикация outbox пачками в OutboxSink.
+ * <p>
+ * Один поток читает записи в порядке id, поэтому события одного пользователя уходят
+ * в порядке записи. Неполная пачка ждет до linger, чтобы набрать больше событий.
+ * Пропуск в id может означать транзакцию, которая еще не закоммичена: публикация
+ * останавливается перед ним, пока пропуск не станет старше gap-timeout (значит, откат).
+ * При ошибке получателя та же пачка повторяется с экспоненциальной паузой.
+ * <p>
+ * Outbox пишется на шарде пользователя, поэтому у каждого шарда своя очередь и своя позиция в ней:
+ * шарды обходятся по очереди, порядок событий одного пользователя сохраняется.
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository repository;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final Clock clock;
+    private final ShardRouter shardRouter;
+    private final List<ShardCursor> cursors = new ArrayList<>();
+
+    private final Timer deliveryLag;
+    private final Timer publishSuccess;
+    private final Timer publishError;
+    private final DistributionSummary batchSize;
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+    private volatile boolean running;
+
+    // Доступ только из потока relay
+    private Duration backoff = Duration.ZERO;
+    private Instant retryAt = Instant.MIN;
+
+    public OutboxRelay(OutboxEventRepository repository, OutboxSink sink, OutboxProperties properties,
+                       Clock clock, MeterRegistry meterRegistry) {
+        this(repository, sink, properties, clock, meterRegistry, ShardRouter.single());
+    }
+
+    public OutboxRelay(OutboxEventRepository repository, OutboxSink sink, OutboxProperties properties,
+                       Clock clock, MeterRegistry meterRegistry, ShardRouter shardRouter) {
+        this.repository = repository;
+        this.sink = sink;
+        this.properties = properties;
+        this.clock = clock;
+        this.shardRouter = shardRouter;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            cursors.add(new ShardCursor(shard));
+        }
+        Gauge.builder("outbox.pending", cursors, list -> list.stream().mapToLong(cursor -> cursor.pending.get()).sum())
+                .description("Записи outbox, ожидающие публикации")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", cursors,
+                        list -> list.stream().mapToLong(cursor -> cursor.oldestPendingMillis.get()).max().orElse(0) / 1000.0)
+                .description("Возраст самой старой неопубликованной записи")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Время от записи в outbox до публикации")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.publishSuccess = publishTimer(meterRegistry, "success");
+        this.publishError = publishTimer(meterRegistry, "error");
+        this.batchSize = DistributionSummary.builder("outbox.batch.size")
+                .description("Размер опубликованной пачки")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = properties.getPollInterval().toMillis();
+        task = executor.scheduleWithFixedDelay(this::tick, period, period, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (task != null) {
+            task.cancel(false);
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() { return running; }
+
+    private void tick() {
+        try {
+            while (running && !clock.instant().isBefore(retryAt) && relayBatch()) {
+                // полная пачка - сразу следующая
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ошибка чтения outbox: {}", e.toString());
+        }
+    }
+
+    /**
+     * Публикует по одной пачке с каждого шарда. true, если хотя бы одна пачка была полной и стоит сразу читать дальше.
+     */
+    boolean relayBatch() {
+        boolean full = false;
+        Instant retryBefore = retryAt;
+        for (ShardCursor cursor : cursors) {
+            full |= shardRouter.onShard(cursor.shard, () -> relayBatch(cursor));
+            if (retryAt != retryBefore) {
+                // Получатель недоступен: остальные шарды ждут той же паузы
+                return false;
+            }
+        }
+        return full;
+    }
+
+    private boolean relayBatch(ShardCursor cursor) {
+        int limit = properties.getBatchSize();
+        List<OutboxEvent> events = repository.findPending(PageRequest.of(0, limit));
+        Instant now = clock.instant();
+        cursor.pending.set(events.size() < limit ? events.size() : repository.count());
+        cursor.oldestPendingMillis.set(events.isEmpty() ? 0
+                : Math.max(0, Duration.between(events.get(0).getCreatedAt(), now).toMillis()));
+        if (events.isEmpty()) {
+            return false;
+        }
+        if (events.size() < limit && cursor.oldestPendingMillis.get() < properties.getLinger().toMillis()) {
+            return false;
+        }
+
+        List<OutboxMessage> batch = contiguousPrefix(cursor, events, now);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            sink.publish(batch);
+        } catch (Exception e) {
+            publishError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            backoff = backoff.isZero() ? properties.getPollInterval()
+                    : min(backoff.multipliedBy(2), properties.getMaxBackoff());
+            retryAt = now.plus(backoff);
+            log.warn("Не удалось опубликовать {} событий outbox, повтор через {} мс: {}",
+                    batch.size(), backoff.toMillis(), e.toString());
+            return false;
+        }
+        publishSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        backoff = Duration.ZERO;
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        Instant published = clock.instant();
+        for (OutboxMessage message : batch) {
+            ids.add(message.id());
+            deliveryLag.record(Duration.between(message.createdAt(), published));
+        }
+        repository.deleteAllByIdInBatch(ids);
+        cursor.lastPublishedId = ids.get(ids.size() - 1);
+        cursor.pending.addAndGet(-batch.size());
+        batchSize.record(batch.size());
+        return batch.size() == limit;
+    }
+
+    private List<OutboxMessage> contiguousPrefix(ShardCursor cursor, List<OutboxEvent> events, Instant now) {
+        List<OutboxMessage> batch = new ArrayList<>(events.size());
+        long previous = cursor.lastPublishedId;
+        for (OutboxEvent event : events) {
+            if (previous >= 0 && event.getId() != previous + 1 && !gapExpired(cursor, previous, now)) {
+                break;
+            }
+            batch.add(OutboxMessage.of(event));
+            previous = event.getId();
+        }
+        return batch;
+    }
+
+    private boolean gapExpired(ShardCursor cursor, long afterId, Instant now) {
+        if (cursor.gapAfterId != afterId) {
+            cursor.gapAfterId = afterId;
+            cursor.gapSeenAt = now;
+        }
+        if (Duration.between(cursor.gapSeenAt, now).compareTo(properties.getGapTimeout()) < 0) {
+            return false;
+        }
+        log.debug("Пропуск в outbox шарда {} после id {} считается откатом транзакции", cursor.shard, afterId);
+        cursor.gapAfterId = -1;
+        return true;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    // Позиция relay в outbox одного шарда: id outbox растут независимо в каждой БД
+    private static class ShardCursor {
+        private final int shard;
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong oldestPendingMillis = new AtomicLong();
+        private long lastPublishedId = -1;
+        private long gapAfterId = -1;
+        private Instant gapSeenAt;
+
+        ShardCursor(int shard) {
+            this.shard = shard;
+        }
+    }
+
+    private static Timer publishTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("outbox.publish")
+                .description("Время публикации пачки в OutboxSink")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.userservice.outbox;
+
+import java.util.List;
+
+/**
+ * Получатель событий outbox (брокер, журнал, тестовый буфер).
+ * Пачка публикуется целиком: при исключении relay повторит ее позже с теми же сообщениями,
+ * поэтому получатель должен быть готов к повторной доставке (at-least-once, ключ - id).
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxMessage> batch) throws Exception;
+}
@@ -0,0 +1,39 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+
+import java.time.Clock;
+
+/**
+ * Пишет изменение пользователя в outbox. Слушатель синхронный, поэтому запись
+ * попадает в транзакцию UserService и откатывается вместе с ней.
+ */
+public class OutboxWriter {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public OutboxWriter(OutboxEventRepository repository, ObjectMapper objectMapper, Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // Без записи в outbox изменение не должно зафиксироваться
+            throw new IllegalStateException("Cannot serialize user change " + event.type() + " " + event.userId(), e);
+        }
+        repository.save(new OutboxEvent(event.userId(), event.type().name(), payload, clock.instant()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.userservice.refresh;
+
+import java.util.Set;
+
+/**
+ * Уведомление config-server: у приложения изменились перечисленные ключи.
+ */
+public record ConfigChangeNotification(String application, String profile, String label,
+                                       Set<String> keys, String etag) {
+}
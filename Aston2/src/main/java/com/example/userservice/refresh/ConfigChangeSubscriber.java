@@ -0,0 +1,126 @@
+package com.example.userservice.refresh;
+
+import com.example.userservice.config.ConfigPushProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Подписка на поток изменений config-server (Server-Sent Events, GET /changes?application=...).
+ * Каждое уведомление передаётся в {@link ConfigRefresher}; при обрыве соединения
+ * подписка восстанавливается через config.push.reconnect-delay, после чего
+ * конфигурация обновляется один раз.
+ */
+public class ConfigChangeSubscriber implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigChangeSubscriber.class);
+
+    // Первая строка потока от config-server
+    private static final String SUBSCRIBED = ":subscribed";
+
+    private final ConfigPushProperties properties;
+    private final String application;
+    private final ConfigRefresher refresher;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private volatile boolean running;
+    private volatile Stream<String> stream;
+    private Thread thread;
+
+    public ConfigChangeSubscriber(ConfigPushProperties properties, String application,
+                                  ConfigRefresher refresher, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.application = application;
+        this.refresher = refresher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "config-change-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Stream<String> current = stream;
+        if (current != null) {
+            current.close();
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() { return running; }
+
+    private void listen() {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(properties.getServerUrl() + "/changes?application=" + application))
+                .header("Accept", "text/event-stream")
+                .build();
+        while (running) {
+            try {
+                HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+                if (response.statusCode() == 200) {
+                    log.info("Подписка на изменения конфигурации {} установлена", properties.getServerUrl());
+                    stream = response.body();
+                    read(stream.iterator());
+                } else {
+                    response.body().close();
+                    log.warn("config-server ответил {} на подписку", response.statusCode());
+                }
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    log.debug("Поток изменений конфигурации прерван: {}", e.toString());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!sleep()) {
+                return;
+            }
+        }
+    }
+
+    // Событие SSE заканчивается пустой строкой, данные приходят в строках data:
+    private void read(Iterator<String> lines) throws IOException {
+        StringBuilder data = new StringBuilder();
+        while (running && lines.hasNext()) {
+            String line = lines.next();
+            if (line.equals(SUBSCRIBED)) {
+                // Изменения, пропущенные без подписки, забираются одним обновлением
+                refresher.refresh(new ConfigChangeNotification(application, null, null, Set.of(), null));
+            } else if (line.startsWith("data:")) {
+                data.append(line.substring(5).trim());
+            } else if (line.isEmpty() && !data.isEmpty()) {
+                refresher.refresh(objectMapper.readValue(data.toString(), ConfigChangeNotification.class));
+                data.setLength(0);
+            }
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(properties.getReconnectDelay().toMillis());
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.userservice.refresh;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Применяет уведомление об изменении конфигурации без перезапуска контекста:
+ * перечитывает Environment и перепривязывает только @ConfigurationProperties
+ * (через EnvironmentChangeEvent), бины в refresh scope не пересоздаются.
+ */
+public class ConfigRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigRefresher.class);
+
+    private final ContextRefresher contextRefresher;
+    private final Timer pauseSuccess;
+    private final Timer pauseError;
+    private final DistributionSummary changedKeys;
+
+    public ConfigRefresher(ContextRefresher contextRefresher, MeterRegistry meterRegistry) {
+        this.contextRefresher = contextRefresher;
+        this.pauseSuccess = pauseTimer(meterRegistry, "success");
+        this.pauseError = pauseTimer(meterRegistry, "error");
+        this.changedKeys = DistributionSummary.builder("config.refresh.keys")
+                .description("Сколько ключей изменилось при обновлении")
+                .register(meterRegistry);
+    }
+
+    // Обновления выполняются по одному: параллельный refresh перепривязывает одни и те же бины
+    public synchronized Set<String> refresh(ConfigChangeNotification notification) {
+        long start = System.nanoTime();
+        Set<String> keys;
+        try {
+            keys = contextRefresher.refreshEnvironment();
+        } catch (RuntimeException e) {
+            pauseError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("Не удалось обновить конфигурацию по уведомлению {}: {}", notification, e.toString());
+            return Set.of();
+        }
+        long elapsed = System.nanoTime() - start;
+        pauseSuccess.record(elapsed, TimeUnit.NANOSECONDS);
+        changedKeys.record(keys.size());
+        log.info("Конфигурация обновлена за {} мс (etag {}), изменились ключи: {}",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), notification.etag(), keys);
+        return keys;
+    }
+
+    private static Timer pauseTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("config.refresh.pause")
+                .description("Время перечитывания Environment и перепривязки настроек")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.UserEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserEmailRepository extends JpaRepository<UserEmail, String> {
+
+    // Один INSERT без чтения (save сначала выбрал бы строку по ключу): занятый email - нарушение первичного ключа
+    @Modifying
+    @Query(value = "INSERT INTO user_emails (email, user_id, registered_at) VALUES (:email, :userId, CURRENT_TIMESTAMP)", nativeQuery = true)
+    void register(@Param("email") String email, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserEmail e WHERE e.email = :email AND e.userId = :userId")
+    int release(@Param("email") String email, @Param("userId") Long userId);
+
+    // Keyset по email: строки старше cutoff, которые проверяет OrphanEmailCleaner
+    @Query("SELECT e FROM UserEmail e WHERE e.registeredAt < :cutoff AND e.email > :afterEmail ORDER BY e.email")
+    List<UserEmail> findRegisteredBefore(@Param("cutoff") Instant cutoff, @Param("afterEmail") String afterEmail,
+                                         Pageable pageable);
+
+    // Только строка, которая была старше cutoff при проверке: занятый заново адрес не удаляется
+    @Modifying
+    @Query("DELETE FROM UserEmail e WHERE e.email = :email AND e.userId = :userId AND e.registeredAt < :cutoff")
+    int releaseOrphan(@Param("email") String email, @Param("userId") Long userId, @Param("cutoff") Instant cutoff);
+}
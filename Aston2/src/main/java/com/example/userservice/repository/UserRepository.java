@@ -1,18 +1,34 @@
 package com.example.userservice.repository;
 
 import com.example.userservice.model.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
 
+    // Строка пользователя заблокирована до конца транзакции: смена email читает прежний адрес под блокировкой
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
     @Query("SELECT u FROM User u ORDER BY u.createdAt DESC")
     List<User> findAllOrderByCreatedAtDesc();
+
+    // Keyset по (updatedAt, id): страница продолжается ровно с места курсора, использует idx_users_updated_at
+    @Query("SELECT u FROM User u WHERE (u.updatedAt > :since OR (u.updatedAt = :since AND u.id > :afterId)) " +
+            "AND u.updatedAt < :until ORDER BY u.updatedAt, u.id")
+    List<User> findUpdatedAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                @Param("until") LocalDateTime until, Pageable pageable);
 }
\ No newline at end of file
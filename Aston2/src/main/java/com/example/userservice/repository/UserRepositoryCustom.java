@@ -0,0 +1,13 @@
+package com.example.userservice.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Список пользователей только с указанными атрибутами, новые первыми.
+     * Выбираются только эти колонки, сущности User не создаются.
+     */
+    List<Map<String, Object>> findAllAttributes(List<String> attributes);
+}
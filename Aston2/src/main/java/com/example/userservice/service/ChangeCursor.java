@@ -0,0 +1,34 @@
+package com.example.userservice.service;
+
+import com.example.userservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в выборке изменений: метка времени и id последнего отданного элемента.
+ * Для клиента - непрозрачная строка.
+ */
+record ChangeCursor(LocalDateTime timestamp, long id) {
+
+    // Нижняя граница для первой синхронизации (LocalDateTime.MIN не помещается в TIMESTAMP)
+    static final ChangeCursor START = new ChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    String encode() {
+        String raw = timestamp + "~" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ChangeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('~');
+            return new ChangeCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.UserChangesProperties;
+import com.example.userservice.dto.UserChange;
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.event.UserChangeType;
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.exception.CursorExpiredException;
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserTombstone;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserTombstoneRepository;
+import com.example.userservice.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Инкрементальная синхронизация: измененные пользователи по updatedAt и удаленные по журналу удалений.
+ * Клиент платит за число изменений с прошлого запроса, а не за размер таблицы.
+ * Журнал удалений лежит на шарде удаленного пользователя, страница собирается со всех шардов.
+ */
+@Service
+public class UserChangeService {
+
+    private static final Comparator<UserChange> ORDER = Comparator.comparing(UserChange::getChangedAt)
+            .thenComparing(UserChange::getId);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private UserChangesProperties properties;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Синхронный слушатель: отметка об удалении пишется в транзакции deleteUser
+    @EventListener
+    @Transactional
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangeType.DELETED) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        tombstoneRepository.save(new UserTombstone(event.userId(), now));
+        tombstoneRepository.deleteDeletedBefore(now.minus(properties.getTombstoneRetention()));
+    }
+
+    public UserChangesResponse getChangesSince(String since, Integer limit) {
+        LocalDateTime now = LocalDateTime.now();
+        ChangeCursor from = since == null || since.isBlank() ? ChangeCursor.START : ChangeCursor.decode(since);
+        if (from != ChangeCursor.START && from.timestamp().isBefore(now.minus(properties.getTombstoneRetention()))) {
+            throw new CursorExpiredException(since);
+        }
+        LocalDateTime until = now.minus(properties.getVisibilityLag());
+        int size = Math.max(1, Math.min(limit != null ? limit : properties.getDefaultLimit(), properties.getMaxLimit()));
+        // По size + 1 из каждого источника каждого шарда: лишний элемент показывает, что есть следующая страница.
+        // Курсор (время, id) общий для всех шардов: id пользователей уникальны глобально
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<UserChange> changes = new ArrayList<>();
+        for (List<UserChange> shardChanges : shardRouter.fanOut(shard -> changesAfter(from, until, page))) {
+            changes.addAll(shardChanges);
+        }
+        changes.sort(ORDER);
+
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+            UserChange last = changes.get(size - 1);
+            return new UserChangesResponse(changes, new ChangeCursor(last.getChangedAt(), last.getId()).encode(), true);
+        }
+        // Все, что старше until, отдано: курсор сдвигается к until, даже если изменений не было
+        return new UserChangesResponse(changes, new ChangeCursor(until, 0).encode(), false);
+    }
+
+    // Курсор, с которого getChangesSince отдаст только будущие изменения
+    public String latestCursor() {
+        return new ChangeCursor(LocalDateTime.now().minus(properties.getVisibilityLag()), 0).encode();
+    }
+
+    private List<UserChange> changesAfter(ChangeCursor from, LocalDateTime until, PageRequest page) {
+        List<UserChange> changes = new ArrayList<>();
+        for (User user : userRepository.findUpdatedAfter(from.timestamp(), from.id(), until, page)) {
+            changes.add(new UserChange(user.getId(), false, user.getUpdatedAt(), UserService.mapToUserResponse(user)));
+        }
+        for (UserTombstone tombstone : tombstoneRepository.findDeletedAfter(from.timestamp(), from.id(), until, page)) {
+            changes.add(new UserChange(tombstone.getUserId(), true, tombstone.getDeletedAt(), null));
+        }
+        return changes;
+    }
+}
@@ -1,65 +1,165 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.dto.UserLookupResponse;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.event.UserChangeType;
+import com.example.userservice.event.UserChangedEvent;
 import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.EmailConstraints;
+import com.example.userservice.exception.InvalidFieldsException;
 import com.example.userservice.exception.UserNotFoundException;
 import com.example.userservice.model.User;
+import com.example.userservice.repository.UserEmailRepository;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.sharding.ShardRouter;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+// Каждый публичный метод - span user.service (UserService#getUserById и т.д.), см. TracingConfig.
+// Шард выбирается до транзакции (ShardRouter), поэтому транзакции открываются через inTransaction, а не @Transactional
 @Service
+@Observed(name = "user.service")
 public class UserService {
 
+    // Поля, доступные в fields=; совпадают с именами в UserResponse и атрибутами User
+    public static final Set<String> LISTING_FIELDS = Set.of("id", "name", "email", "age", "createdAt", "updatedAt");
+    public static final List<String> COMPACT_FIELDS = List.of("id", "name");
+
+    // Порядок списков пользователей: новые первыми; по нему сливаются ответы шардов
+    private static final Comparator<User> NEWEST_FIRST = Comparator.comparing(User::getCreatedAt).reversed();
+    private static final Comparator<Map<String, Object>> NEWEST_ROW_FIRST =
+            Comparator.comparing((Map<String, Object> row) -> (LocalDateTime) row.get("createdAt")).reversed();
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private CircuitBreakerFactory circuitBreakerFactory;
 
-    public UserResponse createUser(UserRequest userRequest) {
-        if (userRepository.existsByEmail(userRequest.getEmail())) {
-            throw new EmailAlreadyExistsException("Email already exists: " + userRequest.getEmail());
-        }
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserChangeService userChangeService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserEmailRepository userEmailRepository;
 
+    // Email заранее не проверяется: занятый email - нарушение уникальности при вставке, без гонки между
+    // проверкой и INSERT. С одним шардом это единственный запрос к users, с несколькими - плюс INSERT в user_emails
+    public UserResponse createUser(UserRequest userRequest) {
         User user = new User();
         user.setName(userRequest.getName());
         user.setEmail(userRequest.getEmail());
         user.setAge(userRequest.getAge());
         user.setCreatedAt(LocalDateTime.now());
 
-        User savedUser = userRepository.save(user);
-        return mapToUserResponse(savedUser);
+        int shard = shardRouter.shardForEmail(user.getEmail());
+        return rejectingTakenEmail(user.getEmail(), () -> shardRouter.inTransaction(shard, () -> {
+            User savedUser = userRepository.saveAndFlush(user);
+            if (emailsSharded()) {
+                userEmailRepository.register(savedUser.getEmail(), savedUser.getId());
+            }
+            UserResponse response = mapToUserResponse(savedUser);
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.CREATED, response.getUserId(), response));
+            return response;
+        }));
     }
 
     public UserResponse getUserById(Long id) {
         CircuitBreaker circuitBreaker = circuitBreakerFactory.create("userService");
 
         return circuitBreaker.run(() -> {
-            User user = userRepository.findById(id)
+            UserResponse cached = userCache.get(id);
+            if (cached != null) {
+                return cached;
+            }
+            long generation = userCache.generation();
+            User user = shardRouter.onShard(shardRouter.shardForId(id), () -> userRepository.findById(id))
                     .orElseThrow(() -> new UserNotFoundException(id));
-            return mapToUserResponse(user);
+            UserResponse response = mapToUserResponse(user);
+            userCache.put(response, generation);
+            return response;
         }, throwable -> {
             // Fallback метод при ошибке
             return createFallbackUserResponse(id);
         });
     }
 
+    // Пакетный поиск: сначала кэш, промахи - одним запросом IN на шард; порядок запроса сохраняется, повторы убираются
+    public UserLookupResponse lookupUsers(List<Long> ids) {
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        Map<Long, UserResponse> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            UserResponse cached = userCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long generation = userCache.generation();
+            Map<Integer, List<Long>> missesByShard = misses.stream().collect(Collectors.groupingBy(shardRouter::shardForId));
+            List<List<User>> loaded = shardRouter.fanOut(shard -> missesByShard.containsKey(shard)
+                    ? userRepository.findAllById(missesByShard.get(shard)) : List.of());
+            for (List<User> shardUsers : loaded) {
+                for (User user : shardUsers) {
+                    UserResponse response = mapToUserResponse(user);
+                    found.put(user.getId(), response);
+                    userCache.put(response, generation);
+                }
+            }
+        }
+
+        List<UserResponse> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            UserResponse user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserLookupResponse(users, missing);
+    }
+
     public List<UserResponse> getAllUsers() {
         CircuitBreaker circuitBreaker = circuitBreakerFactory.create("userService");
 
         return circuitBreaker.run(() -> {
-            return userRepository.findAllOrderByCreatedAtDesc()
+            return ShardRouter.mergeSorted(shardRouter.fanOut(shard -> userRepository.findAllOrderByCreatedAtDesc()), NEWEST_FIRST)
                     .stream()
-                    .map(this::mapToUserResponse)
+                    .map(UserService::mapToUserResponse)
                     .collect(Collectors.toList());
         }, throwable -> {
             // Fallback при ошибке - возвращаем пустой список
@@ -67,6 +167,41 @@ public class UserService {
         });
     }
 
+    // Облегченный список: из БД читаются только запрошенные колонки, id всегда первым
+    public List<Map<String, Object>> getAllUsers(List<String> fields) {
+        LinkedHashSet<String> attributes = new LinkedHashSet<>();
+        attributes.add("id");
+        List<String> unknown = new ArrayList<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (LISTING_FIELDS.contains(name)) {
+                attributes.add(name);
+            } else if (!name.isEmpty()) {
+                unknown.add(name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new InvalidFieldsException(unknown, LISTING_FIELDS);
+        }
+        // Для слияния ответов шардов нужен createdAt: если его не просили, он убирается после слияния
+        boolean sortKeyAdded = shardRouter.getShardCount() > 1 && attributes.add("createdAt");
+        List<String> selected = List.copyOf(attributes);
+        CircuitBreaker circuitBreaker = circuitBreakerFactory.create("userService");
+
+        return circuitBreaker.run(() -> {
+            List<Map<String, Object>> rows = ShardRouter.mergeSorted(
+                    shardRouter.fanOut(shard -> userRepository.findAllAttributes(selected)), NEWEST_ROW_FIRST);
+            for (Map<String, Object> row : rows) {
+                if (sortKeyAdded) {
+                    row.remove("createdAt");
+                }
+                // Как и в UserResponse: id в JSON строкой
+                row.computeIfPresent("id", (key, id) -> id.toString());
+            }
+            return rows;
+        }, throwable -> Collections.emptyList());
+    }
+
     // Fallback метод
     private UserResponse createFallbackUserResponse(Long id) {
         UserResponse fallback = new UserResponse();
@@ -78,16 +213,51 @@ public class UserService {
         return fallback;
     }
 
+    // Пользователь остается на своем шарде и при смене email: шард зашит в id. С несколькими шардами новый email
+    // занимается в user_emails до изменения пользователя, прежний читается под блокировкой строки пользователя
+    // и освобождается после. Строки, оставшиеся от прерванной смены, удаляет OrphanEmailCleaner
     public UserResponse updateUser(Long id, UserRequest userRequest) {
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
+        int shard = shardRouter.shardForId(id);
+        String email = userRequest.getEmail();
+        if (!emailsSharded() || email == null) {
+            return rejectingTakenEmail(email, () -> shardRouter.inTransaction(shard,
+                    () -> applyUpdate(userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id)), userRequest)));
+        }
+        // Email не меняется, если под блокировкой он все еще у пользователя: user_emails не трогается
+        UserResponse unchanged = shardRouter.inTransaction(shard, () -> {
+            User user = lockUser(id);
+            return email.equals(user.getEmail()) ? applyUpdate(user, userRequest) : null;
+        });
+        if (unchanged != null) {
+            return unchanged;
+        }
 
-        if (userRequest.getEmail() != null &&
-                !existingUser.getEmail().equals(userRequest.getEmail()) &&
-                userRepository.existsByEmail(userRequest.getEmail())) {
-            throw new EmailAlreadyExistsException("Email already exists: " + userRequest.getEmail());
+        rejectingTakenEmail(email, () -> shardRouter.inTransaction(shardRouter.shardForEmail(email), () -> {
+            userEmailRepository.register(email, id);
+            return null;
+        }));
+        EmailChange change;
+        try {
+            change = shardRouter.inTransaction(shard, () -> {
+                User user = lockUser(id);
+                String previousEmail = user.getEmail();
+                return new EmailChange(applyUpdate(user, userRequest), previousEmail);
+            });
+        } catch (RuntimeException e) {
+            releaseEmail(email, id);
+            throw e;
         }
+        if (!change.previousEmail().equals(email)) {
+            releaseEmail(change.previousEmail(), id);
+        }
+        return change.response();
+    }
+
+    private User lockUser(Long id) {
+        return userRepository.findByIdForUpdate(id).orElseThrow(() -> new UserNotFoundException(id));
+    }
 
+    private UserResponse applyUpdate(User existingUser, UserRequest userRequest) {
         if (userRequest.getName() != null) {
             existingUser.setName(userRequest.getName());
         }
@@ -98,39 +268,88 @@ public class UserService {
             existingUser.setAge(userRequest.getAge());
         }
 
-        User updatedUser = userRepository.save(existingUser);
-        return mapToUserResponse(updatedUser);
+        User updatedUser = userRepository.saveAndFlush(existingUser);
+        UserResponse response = mapToUserResponse(updatedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.UPDATED, updatedUser.getId(), response));
+        return response;
+    }
+
+    private record EmailChange(UserResponse response, String previousEmail) {
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException(id);
+        if (emailsSharded()) {
+            User user = shardRouter.inTransaction(shardRouter.shardForId(id), () -> {
+                User existingUser = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
+                userRepository.delete(existingUser);
+                eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.DELETED, id, null));
+                return existingUser;
+            });
+            releaseEmail(user.getEmail(), id);
+            return;
         }
-        userRepository.deleteById(id);
+        shardRouter.inTransaction(shardRouter.shardForId(id), () -> {
+            if (!userRepository.existsById(id)) {
+                throw new UserNotFoundException(id);
+            }
+            userRepository.deleteById(id);
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.DELETED, id, null));
+            return null;
+        });
     }
 
+    // С несколькими шардами - один запрос к user_emails на шарде email: пользователь мог сменить email и остаться на своем
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        if (!emailsSharded()) {
+            return userRepository.existsByEmail(email);
+        }
+        return shardRouter.onShard(shardRouter.shardForEmail(email), () -> userEmailRepository.existsById(email));
+    }
+
+    public UserChangesResponse getChangesSince(String since, Integer limit) {
+        return userChangeService.getChangesSince(since, limit);
     }
 
     public long getUserCount() {
         CircuitBreaker circuitBreaker = circuitBreakerFactory.create("userService");
 
         return circuitBreaker.run(() -> {
-            return userRepository.count();
+            return shardRouter.fanOut(shard -> userRepository.count()).stream().mapToLong(Long::longValue).sum();
         }, throwable -> {
             // Fallback при ошибке
             return 0L;
         });
     }
 
-    private UserResponse mapToUserResponse(User user) {
+    private boolean emailsSharded() {
+        return shardRouter.getShardCount() > 1;
+    }
+
+    private void releaseEmail(String email, Long userId) {
+        shardRouter.inTransaction(shardRouter.shardForEmail(email), () -> userEmailRepository.release(email, userId));
+    }
+
+    // Нарушение уникальности email (uk_users_email или ключа user_emails) - 409; прочие нарушения, например
+    // первичного ключа users, пробрасываются как есть
+    private static <T> T rejectingTakenEmail(String email, Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (DataIntegrityViolationException e) {
+            if (EmailConstraints.isTakenEmail(e)) {
+                throw new EmailAlreadyExistsException("Email already exists: " + email);
+            }
+            throw e;
+        }
+    }
+
+    static UserResponse mapToUserResponse(User user) {
         UserResponse response = new UserResponse();
         response.setUserId(user.getId());
         response.setName(user.getName());
         response.setEmail(user.getEmail());
         response.setAge(user.getAge());
         response.setCreatedAt(user.getCreatedAt());
+        response.setUpdatedAt(user.getUpdatedAt());
         return response;
     }
 }
\ No newline at end of file
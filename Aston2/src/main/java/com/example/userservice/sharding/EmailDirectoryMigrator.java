@@ -0,0 +1,132 @@
+package com.example.userservice.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Переносит строки user_emails на их шард после добавления шардов.
+ * <p>
+ * Шард строки - хэш email по модулю числа шардов ({@link ShardRouter#shardForEmail}), поэтому новый шард
+ * в конце списка меняет место большинства строк. Пока строка лежит не там, регистрация того же email
+ * на новом месте проходит, а освобождение ничего не удаляет. Перенос выполняется при старте, до запуска
+ * веб-сервера: инстанс не принимает запросы, пока все строки не на месте, а ошибка переноса роняет старт.
+ * Строка сначала копируется, потом удаляется со старого шарда: прерванный перенос повторяется со следующим стартом.
+ */
+public class EmailDirectoryMigrator implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDirectoryMigrator.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final ShardRoutingDataSource dataSource;
+    private final ShardRouter shardRouter;
+
+    public EmailDirectoryMigrator(ShardRoutingDataSource dataSource, ShardRouter shardRouter) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int moved = migrate();
+        if (moved > 0) {
+            log.info("user_emails: {} rows moved to their shards", moved);
+        }
+    }
+
+    // Число перенесенных строк
+    public int migrate() {
+        int moved = 0;
+        for (int shard = 0; shard < dataSource.getShardCount(); shard++) {
+            try (Connection connection = dataSource.getShard(shard).getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setFetchSize(BATCH_SIZE);
+                Map<Integer, List<Row>> misplaced = new HashMap<>();
+                int pending = 0;
+                try (ResultSet rows = statement.executeQuery("SELECT email, user_id, registered_at FROM user_emails")) {
+                    while (rows.next()) {
+                        Row row = new Row(rows.getString(1), rows.getLong(2), rows.getTimestamp(3));
+                        int home = shardRouter.shardForEmail(row.email());
+                        if (home == shard) {
+                            continue;
+                        }
+                        misplaced.computeIfAbsent(home, key -> new ArrayList<>()).add(row);
+                        if (++pending == BATCH_SIZE) {
+                            moved += move(shard, misplaced);
+                            pending = 0;
+                        }
+                    }
+                }
+                moved += move(shard, misplaced);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot move user_emails rows off shard " + shard, e);
+            }
+        }
+        return moved;
+    }
+
+    private int move(int from, Map<Integer, List<Row>> misplaced) throws SQLException {
+        int moved = 0;
+        for (Map.Entry<Integer, List<Row>> entry : misplaced.entrySet()) {
+            copy(entry.getKey(), entry.getValue());
+            try (Connection connection = dataSource.getShard(from).getConnection();
+                 PreparedStatement delete = connection.prepareStatement(
+                         "DELETE FROM user_emails WHERE email = ? AND user_id = ?")) {
+                for (Row row : entry.getValue()) {
+                    delete.setString(1, row.email());
+                    delete.setLong(2, row.userId());
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+            moved += entry.getValue().size();
+        }
+        misplaced.clear();
+        return moved;
+    }
+
+    // Строка, уже скопированная прерванным переносом, не мешает; тот же email у другого пользователя - нужна ручная правка
+    private void copy(int to, List<Row> rows) throws SQLException {
+        try (Connection connection = dataSource.getShard(to).getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO user_emails (email, user_id, registered_at) VALUES (?, ?, ?)");
+             PreparedStatement owner = connection.prepareStatement(
+                     "SELECT user_id FROM user_emails WHERE email = ?")) {
+            for (Row row : rows) {
+                insert.setString(1, row.email());
+                insert.setLong(2, row.userId());
+                insert.setTimestamp(3, row.registeredAt());
+                try {
+                    insert.executeUpdate();
+                } catch (SQLException e) {
+                    if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    owner.setString(1, row.email());
+                    try (ResultSet existing = owner.executeQuery()) {
+                        if (existing.next() && existing.getLong(1) != row.userId()) {
+                            throw new IllegalStateException("Email " + row.email() + " is registered for users "
+                                    + row.userId() + " and " + existing.getLong(1) + " on different shards");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private record Row(String email, long userId, Timestamp registeredAt) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.config.ShardingProperties;
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserEmail;
+import com.example.userservice.repository.UserEmailRepository;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Удаляет строки user_emails, за которыми нет пользователя с этим email.
+ * <p>
+ * Смена email занимает новый адрес и освобождает прежний в транзакциях на шардах адресов, отдельно от транзакции
+ * пользователя; удаление пользователя освобождает адрес после своей транзакции. Сбой между ними оставляет строку,
+ * которая держит адрес без владельца. Раз в interval строки каждого шарда просматриваются по ключу email, и строка
+ * удаляется, если пользователя user_id нет или у него другой email. Строки моложе grace-period не проверяются:
+ * смена email с ними еще может идти.
+ */
+public class OrphanEmailCleaner implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanEmailCleaner.class);
+
+    private final UserEmailRepository userEmailRepository;
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final ShardingProperties.EmailCleanup properties;
+    private final Clock clock;
+    private final Counter removed;
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+    private volatile boolean running;
+
+    public OrphanEmailCleaner(UserEmailRepository userEmailRepository, UserRepository userRepository,
+                              ShardRouter shardRouter, ShardingProperties.EmailCleanup properties, Clock clock,
+                              MeterRegistry meterRegistry) {
+        this.userEmailRepository = userEmailRepository;
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.clock = clock;
+        this.removed = Counter.builder("user.emails.orphans.removed")
+                .description("Строки user_emails, удаленные без владельца")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orphan-email-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = properties.getInterval().toMillis();
+        task = executor.scheduleWithFixedDelay(this::tick, period, period, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (task != null) {
+            task.cancel(false);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() { return running; }
+
+    @Override
+    public boolean isAutoStartup() { return properties.isEnabled(); }
+
+    private void tick() {
+        try {
+            int count = cleanUp();
+            if (count > 0) {
+                log.info("user_emails: {} orphaned rows removed", count);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ошибка очистки user_emails: {}", e.toString());
+        }
+    }
+
+    // Число удаленных строк
+    public int cleanUp() {
+        Instant cutoff = clock.instant().minus(properties.getGracePeriod());
+        int count = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            count += cleanUp(shard, cutoff);
+        }
+        return count;
+    }
+
+    private int cleanUp(int shard, Instant cutoff) {
+        int count = 0;
+        String afterEmail = "";
+        List<UserEmail> rows;
+        do {
+            String from = afterEmail;
+            rows = shardRouter.onShard(shard, () -> userEmailRepository.findRegisteredBefore(cutoff, from,
+                    PageRequest.of(0, properties.getBatchSize())));
+            if (rows.isEmpty()) {
+                break;
+            }
+            Map<Long, String> owners = currentEmails(rows);
+            for (UserEmail row : rows) {
+                if (!row.getEmail().equals(owners.get(row.getUserId()))) {
+                    int deleted = shardRouter.inTransaction(shard,
+                            () -> userEmailRepository.releaseOrphan(row.getEmail(), row.getUserId(), cutoff));
+                    removed.increment(deleted);
+                    count += deleted;
+                }
+            }
+            afterEmail = rows.get(rows.size() - 1).getEmail();
+        } while (rows.size() == properties.getBatchSize());
+        return count;
+    }
+
+    // Текущие email владельцев строк: один запрос IN на шард пользователей
+    private Map<Long, String> currentEmails(List<UserEmail> rows) {
+        Map<Integer, List<Long>> idsByShard = rows.stream()
+                .map(UserEmail::getUserId)
+                .distinct()
+                .collect(Collectors.groupingBy(shardRouter::shardForId));
+        Map<Long, String> emails = new HashMap<>();
+        idsByShard.forEach((shard, ids) -> {
+            for (User user : shardRouter.onShard(shard, () -> userRepository.findAllById(ids))) {
+                emails.put(user.getId(), user.getEmail());
+            }
+        });
+        return emails;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.userservice.sharding;
+
+/**
+ * Шард текущего потока: по нему ShardRoutingDataSource выбирает пул, а ShardedIdGenerator - номер шарда в id.
+ * Устанавливается только через {@link ShardRouter#onShard}; без него используется шард 0.
+ */
+final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer get() {
+        return CURRENT.get();
+    }
+
+    static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.userservice.sharding;
+
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Маршрутизация пользователей по шардам.
+ * <ul>
+ *   <li>новый пользователь попадает на шард по хэшу email, поэтому один email всегда конкурирует
+ *   за уникальный индекс одного шарда;</li>
+ *   <li>шард существующего пользователя берется из его id ({@link ShardedIds}): email можно сменить,
+ *   а пользователь остается на своем шарде;</li>
+ *   <li>запросы по всем пользователям идут на все шарды параллельно ({@link #fanOut}),
+ *   результаты сливаются ({@link #mergeSorted}).</li>
+ * </ul>
+ * С одним шардом все выполняется в вызывающем потоке, как без шардирования.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+    private final Executor fanOutExecutor;
+    private final TransactionOperations transactions;
+
+    public ShardRouter(int shardCount, Executor fanOutExecutor, TransactionOperations transactions) {
+        if (shardCount < 1 || shardCount > ShardedIds.MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be in [1, " + ShardedIds.MAX_SHARDS + "]: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.fanOutExecutor = fanOutExecutor;
+        this.transactions = transactions;
+    }
+
+    // Один шард без транзакций: для модульных тестов сервисов
+    public static ShardRouter single() {
+        return new ShardRouter(1, Runnable::run, TransactionOperations.withoutTransaction());
+    }
+
+    public int getShardCount() { return shardCount; }
+
+    public int shardForId(long id) {
+        int shard = ShardedIds.shardOf(id);
+        // id с номером несуществующего шарда: такого пользователя нет, ищем на шарде 0
+        return shard < shardCount ? shard : 0;
+    }
+
+    public int shardForEmail(String email) {
+        return Math.floorMod(email.hashCode(), shardCount);
+    }
+
+    /**
+     * Выполняет action на шарде: соединения и новые id в нем относятся к этому шарду.
+     * Внутри транзакции другого шарда переключиться нельзя - запросы ушли бы в ее соединение.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("No shard " + shard + ", shard count is " + shardCount);
+        }
+        Integer previous = ShardContext.get();
+        if (shardCount > 1 && shard != ShardContext.current() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard "
+                    + ShardContext.current());
+        }
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // Транзакция на шарде: шард выбирается до ее начала
+    public <T> T inTransaction(int shard, Supplier<T> action) {
+        return onShard(shard, () -> transactions.execute(status -> action.get()));
+    }
+
+    /**
+     * Выполняет action на каждом шарде, результаты в порядке номеров шардов.
+     * Шарды опрашиваются параллельно, каждый в своем потоке и вне транзакции вызывающего.
+     */
+    public <T> List<T> fanOut(IntFunction<T> action) {
+        if (shardCount == 1) {
+            return Collections.singletonList(onShard(0, () -> action.apply(0)));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(shard, () -> action.apply(shard)), fanOutExecutor));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Слияние списков, каждый из которых отсортирован по order: k-way merge через кучу по головам списков.
+     */
+    public static <T> List<T> mergeSorted(List<List<T>> sorted, Comparator<? super T> order) {
+        if (sorted.size() == 1) {
+            return sorted.get(0);
+        }
+        record Head<T>(T value, int list, int index) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                Comparator.comparing(Head<T>::value, order).thenComparingInt(Head::list));
+        int total = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            List<T> list = sorted.get(i);
+            total += list.size();
+            if (!list.isEmpty()) {
+                heads.add(new Head<>(list.get(0), i, 0));
+            }
+        }
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value());
+            List<T> list = sorted.get(head.list());
+            int next = head.index() + 1;
+            if (next < list.size()) {
+                heads.add(new Head<>(list.get(next), head.list(), next));
+            }
+        }
+        return merged;
+    }
+}
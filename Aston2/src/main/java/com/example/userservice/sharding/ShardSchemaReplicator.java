@@ -0,0 +1,88 @@
+package com.example.userservice.sharding;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+
+import javax.sql.DataSource;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Схема на всех шардах при ddl-auto=create/create-drop. Hibernate создает ее только в БД,
+ * которую видит при старте (шард 0), поэтому те же DDL-скрипты сохраняются в память
+ * и после создания SessionFactory выполняются на остальных шардах.
+ * С update/validate/none схема шардов - забота миграций.
+ */
+public class ShardSchemaReplicator implements HibernatePropertiesCustomizer, SessionFactoryObserver {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchemaReplicator.class);
+
+    private static final Set<String> CREATING_ACTIONS = Set.of("create", "create-drop");
+    private static final String DELIMITER = ";";
+
+    private final ShardRoutingDataSource dataSource;
+    private final StringWriter dropScript = new StringWriter();
+    private final StringWriter createScript = new StringWriter();
+
+    public ShardSchemaReplicator(ShardRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        Object ddlAuto = hibernateProperties.get(AvailableSettings.HBM2DDL_AUTO);
+        if (ddlAuto == null || !CREATING_ACTIONS.contains(ddlAuto.toString()) || dataSource.getShardCount() == 1) {
+            return;
+        }
+        // С действием для скриптов Hibernate не смотрит на hbm2ddl.auto: действие для БД задается явно
+        hibernateProperties.put(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, ddlAuto);
+        hibernateProperties.put(AvailableSettings.JAKARTA_HBM2DDL_SCRIPTS_ACTION, "drop-and-create");
+        hibernateProperties.put(AvailableSettings.JAKARTA_HBM2DDL_SCRIPTS_DROP_TARGET, dropScript);
+        hibernateProperties.put(AvailableSettings.JAKARTA_HBM2DDL_SCRIPTS_CREATE_TARGET, createScript);
+        hibernateProperties.put(AvailableSettings.HBM2DDL_DELIMITER, DELIMITER);
+        hibernateProperties.put(AvailableSettings.SESSION_FACTORY_OBSERVER, this);
+    }
+
+    // Вызывается в конце создания SessionFactory, после того как Hibernate выгрузил схему шарда 0
+    @Override
+    public void sessionFactoryCreated(SessionFactory factory) {
+        List<String> drop = statements(dropScript.toString());
+        List<String> create = statements(createScript.toString());
+        for (int shard = 1; shard < dataSource.getShardCount(); shard++) {
+            try (Connection connection = dataSource.getShard(shard).getConnection();
+                 Statement statement = connection.createStatement()) {
+                for (String sql : drop) {
+                    try {
+                        statement.execute(sql);
+                    } catch (SQLException e) {
+                        // Как и Hibernate: удалять на пустой БД нечего
+                        log.debug("Shard {}: {} failed: {}", shard, sql, e.getMessage());
+                    }
+                }
+                for (String sql : create) {
+                    statement.execute(sql);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot create schema on shard " + shard, e);
+            }
+            log.info("Shard {}: schema created ({} statements)", shard, create.size());
+        }
+    }
+
+    private static List<String> statements(String script) {
+        return Arrays.stream(script.split(DELIMITER + "\\R"))
+                .map(String::strip)
+                .filter(sql -> !sql.isEmpty())
+                .toList();
+    }
+}
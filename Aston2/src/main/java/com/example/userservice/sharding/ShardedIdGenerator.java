@@ -0,0 +1,29 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.id.IdGenerator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Генератор id пользователя для Hibernate: id из {@link IdGenerator} плюс номер шарда, на котором идет
+ * вставка (см. {@link ShardedIds}). Id известен до INSERT, поэтому вставки не ждут ответа БД и батчатся.
+ * Экземпляр создает Spring (SpringBeanContainer), отсюда внедрение бина.
+ * Своего генератора по умолчанию нет: с ним пропущенное внедрение молча дало бы всем инстансам узел 0
+ * и пересекающиеся id. Срезам вроде @DataJpaTest нужен бин IdGenerator (например, @Import(IdGeneratorConfig.class)).
+ */
+public class ShardedIdGenerator implements IdentifierGenerator {
+
+    // Не required: при ошибке внедрения SpringBeanContainer создал бы генератор сам, без бина и без ошибки
+    @Autowired(required = false)
+    private IdGenerator idGenerator;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (idGenerator == null) {
+            throw new IllegalStateException("No IdGenerator bean for user ids: Hibernate created "
+                    + getClass().getSimpleName() + " outside the Spring context or the context has no IdGenerator");
+        }
+        return ShardedIds.compose(idGenerator.nextId(), ShardContext.current());
+    }
+}
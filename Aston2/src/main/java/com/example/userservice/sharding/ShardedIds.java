@@ -0,0 +1,37 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.id.IdGenerator;
+
+/**
+ * Раскладка id пользователя: номер шарда в младших битах, выше - значение {@link IdGenerator}.
+ * Id уникален глобально и без обращения к БД говорит, на каком шарде лежит пользователь.
+ */
+public final class ShardedIds {
+
+    public static final int SHARD_BITS = 6;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private static final long SHARD_MASK = MAX_SHARDS - 1;
+
+    private ShardedIds() {
+    }
+
+    public static long compose(long value, int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard " + shard + " is out of range [0, " + MAX_SHARDS + ")");
+        }
+        if (value < 0 || value >>> IdGenerator.ID_BITS != 0) {
+            throw new IllegalArgumentException("Id " + value + " does not fit in " + IdGenerator.ID_BITS + " bits");
+        }
+        return value << SHARD_BITS | shard;
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id & SHARD_MASK);
+    }
+
+    // Значение IdGenerator без номера шарда
+    public static long valueOf(long id) {
+        return id >>> SHARD_BITS;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.userservice.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Статус инстанса в Eureka следует за readiness приложения.
+ * Инстанс регистрируется со статусом STARTING (eureka.instance.initial-status) и получает трафик
+ * только после перехода в ACCEPTING_TRAFFIC, то есть после прогрева в {@link WarmupRunner}.
+ */
+public class EurekaReadinessListener {
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    public EurekaReadinessListener(ObjectProvider<ApplicationInfoManager> applicationInfoManager) {
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        ApplicationInfoManager manager = applicationInfoManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        manager.setInstanceStatus(event.getState() == ReadinessState.ACCEPTING_TRAFFIC
+                ? InstanceInfo.InstanceStatus.UP
+                : InstanceInfo.InstanceStatus.OUT_OF_SERVICE);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.userservice.warmup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Отмечает прогревочные запросы {@link WarmupRunner} (см. {@link WarmupRequests}).
+ * Заголовок X-Warmup принимается только с loopback-адреса: прогрев идет на localhost, а внешний клиент
+ * не должен прятать свои запросы из метрик и трейсов.
+ */
+public class WarmupRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isWarmup(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (WarmupRequests.Scope scope = WarmupRequests.open()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    static boolean isWarmup(HttpServletRequest request) {
+        return "true".equalsIgnoreCase(request.getHeader(WarmupRequests.HEADER)) && isLoopback(request.getRemoteAddr());
+    }
+
+    // Адрес соединения - IP-литерал, getByName его только разбирает, без DNS
+    private static boolean isLoopback(String address) {
+        try {
+            return address != null && InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
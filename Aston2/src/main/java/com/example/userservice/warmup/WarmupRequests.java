@@ -0,0 +1,45 @@
+package com.example.userservice.warmup;
+
+import io.micrometer.context.ContextRegistry;
+
+/**
+ * Признак прогрева в текущем потоке. Ставится {@link WarmupRequestFilter} на запросы с заголовком X-Warmup
+ * и самим {@link WarmupRunner}; по нему метрики и трассировка (см. WarmupConfig) и инспектор SQL
+ * пропускают прогревочную нагрузку, чтобы она не попадала в SLO-гистограммы, трейсы и статистику запросов.
+ * В потоки circuit breaker и fan-out по шардам признак переносится через context-propagation, как QueryScope.
+ */
+public final class WarmupRequests {
+
+    public static final String HEADER = "X-Warmup";
+    public static final String CONTEXT_KEY = "user-service.warmup";
+
+    private static final ThreadLocal<Boolean> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(CONTEXT_KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private WarmupRequests() {
+    }
+
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(CURRENT.get());
+    }
+
+    static Scope open() {
+        Boolean previous = CURRENT.get();
+        CURRENT.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.userservice.warmup;
+
+import com.example.userservice.config.WarmupProperties;
+import com.example.userservice.sharding.ShardRouter;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Прогрев инстанса до того, как он начнет принимать трафик.
+ * ApplicationRunner выполняется до ApplicationReadyEvent, поэтому readiness остается в REFUSING_TRAFFIC,
+ * а статус в Eureka - STARTING, пока прогрев не закончится (см. {@link EurekaReadinessListener}).
+ * <ul>
+ *   <li>открывает соединения пула каждого шарда, чтобы первые запросы не ждали установки соединения с БД;</li>
+ *   <li>прогоняет через HTTP-стек только читающие запросы к /api/users: JIT компилирует горячие пути
+ *   контроллера, сервиса, Jackson и HATEOAS, Hibernate заполняет кэш планов запросов, создаются circuit breakers;</li>
+ *   <li>GET /api/users/{id} запрашивает существующего пользователя, а при пустой базе пропускается:
+ *   несуществующий id уходит в fallback и считается ошибкой breaker'а;</li>
+ *   <li>невалидный POST прогревает валидацию и GlobalExceptionHandler без записи в БД.</li>
+ * </ul>
+ * После прогрева статистика circuit breakers сбрасывается, чтобы прогревочные вызовы не влияли на их решения.
+ * Запросы помечены заголовком X-Warmup и, как и SQL самого прогрева, не попадают в метрики, трейсы
+ * и инспектор SQL (см. {@link WarmupRequests}).
+ * Ошибки прогрева только логируются и не мешают старту.
+ */
+public class WarmupRunner implements ApplicationRunner, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final Environment environment;
+    private final WarmupProperties properties;
+    private final Resilience4JCircuitBreakerFactory circuitBreakerFactory;
+    private volatile WarmupReport lastReport;
+
+    public WarmupRunner(DataSource dataSource, ShardRouter shardRouter, Environment environment,
+                        WarmupProperties properties, Resilience4JCircuitBreakerFactory circuitBreakerFactory) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.environment = environment;
+        this.properties = properties;
+        this.circuitBreakerFactory = circuitBreakerFactory;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        WarmupReport report;
+        try (WarmupRequests.Scope scope = WarmupRequests.open()) {
+            int connections = shardRouter.fanOut(shard -> warmConnectionPool()).stream().mapToInt(Integer::intValue).sum();
+            String port = environment.getProperty("local.server.port");
+            report = port != null
+                    ? exerciseHotPaths(RestClient.create("http://localhost:" + port), start, connections)
+                    : new WarmupReport(connections, 0, 0, Duration.ofNanos(System.nanoTime() - start));
+        }
+        circuitBreakerFactory.getCircuitBreakerRegistry().getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+        lastReport = report;
+        log.info("Warm-up finished in {} ms: {} pool connections, {} requests, {} failed",
+                report.duration().toMillis(), report.poolConnections(), report.requests(), report.failures());
+    }
+
+    private int warmConnectionPool() {
+        // Соединения держатся одновременно, иначе пул вернет одно и то же
+        List<Connection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < properties.getPoolConnections(); i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Warm-up: could not open pool connection #{}: {}", opened.size() + 1, e.getMessage());
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Warm-up: failed to return connection to pool", e);
+                }
+            }
+        }
+        return opened.size();
+    }
+
+    private WarmupReport exerciseHotPaths(RestClient client, long start, int connections) {
+        long deadline = start + properties.getMaxDuration().toNanos();
+        Long userId = existingUserId();
+        int requests = 0;
+        int failures = 0;
+        for (int i = 0; i < properties.getIterations() && System.nanoTime() - deadline < 0; i++) {
+            for (WarmupRequest request : WarmupRequest.values()) {
+                if (request.needsUser() && userId == null) {
+                    continue;
+                }
+                requests++;
+                if (!request.send(client, userId)) {
+                    failures++;
+                }
+            }
+        }
+        return new WarmupReport(connections, requests, failures, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // Id любого пользователя с любого шарда; null, если пользователей нет
+    private Long existingUserId() {
+        return shardRouter.fanOut(shard -> firstUserId()).stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    private Long firstUserId() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM users LIMIT 1")) {
+            return rows.next() ? rows.getLong(1) : null;
+        } catch (SQLException e) {
+            log.debug("Warm-up: could not find an existing user: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public WarmupReport getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    public record WarmupReport(int poolConnections, int requests, int failures, Duration duration) {
+    }
+
+    private enum WarmupRequest {
+        LIST_USERS {
+            @Override
+            HttpStatusCode call(RestClient client, Long userId) {
+                return client.get().uri("/api/users").header(WarmupRequests.HEADER, "true")
+                        .retrieve().toBodilessEntity().getStatusCode();
+            }
+        },
+        GET_USER {
+            @Override
+            HttpStatusCode call(RestClient client, Long userId) {
+                return client.get().uri("/api/users/{id}", userId).header(WarmupRequests.HEADER, "true")
+                        .retrieve().toBodilessEntity().getStatusCode();
+            }
+
+            @Override
+            boolean needsUser() {
+                return true;
+            }
+        },
+        COUNT_USERS {
+            @Override
+            HttpStatusCode call(RestClient client, Long userId) {
+                return client.get().uri("/api/users/count").header(WarmupRequests.HEADER, "true")
+                        .retrieve().toBodilessEntity().getStatusCode();
+            }
+        },
+        // Ожидается 400: проходит валидацию и обработчик ошибок, ничего не сохраняя
+        INVALID_CREATE {
+            @Override
+            HttpStatusCode call(RestClient client, Long userId) {
+                return client.post().uri("/api/users").header(WarmupRequests.HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"name\":\"\",\"email\":\"not-an-email\"}")
+                        .exchange((request, response) -> response.getStatusCode());
+            }
+
+            @Override
+            boolean expected(HttpStatusCode status) {
+                return status.is4xxClientError();
+            }
+        };
+
+        abstract HttpStatusCode call(RestClient client, Long userId);
+
+        boolean expected(HttpStatusCode status) {
+            return !status.is5xxServerError();
+        }
+
+        boolean needsUser() {
+            return false;
+        }
+
+        boolean send(RestClient client, Long userId) {
+            try {
+                return expected(call(client, userId));
+            } catch (RuntimeException e) {
+                log.debug("Warm-up request {} failed: {}", this, e.getMessage());
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserChange;
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.exception.CursorExpiredException;
+import com.example.userservice.service.UserChangeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserCacheSynchronizerTest {
+
+    private final UserChangeService userChangeService = mock(UserChangeService.class);
+    private final UserCacheProperties properties = new UserCacheProperties();
+    private final UserCache cache = new UserCache(properties, new SimpleMeterRegistry());
+    private final UserCacheSynchronizer synchronizer = new UserCacheSynchronizer(userChangeService, cache, properties);
+
+    @Test
+    void shouldInvalidateUsersChangedByOtherInstances() {
+        cache.put(user(1L), cache.generation());
+        cache.put(user(2L), cache.generation());
+        cache.put(user(3L), cache.generation());
+        when(userChangeService.latestCursor()).thenReturn("c0");
+        when(userChangeService.getChangesSince("c0", null))
+                .thenReturn(new UserChangesResponse(List.of(change(1L, false)), "c1", true));
+        when(userChangeService.getChangesSince("c1", null))
+                .thenReturn(new UserChangesResponse(List.of(change(3L, true)), "c2", false));
+
+        synchronizer.sync();
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNotNull();
+        assertThat(cache.get(3L)).isNull();
+    }
+
+    @Test
+    void shouldClearCacheWhenChangesCannotBeRead() {
+        cache.put(user(1L), cache.generation());
+        when(userChangeService.latestCursor()).thenReturn("c0", "c5");
+        when(userChangeService.getChangesSince("c0", null)).thenThrow(new CursorExpiredException("c0"));
+        when(userChangeService.getChangesSince("c5", null))
+                .thenReturn(new UserChangesResponse(List.of(), "c6", false));
+
+        synchronizer.sync();
+        assertThat(cache.size()).isZero();
+
+        // Следующее чтение - с нового курсора
+        cache.put(user(1L), cache.generation());
+        synchronizer.sync();
+        assertThat(cache.get(1L)).isNotNull();
+    }
+
+    private static UserChange change(Long id, boolean deleted) {
+        return new UserChange(id, deleted, LocalDateTime.now(), deleted ? null : user(id));
+    }
+
+    private static UserResponse user(Long id) {
+        return new UserResponse(id, "User " + id, "user" + id + "@example.com", 30, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final UserCacheProperties properties = new UserCacheProperties();
+
+    @Test
+    void shouldReturnCopyOfCachedUser() {
+        UserCache cache = new UserCache(properties, new SimpleMeterRegistry());
+        cache.put(user(1L, "John"), cache.generation());
+
+        UserResponse first = cache.get(1L);
+        first.setName("Changed");
+
+        assertThat(cache.get(1L).getName()).isEqualTo("John");
+    }
+
+    @Test
+    void shouldIgnorePutFromReadStartedBeforeInvalidation() {
+        UserCache cache = new UserCache(properties, new SimpleMeterRegistry());
+        long generation = cache.generation();
+
+        cache.invalidate(1L);
+        cache.put(user(1L, "Stale"), generation);
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedAndExpired() {
+        properties.setMaxEntries(2);
+        properties.setTtl(Duration.ofMinutes(1));
+        UserCache cache = new UserCache(properties, new SimpleMeterRegistry());
+        cache.put(user(1L, "One"), cache.generation());
+        cache.put(user(2L, "Two"), cache.generation());
+        cache.get(1L);
+        cache.put(user(3L, "Three"), cache.generation());
+
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(1L)).isNotNull();
+
+        properties.setTtl(Duration.ZERO);
+        cache.put(user(4L, "Four"), cache.generation());
+        assertThat(cache.get(4L)).isNull();
+    }
+
+    private static UserResponse user(Long id, String name) {
+        return new UserResponse(id, name, name.toLowerCase() + "@example.com", 30, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class BinaryFormatsTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void shouldServeCborAndSmileWithoutLinks() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Binary", "binary@example.com", 33));
+
+        JsonNode cbor = new CBORMapper().readTree(body(user.getUserId(), MediaType.APPLICATION_CBOR));
+        JsonNode smile = new SmileMapper().readTree(body(user.getUserId(), SMILE));
+
+        for (JsonNode node : new JsonNode[]{cbor, smile}) {
+            assertThat(node.get("id").asLong()).isEqualTo(user.getUserId());
+            assertThat(node.get("email").asText()).isEqualTo("binary@example.com");
+            assertThat(node.get("createdAt").isTextual()).isTrue();
+            assertThat(node.has("links")).isFalse();
+            assertThat(node.has("_links")).isFalse();
+        }
+        byte[] json = mockMvc.perform(get("/api/users/{id}", user.getUserId()).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(body(user.getUserId(), MediaType.APPLICATION_CBOR).length).isLessThan(json.length);
+    }
+
+    @Test
+    void shouldSkipHalLinksWhenMinimalReturnPreferred() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Minimal", "minimal@example.com", 34));
+
+        mockMvc.perform(get("/api/users/{id}", user.getUserId()).accept("application/hal+json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href").exists());
+        mockMvc.perform(get("/api/users/{id}", user.getUserId()).accept("application/hal+json")
+                        .header("Prefer", "return=minimal"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("minimal@example.com"))
+                .andExpect(jsonPath("$._links").doesNotExist());
+    }
+
+    private byte[] body(Long id, MediaType type) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/{id}", id).accept(type))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(type))
+                .andReturn();
+        return result.getResponse().getContentAsByteArray();
+    }
+}
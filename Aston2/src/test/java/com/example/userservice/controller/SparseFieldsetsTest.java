@@ -0,0 +1,71 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class SparseFieldsetsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        userService.createUser(new UserRequest("Sparse", "sparse@example.com", 25));
+
+        mockMvc.perform(get("/api/users").param("fields", "name,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.email == 'sparse@example.com')].name").value("Sparse"))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].age").doesNotExist())
+                .andExpect(jsonPath("$[0].createdAt").doesNotExist())
+                .andExpect(jsonPath("$[0]._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users").param("view", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Sparse')].id").exists())
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+    }
+
+    @Test
+    void shouldSelectOnlyRequestedColumns() {
+        userService.createUser(new UserRequest("Columns", "columns@example.com", 26));
+
+        List<Map<String, Object>> rows = userRepository.findAllAttributes(List.of("id", "age"));
+
+        assertThat(rows).isNotEmpty();
+        assertThat(rows.get(0)).containsOnlyKeys("id", "age");
+        assertThat(rows).extracting(row -> row.get("age")).contains(26);
+    }
+
+    @Test
+    void shouldRejectUnknownField() throws Exception {
+        mockMvc.perform(get("/api/users").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Fields"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.id.IdGenerator;
+import com.example.userservice.sharding.ShardedIds;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Размер ответа и задержка GET /api/users на 100k строк: полный HAL-список,
+ * fields= и компактный режим. Не входит в обычный прогон тестов: mvn test -Pbenchmark
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.userservice=INFO"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserListingBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @BeforeAll
+    void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{ShardedIds.compose(idGenerator.nextId(), 0), "User " + i, "listing" + i + "@example.com", 20 + i % 50, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, age, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void compareListingModes() throws Exception {
+        run("full (hal)", get("/api/users"));
+        run("full minimal", get("/api/users").header("Prefer", "return=minimal"));
+        run("fields=id,name,email", get("/api/users").param("fields", "id,name,email"));
+        run("view=compact", get("/api/users").param("view", "compact"));
+    }
+
+    private void run(String name, MockHttpServletRequestBuilder request) throws Exception {
+        // прогрев
+        int bytes = mockMvc.perform(request).andReturn().getResponse().getContentAsByteArray().length;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            mockMvc.perform(request).andReturn().getResponse().getContentAsByteArray();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / RUNS;
+        System.out.printf("%-22s %,12d bytes  %6.1f bytes/user  %8.1f ms%n", name, bytes, (double) bytes / ROWS, millis);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserLookupRequest;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class UserLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldResolveIdsInRequestedOrderAndReportMissing() throws Exception {
+        UserResponse first = userService.createUser(new UserRequest("First", "lookup-first@example.com", 20));
+        UserResponse second = userService.createUser(new UserRequest("Second", "lookup-second@example.com", 30));
+        long unknown = second.getUserId() + 1000;
+
+        mockMvc.perform(get("/api/users").param("ids", second.getUserId() + "," + unknown + "," + first.getUserId()
+                        + "," + second.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[0].id").value(second.getUserId().toString()))
+                .andExpect(jsonPath("$.users[1].id").value(first.getUserId().toString()))
+                .andExpect(jsonPath("$.users[1].email").value("lookup-first@example.com"))
+                .andExpect(jsonPath("$.missing[0]").value(String.valueOf(unknown)));
+
+        // Повторный поиск обслуживается кэшем
+        double hitsBefore = hits();
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserLookupRequest(List.of(first.getUserId(), second.getUserId())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(first.getUserId().toString()))
+                .andExpect(jsonPath("$.missing").isEmpty());
+        assertThat(hits() - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotServeStaleUserAfterUpdate() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Before", "lookup-update@example.com", 40));
+        userService.lookupUsers(List.of(user.getUserId()));
+
+        userService.updateUser(user.getUserId(), new UserRequest("After", null, null));
+
+        assertThat(userService.lookupUsers(List.of(user.getUserId())).getUsers().get(0).getName()).isEqualTo("After");
+    }
+
+    @Test
+    void shouldRejectTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, UserLookupRequest.MAX_IDS + 1)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/api/users").param("ids", ids))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private double hits() {
+        return meterRegistry.get("user.cache.requests").tag("result", "hit").counter().count();
+    }
+}
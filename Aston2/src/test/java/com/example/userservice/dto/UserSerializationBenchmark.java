@@ -0,0 +1,96 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность сериализации страницы пользователей и размер в байтах на пользователя
+ * для JSON (со ссылками и без), CBOR и Smile. Не входит в обычный прогон тестов:
+ * mvn test -Pbenchmark
+ */
+class UserSerializationBenchmark {
+
+    private static final int USERS = 100;
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    @Test
+    void compareFormats() throws Exception {
+        List<UserResponse> page = page(true);
+        run("json + links", mapper(new JsonFactory(), true), page);
+        run("json", mapper(new JsonFactory(), false), page);
+        run("cbor", mapper(new CBORFactory(), false), page);
+        run("smile", mapper(new SmileFactory(), false), page);
+    }
+
+    private void run(String name, ObjectMapper mapper, List<UserResponse> page) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(page);
+        // прогрев JIT
+        measure(mapper, page, TimeUnit.SECONDS.toNanos(1));
+
+        long[] ops = measure(mapper, page, DURATION_NANOS);
+
+        double seconds = DURATION_NANOS / 1e9;
+        System.out.printf("%-13s %6.1f bytes/user  write %,9.0f users/s  read %,9.0f users/s%n",
+                name, (double) bytes.length / USERS, ops[0] * USERS / seconds, ops[1] * USERS / seconds);
+    }
+
+    // [страниц записано, страниц прочитано] за половину времени на каждое
+    private long[] measure(ObjectMapper mapper, List<UserResponse> page, long durationNanos) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(page);
+        long writes = 0;
+        long deadline = System.nanoTime() + durationNanos / 2;
+        while (System.nanoTime() < deadline) {
+            mapper.writeValueAsBytes(page);
+            writes++;
+        }
+        long reads = 0;
+        deadline = System.nanoTime() + durationNanos / 2;
+        while (System.nanoTime() < deadline) {
+            mapper.readTree(bytes);
+            reads++;
+        }
+        return new long[]{writes * 2, reads * 2};
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory, boolean links) {
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (!links) {
+            mapper.addMixIn(RepresentationModel.class, WithoutLinks.class);
+        }
+        return mapper;
+    }
+
+    private static List<UserResponse> page(boolean links) {
+        List<UserResponse> users = new ArrayList<>(USERS);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= USERS; id++) {
+            UserResponse user = new UserResponse(id, "User " + id, "user" + id + "@example.com", 20 + (int) (id % 50), now);
+            user.setUpdatedAt(now);
+            if (links) {
+                user.add(Link.of("http://localhost:8080/api/users/" + id));
+                user.add(Link.of("http://localhost:8080/api/users", "all-users"));
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    @JsonIgnoreProperties("links")
+    abstract static class WithoutLinks {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.userservice.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserEventBufferTest {
+
+    @Test
+    void shouldReplayEventsAfterLastSequence() {
+        UserEventBuffer buffer = new UserEventBuffer(4);
+        for (long id = 1; id <= 3; id++) {
+            buffer.append(event(id));
+        }
+
+        UserEventBuffer.Replay replay = buffer.since(1);
+
+        assertThat(replay.gap()).isFalse();
+        assertThat(sequences(replay)).containsExactly(2L, 3L);
+        assertThat(buffer.since(3).entries()).isEmpty();
+    }
+
+    @Test
+    void shouldReportGapWhenEventsWereEvicted() {
+        UserEventBuffer buffer = new UserEventBuffer(4);
+        for (long id = 1; id <= 10; id++) {
+            buffer.append(event(id));
+        }
+
+        assertThat(buffer.since(6).gap()).isFalse();
+        assertThat(sequences(buffer.since(6))).containsExactly(7L, 8L, 9L, 10L);
+        assertThat(buffer.since(5).gap()).isTrue();
+    }
+
+    @Test
+    void shouldReportGapForSequenceFromAnotherBuffer() {
+        UserEventBuffer buffer = new UserEventBuffer(4);
+        buffer.append(event(1));
+
+        assertThat(buffer.since(7).gap()).isTrue();
+    }
+
+    private static UserChangedEvent event(long id) {
+        return new UserChangedEvent(UserChangeType.DELETED, id, null);
+    }
+
+    private static List<Long> sequences(UserEventBuffer.Replay replay) {
+        return replay.entries().stream().map(UserEventBuffer.Entry::sequence).toList();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.userservice.event;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Очередь подписчика на два события: любой поток публикаций быстрее записи в сокет и переполняет ее
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "user-events.subscriber-queue=2",
+        "user-events.buffer-size=4096"
+})
+@Timeout(30)
+class UserEventStreamTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserEventStream userEventStream;
+
+    @Test
+    void shouldStreamChangesAndResumeFromLastEventId() throws Exception {
+        String firstId;
+        try (EventReader reader = open(null)) {
+            UserResponse user = userService.createUser(new UserRequest("Stream User", "stream@example.com", 30));
+
+            SseEvent created = reader.next();
+            assertThat(created.name()).isEqualTo("created");
+            assertThat(created.data()).contains("stream@example.com");
+            firstId = created.id();
+
+            userService.updateUser(user.getUserId(), new UserRequest("Renamed", null, null));
+            userService.deleteUser(user.getUserId());
+        }
+
+        // События после firstId пришли, пока клиент был отключен, и дочитываются из буфера
+        try (EventReader reader = open(firstId)) {
+            assertThat(reader.next().name()).isEqualTo("updated");
+            assertThat(reader.next().name()).isEqualTo("deleted");
+        }
+    }
+
+    @Test
+    void shouldSendResetForUnknownLastEventId() throws Exception {
+        try (EventReader reader = open("previous-run-42")) {
+            SseEvent reset = reader.next();
+
+            assertThat(reset.name()).isEqualTo(UserEventStream.RESET_EVENT);
+            assertThat(reset.id()).isNotBlank();
+        }
+    }
+
+    @Test
+    void shouldDisconnectSlowSubscriberWhichThenResumesWithoutLoss() throws Exception {
+        int total = 2000;
+        double overflowsBefore = meterRegistry.get("user.events.overflow").counter().count();
+        List<Long> received = new ArrayList<>();
+        String lastId;
+        try (EventReader reader = open(null)) {
+            // Первое событие фиксирует позицию в потоке, с которой клиент переподключится
+            userEventStream.onUserChanged(new UserChangedEvent(UserChangeType.DELETED, 1L, null));
+            SseEvent first = reader.next();
+            received.add(EventReader.userId(first.data()));
+
+            // Остальные напрямую в поток, без слушателей с записью в БД: публикация заведомо быстрее сокета
+            for (long id = 2; id <= total; id++) {
+                userEventStream.onUserChanged(new UserChangedEvent(UserChangeType.DELETED, id, null));
+            }
+            String drained = reader.drainInto(received);
+            lastId = drained != null ? drained : first.id();
+        }
+        assertThat(received.size()).isLessThan(total);
+        assertThat(meterRegistry.get("user.events.overflow").counter().count()).isGreaterThan(overflowsBefore);
+
+        while (received.size() < total) {
+            try (EventReader reader = open(lastId)) {
+                lastId = reader.drainUntil(received, total);
+            }
+        }
+        assertThat(received).hasSize(total);
+        for (int i = 0; i < total; i++) {
+            assertThat(received.get(i)).isEqualTo(i + 1L);
+        }
+    }
+
+    private EventReader open(String lastEventId) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/events"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/event-stream"));
+        return new EventReader(response.body());
+    }
+
+    record SseEvent(String id, String name, String data) {
+    }
+
+    private static class EventReader implements AutoCloseable {
+
+        private final BufferedReader reader;
+
+        EventReader(InputStream body) {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+
+        // null - сервер закрыл поток
+        SseEvent next() throws IOException {
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (name != null || data.length() > 0) {
+                        return new SseEvent(id, name, data.toString());
+                    }
+                } else if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                }
+            }
+            return null;
+        }
+
+        // Читает до закрытия потока сервером, возвращает id последнего события
+        String drainInto(List<Long> received) throws IOException {
+            return drainUntil(received, Integer.MAX_VALUE);
+        }
+
+        String drainUntil(List<Long> received, int total) throws IOException {
+            String lastId = null;
+            SseEvent event;
+            while (received.size() < total && (event = next()) != null) {
+                received.add(userId(event.data()));
+                lastId = event.id();
+            }
+            return lastId;
+        }
+
+        private static long userId(String data) {
+            int start = data.indexOf("\"userId\":\"") + "\"userId\":\"".length();
+            int end = start;
+            while (Character.isDigit(data.charAt(end))) {
+                end++;
+            }
+            return Long.parseLong(data.substring(start, end));
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
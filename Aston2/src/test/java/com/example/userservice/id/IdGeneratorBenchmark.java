@@ -0,0 +1,69 @@
+package com.example.userservice.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Id в секунду под конкуренцией потоков: SnowflakeIdGenerator (CAS) против того же алгоритма
+ * под synchronized. Потолок генератора - 1024 id в миллисекунду на узел.
+ * Не входит в обычный прогон тестов: mvn test -Pbenchmark
+ */
+class IdGeneratorBenchmark {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    private static final long DURATION_MILLIS = 3_000;
+
+    @Test
+    void compareUnderContention() throws Exception {
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            run("cas", threads, snowflake());
+            run("synchronized", threads, new SynchronizedIdGenerator(snowflake()));
+        }
+    }
+
+    private void run(String name, int threads, IdGenerator generator) throws Exception {
+        // прогрев JIT
+        measure(threads, generator, 1_000);
+        long ids = measure(threads, generator, DURATION_MILLIS);
+        System.out.printf("%-13s %d threads  %,12.0f ids/s%n", name, threads, ids / (DURATION_MILLIS / 1000.0));
+    }
+
+    private long measure(int threads, IdGenerator generator, long millis) throws InterruptedException {
+        LongAdder generated = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                long count = 0;
+                while (running.get()) {
+                    generator.nextId();
+                    count++;
+                }
+                generated.add(count);
+                done.countDown();
+            }).start();
+        }
+        Thread.sleep(millis);
+        running.set(false);
+        done.await(10, TimeUnit.SECONDS);
+        return generated.sum();
+    }
+
+    private static SnowflakeIdGenerator snowflake() {
+        return new SnowflakeIdGenerator(1, EPOCH, Duration.ofSeconds(1), Clock.systemUTC());
+    }
+
+    private record SynchronizedIdGenerator(IdGenerator delegate) implements IdGenerator {
+        @Override
+        public synchronized long nextId() {
+            return delegate.nextId();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.userservice.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant START = Instant.parse("2025-06-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void shouldGenerateUniqueIncreasingIdsUnderContention() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, EPOCH, Duration.ofSeconds(1), Clock.systemUTC());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[20_000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> all = new HashSet<>();
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertThat(all.add(ids[i])).isTrue();
+                    if (i > 0) {
+                        assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                    }
+                    assertThat(ids[i] >>> IdGenerator.ID_BITS).isZero();
+                }
+            }
+            assertThat(all).hasSize(8 * 20_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldEncodeTimestampNodeAndSequence() {
+        SnowflakeIdGenerator generator = generator(42);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(SnowflakeIdGenerator.nodeOf(first)).isEqualTo(42);
+        assertThat(generator.timestampOf(first)).isEqualTo(START);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    void shouldKeepIncreasingWhenClockMovesBackWithinTolerance() {
+        SnowflakeIdGenerator generator = generator(1);
+        long before = generator.nextId();
+
+        clock.advance(Duration.ofMillis(-500));
+        long after = generator.nextId();
+
+        assertThat(after).isGreaterThan(before);
+        assertThat(generator.timestampOf(after)).isEqualTo(START);
+    }
+
+    @Test
+    void shouldRefuseWhenClockMovesBackBeyondTolerance() {
+        SnowflakeIdGenerator generator = generator(1);
+        generator.nextId();
+
+        clock.advance(Duration.ofSeconds(-2));
+
+        assertThatThrownBy(generator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Clock moved backwards");
+    }
+
+    @Test
+    void shouldWaitForNextMillisecondWhenSequenceIsExhausted() {
+        clock.advanceAfterReads(1100, Duration.ofMillis(1));
+        SnowflakeIdGenerator generator = generator(1);
+
+        long last = 0;
+        for (int i = 0; i < 1024; i++) {
+            last = generator.nextId();
+        }
+        long next = generator.nextId();
+
+        assertThat(generator.timestampOf(last)).isEqualTo(START);
+        assertThat(generator.timestampOf(next)).isEqualTo(START.plusMillis(1));
+        assertThat(next).isGreaterThan(last);
+    }
+
+    @Test
+    void shouldRejectNodeIdOutOfRange() {
+        assertThatThrownBy(() -> generator(128)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SnowflakeIdGenerator generator(int nodeId) {
+        return new SnowflakeIdGenerator(nodeId, EPOCH, Duration.ofSeconds(1), clock);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = START;
+        private int reads;
+        private int advanceAt = -1;
+        private Duration step;
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        // Время сдвигается само после заданного числа чтений: генератор ждет его в цикле
+        void advanceAfterReads(int reads, Duration step) {
+            this.advanceAt = reads;
+            this.step = step;
+        }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return this; }
+
+        @Override
+        public Instant instant() {
+            if (++reads == advanceAt) {
+                advance(step);
+            }
+            return now;
+        }
+    }
+}
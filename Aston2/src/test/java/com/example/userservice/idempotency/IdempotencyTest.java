@@ -0,0 +1,183 @@
+package com.example.userservice.idempotency;
+
+import com.example.userservice.dto.UserLookupRequest;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.jdbc.QueryScope;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldReplayCreateWithoutTouchingDatabase() throws Exception {
+        UserRequest request = new UserRequest("Retry", "retry@example.com", 30);
+
+        MockHttpServletResponse first = perform(post("/api/users"), "create-1", request);
+        MockHttpServletResponse retry;
+        try (QueryScope scope = QueryScope.open()) {
+            retry = perform(post("/api/users"), "create-1", request);
+            assertThat(scope.getCount()).isZero();
+        }
+
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getContentType()).isEqualTo(first.getContentType());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(userRepository.findByEmail("retry@example.com")).isPresent();
+    }
+
+    @Test
+    void shouldRejectSameKeyWithDifferentBody() throws Exception {
+        perform(post("/api/users"), "create-2", new UserRequest("First", "first-body@example.com", 30));
+
+        MockHttpServletResponse other = perform(post("/api/users"), "create-2",
+                new UserRequest("Second", "second-body@example.com", 30));
+
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(userRepository.findByEmail("second-body@example.com")).isEmpty();
+    }
+
+    @Test
+    void shouldLetConcurrentDuplicatesWaitForFirstRequest() throws Exception {
+        UserRequest request = new UserRequest("Concurrent", "concurrent-retry@example.com", 30);
+        int duplicates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return perform(post("/api/users"), "create-3", request);
+                }));
+            }
+            start.countDown();
+
+            List<Long> ids = new ArrayList<>();
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertThat(response.get().getStatus()).isEqualTo(201);
+                ids.add(objectMapper.readValue(response.get().getContentAsString(), UserResponse.class).getUserId());
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReplayUpdateAndScopeKeyToPath() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Update", "update-retry@example.com", 30));
+        UserRequest update = new UserRequest("Updated", "update-retry@example.com", 31);
+
+        MockHttpServletResponse first = perform(put("/api/users/" + user.getUserId()), "update-1", update);
+        MockHttpServletResponse retry = perform(put("/api/users/" + user.getUserId()), "update-1", update);
+        MockHttpServletResponse create = perform(post("/api/users"), "update-1",
+                new UserRequest("Other", "same-key-other-path@example.com", 30));
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(create.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void shouldNotReplayReadOnlyLookup() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Lookup", "lookup-key@example.com", 30));
+
+        MockHttpServletResponse first = perform(post("/api/users/lookup"), "lookup-1", new UserLookupRequest(List.of(-1L)));
+        MockHttpServletResponse second = perform(post("/api/users/lookup"), "lookup-1",
+                new UserLookupRequest(List.of(user.getUserId())));
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(second.getContentAsString()).contains("lookup-key@example.com");
+    }
+
+    @Test
+    void shouldDeliverBufferedBodyToReadListener() throws Exception {
+        byte[] body = "{\"name\":\"Async\"}".getBytes(StandardCharsets.UTF_8);
+        ServletInputStream input = new IdempotencyFilter.BufferedBodyRequest(new MockHttpServletRequest(), body)
+                .getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (input.isReady() && !input.isFinished()) {
+                    read.write(input.read());
+                }
+                events.add("data");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("end");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(read.toByteArray()).isEqualTo(body);
+        assertThat(events).containsExactly("data", "end");
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder builder, String key, Object request)
+            throws Exception {
+        return mockMvc.perform(builder
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse();
+    }
+}
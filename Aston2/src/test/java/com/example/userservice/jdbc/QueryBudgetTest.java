@@ -0,0 +1,105 @@
+package com.example.userservice.jdbc;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "jdbc-inspector.max-queries-per-request=2"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRunOneQueryPerUserLookupAndNoneFromCache() {
+        UserResponse user = userService.createUser(new UserRequest("Budget", "budget@example.com", 30));
+
+        // Выполняется в пуле circuit breaker: QueryScope переносится туда вместе с контекстом
+        try (QueryScope scope = QueryScope.open()) {
+            userService.getUserById(user.getUserId());
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+        try (QueryScope scope = QueryScope.open()) {
+            userService.getUserById(user.getUserId());
+            assertThat(scope.getCount()).isZero();
+        }
+    }
+
+    @Test
+    void shouldResolveBulkLookupWithSingleQuery() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(userService.createUser(new UserRequest("Bulk " + i, "bulk-budget-" + i + "@example.com", 20 + i))
+                    .getUserId());
+        }
+
+        try (QueryScope scope = QueryScope.open()) {
+            assertThat(userService.lookupUsers(ids).getUsers()).hasSize(20);
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldCountRepeatedStatements() {
+        UserResponse user = userService.createUser(new UserRequest("Repeated", "repeated@example.com", 41));
+
+        try (QueryScope scope = QueryScope.open()) {
+            userRepository.findById(user.getUserId());
+            userRepository.findById(user.getUserId());
+            userRepository.count();
+            assertThat(scope.getCount()).isEqualTo(3);
+            assertThat(scope.getExecutions().values()).containsExactlyInAnyOrder(2, 1);
+        }
+    }
+
+    @Test
+    void shouldRecordQueriesPerRequestAndFailRequestsOverBudget() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Metered", "metered@example.com", 50));
+        mockMvc.perform(get("/api/users").param("ids", user.getUserId().toString())).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("http.server.requests.queries")
+                .tag("method", "GET").tag("uri", "/api/users").summary().max()).isEqualTo(1.0);
+
+        // Чтение пользователя, обновление, запись в outbox - больше бюджета 2
+        String body = objectMapper.writeValueAsString(new UserRequest("Over", "over-budget@example.com", 25));
+        assertThatThrownBy(() -> mockMvc.perform(put("/api/users/" + user.getUserId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)))
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+}
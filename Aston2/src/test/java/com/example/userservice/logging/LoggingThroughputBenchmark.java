@@ -0,0 +1,209 @@
+package com.example.userservice.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.example.userservice.id.IdGenerator;
+import com.example.userservice.sharding.ShardedIds;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Пропускная способность GET /api/users при логировании SQL (org.hibernate.SQL=DEBUG, как show-sql)
+ * и логов сервиса: выключено, синхронный текстовый appender, асинхронный JSON, асинхронный JSON
+ * с сэмплированием. Логи пишутся в файлы, а не в консоль прогона.
+ * Не входит в обычный прогон тестов: mvn test -Pbenchmark
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "logging.level.com.example.userservice=INFO"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoggingThroughputBenchmark {
+
+    private static final int ROWS = 50;
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2;
+    private static final long WARMUP_MILLIS = 10_000;
+    private static final long MEASURE_MILLIS = 5_000;
+    private static final String[] LOGGERS = {"org.hibernate.SQL", "com.example.userservice"};
+
+    private final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final List<Appender<ILoggingEvent>> attached = new ArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @BeforeAll
+    void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{ShardedIds.compose(idGenerator.nextId(), 0), "User " + i, "logging" + i + "@example.com", 20 + i % 50, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, age, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void restore() {
+        for (String name : LOGGERS) {
+            Logger logger = loggerContext.getLogger(name);
+            attached.forEach(logger::detachAppender);
+            logger.setLevel(null);
+            logger.setAdditive(true);
+        }
+        attached.forEach(Appender::stop);
+        attached.clear();
+        loggerContext.resetTurboFilterList();
+    }
+
+    // Режимы чередуются по кругам, берется лучший результат: первый режим не страдает от холодного JIT
+    @Test
+    void compareLoggingModes() throws Exception {
+        Map<String, Mode> modes = new LinkedHashMap<>();
+        modes.put("off", () -> { });
+        modes.put("sync pattern", () -> route(Level.DEBUG, file("sync", pattern())));
+        modes.put("async json", () -> route(Level.DEBUG, async(file("async", json()))));
+        modes.put("async json sampled", () -> {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(loggerContext);
+            sampling.setLogger("org.hibernate.SQL");
+            sampling.setLevel(Level.DEBUG);
+            sampling.setRate(100);
+            sampling.start();
+            loggerContext.addTurboFilter(sampling);
+            route(Level.DEBUG, async(file("sampled", json())));
+        });
+
+        run(WARMUP_MILLIS);
+        Map<String, Double> best = new LinkedHashMap<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Map.Entry<String, Mode> mode : modes.entrySet()) {
+                mode.getValue().apply();
+                double throughput = run(MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+                best.merge(mode.getKey(), throughput, Math::max);
+                restore();
+            }
+        }
+        best.forEach((mode, throughput) -> System.out.printf("%-20s %10.0f req/s%n", mode, throughput));
+    }
+
+    private interface Mode {
+        void apply() throws IOException;
+    }
+
+    private void route(Level level, Appender<ILoggingEvent> appender) {
+        attached.add(appender);
+        for (String name : LOGGERS) {
+            Logger logger = loggerContext.getLogger(name);
+            logger.setLevel(level);
+            logger.setAdditive(false);
+            logger.addAppender(appender);
+        }
+    }
+
+    private long run(long millis) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder requests = new LongAdder();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            pool.execute(() -> {
+                try {
+                    while (running.get()) {
+                        mockMvc.perform(get("/api/users")).andReturn();
+                        requests.increment();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        Thread.sleep(millis);
+        running.set(false);
+        done.await();
+        pool.shutdown();
+        return requests.sum();
+    }
+
+    private FileAppender<ILoggingEvent> file(String name, Encoder<ILoggingEvent> encoder) throws IOException {
+        Path file = Files.createTempFile("logging-benchmark-" + name, ".log");
+        file.toFile().deleteOnExit();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(loggerContext);
+        appender.setName(name);
+        appender.setFile(file.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        attached.add(appender);
+        return appender;
+    }
+
+    private AsyncAppender async(Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setName("async-" + delegate.getName());
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+
+    private Encoder<ILoggingEvent> pattern() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5p [%t] %logger{40} : %m%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> json() {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(loggerContext);
+        encoder.start();
+        return encoder;
+    }
+}
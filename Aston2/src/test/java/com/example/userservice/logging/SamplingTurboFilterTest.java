@@ -0,0 +1,71 @@
+package com.example.userservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLogger("com.example.hot");
+        filter.setLevel(Level.INFO);
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+    }
+
+    @Test
+    void shouldKeepEveryNthEventOfSampledLoggerAndItsChildren() {
+        Logger hot = context.getLogger("com.example.hot");
+        Logger child = context.getLogger("com.example.hot.Child");
+        for (int i = 0; i < 50; i++) {
+            hot.info("hot {}", i);
+            child.debug("child {}", i);
+        }
+
+        assertThat(appender.list).hasSize(10);
+        assertThat(appender.list.get(0).getFormattedMessage()).isEqualTo("hot 0");
+    }
+
+    @Test
+    void shouldPassEventsAboveLevelAndOtherLoggers() {
+        Logger hot = context.getLogger("com.example.hot");
+        Logger sibling = context.getLogger("com.example.hotter");
+        for (int i = 0; i < 20; i++) {
+            hot.warn("warn {}", i);
+            sibling.info("sibling {}", i);
+        }
+
+        assertThat(appender.list).hasSize(40);
+    }
+
+    @Test
+    void shouldNotCountEventsDisabledByLoggerLevel() {
+        Logger hot = context.getLogger("com.example.hot");
+        hot.setLevel(Level.INFO);
+        for (int i = 0; i < 100; i++) {
+            hot.debug("disabled {}", i);
+        }
+        hot.info("first enabled");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly("first enabled");
+    }
+}
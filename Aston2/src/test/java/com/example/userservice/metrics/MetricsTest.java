@@ -0,0 +1,93 @@
+package com.example.userservice.metrics;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import com.example.userservice.warmup.WarmupRequests;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.user.repository=true",
+        "metrics.slo.buckets=50ms,500ms",
+        "metrics.slo.default-objective=300ms",
+        "metrics.slo.endpoints[0].uri=/api/users/{id}",
+        "metrics.slo.endpoints[0].objective=120ms"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldExposeEndpointSloBucketsRepositoryTimersAndGcMetrics() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Measured", "measured@example.com", 40));
+        mockMvc.perform(get("/api/users/{id}", user.getUserId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/count")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Своя целевая задержка у /api/users/{id}, общая - у остальных эндпоинтов
+        assertThat(bucket(scrape, "/api/users/{id}", "0.12")).isTrue();
+        assertThat(bucket(scrape, "/api/users/{id}", "0.3")).isFalse();
+        assertThat(bucket(scrape, "/api/users/count", "0.3")).isTrue();
+        assertThat(bucket(scrape, "/api/users/count", "0.12")).isFalse();
+        assertThat(bucket(scrape, "/api/users/count", "0.05")).isTrue();
+        assertThat(scrape).contains("http_server_requests_objective_seconds{")
+                .containsPattern("user_repository_seconds_bucket\\{[^}]*method=\"findById\"")
+                .contains("jvm_gc_memory_allocated_bytes_total");
+    }
+
+    @Test
+    void shouldSkipWarmupRequestsOnlyFromLoopback() throws Exception {
+        String invalid = "{\"name\":\"\",\"email\":\"not-an-email\"}";
+        mockMvc.perform(post("/api/users").header(WarmupRequests.HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON).content(invalid))
+                .andExpect(status().isBadRequest());
+        assertThat(meterRegistry.find("http.server.requests").tag("method", "POST").timer()).isNull();
+        assertThat(meterRegistry.find("http.server.requests.queries").tag("method", "POST").summary()).isNull();
+
+        // Внешний клиент заголовком не прячет запрос из метрик
+        mockMvc.perform(post("/api/users").header(WarmupRequests.HEADER, "true")
+                        .with(request -> {
+                            request.setRemoteAddr("203.0.113.7");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON).content(invalid))
+                .andExpect(status().isBadRequest());
+        assertThat(meterRegistry.get("http.server.requests").tag("method", "POST").tag("status", "400").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.requests.queries").tag("method", "POST").summary().count())
+                .isEqualTo(1);
+    }
+
+    private static boolean bucket(String scrape, String uri, String le) {
+        return scrape.lines()
+                .filter(line -> line.startsWith("http_server_requests_seconds_bucket{"))
+                .anyMatch(line -> line.contains("uri=\"" + uri + "\"") && line.contains("le=\"" + le + "\""));
+    }
+}
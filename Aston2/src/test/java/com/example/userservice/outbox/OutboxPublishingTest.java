@@ -0,0 +1,95 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.example.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "outbox.sink=memory",
+        "outbox.batch-size=2",
+        "outbox.linger=20ms",
+        "outbox.poll-interval=20ms",
+        "outbox.gap-timeout=500ms"
+})
+class OutboxPublishingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        sink.clear();
+    }
+
+    @Test
+    void shouldPublishChangesInOrderPerUser() throws InterruptedException {
+        UserResponse first = userService.createUser(new UserRequest("First", "outbox-first@example.com", 20));
+        UserResponse second = userService.createUser(new UserRequest("Second", "outbox-second@example.com", 30));
+        userService.updateUser(first.getUserId(), new UserRequest(null, null, 21));
+        userService.deleteUser(second.getUserId());
+        userService.deleteUser(first.getUserId());
+
+        waitFor(() -> sink.getMessages().size() == 5, 5000);
+
+        assertThat(types(first.getUserId())).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(types(second.getUserId())).containsExactly("CREATED", "DELETED");
+        assertThat(sink.getMessages().get(0).payload()).contains("outbox-first@example.com");
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(meterRegistry.get("outbox.delivery.lag").timer().count()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void shouldNotPublishChangeFromRolledBackTransaction() throws InterruptedException {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            userService.createUser(new UserRequest("Ghost", "outbox-ghost@example.com", 40));
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+        UserResponse committed = userService.createUser(new UserRequest("Real", "outbox-real@example.com", 40));
+
+        waitFor(() -> !sink.getMessages().isEmpty(), 5000);
+
+        assertThat(sink.getMessages()).extracting(OutboxMessage::aggregateId).containsExactly(committed.getUserId());
+        assertThat(userService.existsByEmail("outbox-ghost@example.com")).isFalse();
+    }
+
+    private List<String> types(Long userId) {
+        return sink.getMessages().stream()
+                .filter(message -> message.aggregateId() == userId)
+                .map(OutboxMessage::type)
+                .toList();
+    }
+
+    private static void waitFor(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
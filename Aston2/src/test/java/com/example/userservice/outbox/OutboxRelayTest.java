@@ -0,0 +1,143 @@
+package com.example.userservice.outbox;
+
+import com.example.userservice.config.OutboxProperties;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private OutboxEventRepository repository;
+
+    private final MutableClock clock = new MutableClock();
+    private final InMemoryOutboxSink sink = new InMemoryOutboxSink();
+    private final OutboxProperties properties = new OutboxProperties();
+    private final List<OutboxEvent> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(3);
+        properties.setLinger(Duration.ofMillis(50));
+        properties.setGapTimeout(Duration.ofSeconds(5));
+        lenient().when(repository.findPending(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable page = invocation.getArgument(0);
+            return List.copyOf(table.subList(0, Math.min(page.getPageSize(), table.size())));
+        });
+        lenient().when(repository.count()).thenAnswer(invocation -> (long) table.size());
+        lenient().doAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            table.removeIf(event -> ids.contains(event.getId()));
+            return null;
+        }).when(repository).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void shouldWaitForLingerBeforePublishingPartialBatch() {
+        OutboxRelay relay = relay(sink);
+        insert(1, 10);
+
+        assertThat(relay.relayBatch()).isFalse();
+        assertThat(sink.getMessages()).isEmpty();
+
+        clock.advance(Duration.ofMillis(60));
+        relay.relayBatch();
+
+        assertThat(ids(sink.getMessages())).containsExactly(1L);
+        assertThat(table).isEmpty();
+    }
+
+    @Test
+    void shouldStopBeforeGapUntilItExpires() {
+        OutboxRelay relay = relay(sink);
+        insert(1, 10);
+        insert(2, 10);
+        insert(3, 11);
+        clock.advance(Duration.ofMillis(60));
+        assertThat(relay.relayBatch()).isTrue();
+
+        // id 4 занят незакоммиченной транзакцией: 5 и 6 ждут
+        insert(5, 12);
+        insert(6, 12);
+        clock.advance(Duration.ofMillis(60));
+        relay.relayBatch();
+        assertThat(ids(sink.getMessages())).containsExactly(1L, 2L, 3L);
+
+        clock.advance(Duration.ofSeconds(6));
+        relay.relayBatch();
+        assertThat(ids(sink.getMessages())).containsExactly(1L, 2L, 3L, 5L, 6L);
+    }
+
+    @Test
+    void shouldRetrySameBatchAfterSinkFailure() {
+        List<List<OutboxMessage>> attempts = new ArrayList<>();
+        OutboxRelay relay = relay(batch -> {
+            attempts.add(batch);
+            if (attempts.size() == 1) {
+                throw new IllegalStateException("broker unavailable");
+            }
+        });
+        insert(1, 7);
+        insert(2, 7);
+        clock.advance(Duration.ofMillis(60));
+
+        relay.relayBatch();
+        assertThat(table).hasSize(2);
+
+        relay.relayBatch();
+        assertThat(attempts).hasSize(2);
+        assertThat(attempts.get(1)).isEqualTo(attempts.get(0));
+        assertThat(table).isEmpty();
+    }
+
+    private OutboxRelay relay(OutboxSink target) {
+        return new OutboxRelay(repository, target, properties, clock, new SimpleMeterRegistry());
+    }
+
+    private void insert(long id, long userId) {
+        OutboxEvent event = new OutboxEvent(userId, "UPDATED", "{}", clock.instant());
+        event.setId(id);
+        table.add(event);
+    }
+
+    private static List<Long> ids(List<OutboxMessage> messages) {
+        return messages.stream().map(OutboxMessage::id).toList();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = START;
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return this; }
+
+        @Override
+        public Instant instant() { return now; }
+    }
+}
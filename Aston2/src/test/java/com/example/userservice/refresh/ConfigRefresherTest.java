@@ -0,0 +1,66 @@
+package com.example.userservice.refresh;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Локальная замена транспорта: уведомление передаётся в ConfigRefresher напрямую
+// additional-location передаётся аргументом: при refresh заново читаются только стандартные источники
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false"
+}, args = "--spring.config.additional-location=optional:file:target/refresh-test/refresh.properties")
+class ConfigRefresherTest {
+
+    private static final Path OVERRIDES = Path.of("target/refresh-test/refresh.properties");
+
+    @Autowired
+    private ConfigRefresher refresher;
+
+    @Autowired
+    private Resilience4JCircuitBreakerFactory circuitBreakerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(OVERRIDES);
+        refresher.refresh(notification());
+    }
+
+    @Test
+    void shouldRebindCircuitBreakerThresholdsWithoutRestart() throws IOException {
+        circuitBreakerFactory.create("userService").run(() -> "ok");
+        CircuitBreakerRegistry registry = circuitBreakerFactory.getCircuitBreakerRegistry();
+        assertThat(registry.circuitBreaker("userService").getCircuitBreakerConfig().getFailureRateThreshold())
+                .isEqualTo(50);
+
+        Files.createDirectories(OVERRIDES.getParent());
+        Files.writeString(OVERRIDES, "user-service.circuit-breaker.failure-rate-threshold=20\n");
+        Set<String> keys = refresher.refresh(notification());
+
+        assertThat(keys).contains("user-service.circuit-breaker.failure-rate-threshold");
+        circuitBreakerFactory.create("userService").run(() -> "ok");
+        assertThat(registry.circuitBreaker("userService").getCircuitBreakerConfig().getFailureRateThreshold())
+                .isEqualTo(20);
+        assertThat(meterRegistry.get("config.refresh.pause").tag("outcome", "success").timer().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    private static ConfigChangeNotification notification() {
+        return new ConfigChangeNotification("user-service", "default", null,
+                Set.of("user-service.circuit-breaker.failure-rate-threshold"), "test");
+    }
+}
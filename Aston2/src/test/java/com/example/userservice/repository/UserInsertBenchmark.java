@@ -0,0 +1,121 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.id.IdGenerator;
+import com.example.userservice.model.User;
+import com.example.userservice.sharding.ShardedIds;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Вставки пользователей в секунду: id от IDENTITY (строка за строкой, каждый INSERT возвращает ключ -
+ * так вставлял Hibernate до генератора) против id, назначенных приложением, батчами через JDBC
+ * и через saveAll (hibernate.jdbc.batch_size). Не входит в обычный прогон тестов: mvn test -Pbenchmark
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "logging.level.com.example.userservice=INFO"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserInsertBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int BATCH = 50;
+    private static final int RUNS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    private int run;
+
+    @BeforeAll
+    void createIdentityTable() {
+        jdbcTemplate.execute("CREATE TABLE users_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL UNIQUE, age INT, created_at TIMESTAMP, updated_at TIMESTAMP)");
+    }
+
+    @Test
+    void compareIdStrategies() {
+        for (int i = 0; i < RUNS; i++) {
+            measure("identity, row by row", this::insertWithIdentity);
+            measure("snowflake, jdbc batch", this::insertBatched);
+            measure("snowflake, saveAll", this::insertWithJpa);
+        }
+    }
+
+    private void measure(String name, Runnable inserts) {
+        run++;
+        long start = System.nanoTime();
+        inserts.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-22s %,10.0f rows/s%n", name, ROWS / seconds);
+    }
+
+    private void insertWithIdentity() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < ROWS; i++) {
+            String email = email(i);
+            KeyHolder key = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO users_identity (name, email, age, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS);
+                statement.setString(1, "User");
+                statement.setString(2, email);
+                statement.setInt(3, 30);
+                statement.setTimestamp(4, now);
+                statement.setTimestamp(5, now);
+                return statement;
+            }, key);
+        }
+    }
+
+    private void insertBatched() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{ShardedIds.compose(idGenerator.nextId(), 0), "User", email(i), 30, now, now});
+        }
+        for (int from = 0; from < ROWS; from += BATCH) {
+            jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, age, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    rows.subList(from, Math.min(from + BATCH, ROWS)));
+        }
+    }
+
+    private void insertWithJpa() {
+        for (int from = 0; from < ROWS; from += BATCH) {
+            List<User> users = new ArrayList<>(BATCH);
+            for (int i = from; i < Math.min(from + BATCH, ROWS); i++) {
+                users.add(new User("User", email(i), 30));
+            }
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+        }
+    }
+
+    private String email(int i) {
+        return "insert" + run + "-" + i + "@example.com";
+    }
+}
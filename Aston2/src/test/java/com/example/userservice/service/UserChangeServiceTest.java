@@ -0,0 +1,91 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserChange;
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.exception.CursorExpiredException;
+import com.example.userservice.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "user-changes.visibility-lag=0ms"
+})
+class UserChangeServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void shouldReturnOnlyChangesAfterCursorWithTombstones() {
+        UserResponse kept = userService.createUser(new UserRequest("Kept", "changes-kept@example.com", 20));
+        UserResponse removed = userService.createUser(new UserRequest("Removed", "changes-removed@example.com", 30));
+        UserResponse untouched = userService.createUser(new UserRequest("Untouched", "changes-untouched@example.com", 40));
+        String cursor = syncAll(null, new ArrayList<>());
+
+        userService.updateUser(kept.getUserId(), new UserRequest(null, null, 21));
+        userService.deleteUser(removed.getUserId());
+
+        List<UserChange> changes = new ArrayList<>();
+        cursor = syncAll(cursor, changes);
+
+        assertThat(changes).extracting(UserChange::getId).containsExactly(kept.getUserId(), removed.getUserId());
+        assertThat(changes.get(0).isDeleted()).isFalse();
+        assertThat(changes.get(0).getUser().getAge()).isEqualTo(21);
+        assertThat(changes.get(0).getUser().getUpdatedAt()).isAfter(changes.get(0).getUser().getCreatedAt());
+        assertThat(changes.get(1).isDeleted()).isTrue();
+        assertThat(changes.get(1).getUser()).isNull();
+        assertThat(changes).extracting(UserChange::getId).doesNotContain(untouched.getUserId());
+
+        assertThat(userService.getChangesSince(cursor, null).getChanges()).isEmpty();
+    }
+
+    @Test
+    void shouldPageThroughChangesWithoutLossOrDuplicates() {
+        String cursor = syncAll(null, new ArrayList<>());
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(userService.createUser(new UserRequest("Page " + i, "changes-page" + i + "@example.com", 20)).getUserId());
+        }
+
+        List<UserChange> changes = new ArrayList<>();
+        UserChangesResponse first = userService.getChangesSince(cursor, 2);
+        assertThat(first.getChanges()).hasSize(2);
+        assertThat(first.isHasMore()).isTrue();
+        changes.addAll(first.getChanges());
+        syncAll(first.getCursor(), changes);
+
+        assertThat(changes).extracting(UserChange::getId).containsExactlyElementsOf(created);
+    }
+
+    @Test
+    void shouldRejectInvalidAndExpiredCursors() {
+        assertThatThrownBy(() -> userService.getChangesSince("not-a-cursor", null))
+                .isInstanceOf(InvalidCursorException.class);
+
+        String expired = new ChangeCursor(LocalDateTime.now().minusDays(30), 0).encode();
+        assertThatThrownBy(() -> userService.getChangesSince(expired, null))
+                .isInstanceOf(CursorExpiredException.class);
+    }
+
+    private String syncAll(String cursor, List<UserChange> changes) {
+        UserChangesResponse page;
+        do {
+            page = userService.getChangesSince(cursor, 2);
+            changes.addAll(page.getChanges());
+            cursor = page.getCursor();
+        } while (page.isHasMore());
+        return cursor;
+    }
+}
@@ -2,15 +2,23 @@ package com.example.userservice.service;
 
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.event.UserChangeType;
+import com.example.userservice.event.UserChangedEvent;
 import com.example.userservice.exception.EmailAlreadyExistsException;
 import com.example.userservice.model.User;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.sharding.ShardRouter;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +36,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.single();
+
     @InjectMocks
     private UserService userService;
 
@@ -38,8 +52,7 @@ class UserServiceTest {
         user.setId(1L);
         user.setCreatedAt(LocalDateTime.now());
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         UserResponse result = userService.createUser(userRequest);
 
@@ -49,25 +62,36 @@ class UserServiceTest {
         assertThat(result.getEmail()).isEqualTo("john@example.com");
         assertThat(result.getAge()).isEqualTo(30);
 
-        verify(userRepository).existsByEmail("john@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangeType.CREATED, 1L, result));
     }
 
     @Test
     void shouldThrowExceptionWhenCreatingUserWithExistingEmail() {
         UserRequest userRequest = new UserRequest("John Doe", "john@example.com", 30);
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation());
 
         assertThatThrownBy(() -> userService.createUser(userRequest))
                 .isInstanceOf(EmailAlreadyExistsException.class)
                 .hasMessage("Email already exists: john@example.com"); // ← ПРОСТОЕ СООБЩЕНИЕ
 
-        verify(userRepository).existsByEmail("john@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verifyNoInteractions(eventPublisher);
     }
 
 
+    @Test
+    void shouldNotTreatOtherUniqueViolationsAsTakenEmail() {
+        DataIntegrityViolationException idCollision = uniqueViolation("\"PUBLIC.PRIMARY_KEY_4 ON PUBLIC.USERS(ID) VALUES ( /* 1 */ 7 )\"");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(idCollision);
+
+        assertThatThrownBy(() -> userService.createUser(new UserRequest("John Doe", "john@example.com", 30)))
+                .isSameAs(idCollision);
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void shouldGetUserByIdSuccessfully() {
         User user = new User("John Doe", "john@example.com", 30);
@@ -133,8 +157,7 @@ class UserServiceTest {
         updatedUser.setCreatedAt(existingUser.getCreatedAt());
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByEmail("john.updated@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updatedUser);
 
         UserResponse result = userService.updateUser(1L, userRequest);
 
@@ -144,8 +167,8 @@ class UserServiceTest {
         assertThat(result.getAge()).isEqualTo(35);
 
         verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("john.updated@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -158,7 +181,7 @@ class UserServiceTest {
         updatedUser.setId(1L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updatedUser);
 
         UserResponse result = userService.updateUser(1L, userRequest);
 
@@ -168,7 +191,7 @@ class UserServiceTest {
 
         verify(userRepository).findById(1L);
         verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -182,7 +205,7 @@ class UserServiceTest {
                 .hasMessage("User not found with id: 999");
 
         verify(userRepository).findById(999L);
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -193,15 +216,15 @@ class UserServiceTest {
         UserRequest userRequest = new UserRequest("John Updated", "existing@example.com", 35);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation());
 
         assertThatThrownBy(() -> userService.updateUser(1L, userRequest))
                 .isInstanceOf(EmailAlreadyExistsException.class)
                 .hasMessage("Email already exists: existing@example.com"); // ← ПРОСТОЕ СООБЩЕНИЕ
 
         verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("existing@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -213,6 +236,7 @@ class UserServiceTest {
 
         verify(userRepository).existsById(1L);
         verify(userRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangeType.DELETED, 1L, null));
     }
 
     @Test
@@ -298,7 +322,7 @@ class UserServiceTest {
         updatedUser.setId(1L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updatedUser);
 
         UserResponse result = userService.updateUser(1L, partialUpdate);
 
@@ -307,7 +331,7 @@ class UserServiceTest {
         assertThat(result.getAge()).isEqualTo(30); // осталось прежним
 
         verify(userRepository).findById(1L);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -334,7 +358,7 @@ class UserServiceTest {
         updatedUser.setId(1L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updatedUser);
 
         UserResponse result = userService.updateUser(1L, userRequest);
 
@@ -343,6 +367,17 @@ class UserServiceTest {
         assertThat(result.getAge()).isEqualTo(30);
 
         verify(userRepository).findById(1L);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+    }
+
+    // Так репозиторий сообщает о нарушении uk_users_email
+    private static DataIntegrityViolationException uniqueViolation() {
+        return uniqueViolation("\"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL NULLS FIRST) VALUES ( /* 1 */ 'x' )\"");
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        SQLException sqlException = new SQLException("Unique index or primary key violation", "23505");
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraintName));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.jdbc.QueryScope;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class UserSignupConcurrencyTest {
+
+    private static final int SIGNUPS = 100;
+    private static final int EMAILS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldCreateEachEmailOnceUnderParallelSignups() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SIGNUPS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < SIGNUPS; i++) {
+                String body = objectMapper.writeValueAsString(
+                        new UserRequest("Signup " + i, "signup-" + i % EMAILS + "@example.com", 30));
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/users")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            Map<Integer, Integer> byStatus = new HashMap<>();
+            for (Future<Integer> status : statuses) {
+                byStatus.merge(status.get(), 1, Integer::sum);
+            }
+            assertThat(byStatus).containsOnlyKeys(201, 409);
+            assertThat(byStatus.get(201)).isEqualTo(EMAILS);
+            assertThat(byStatus.get(409)).isEqualTo(SIGNUPS - EMAILS);
+            for (int i = 0; i < EMAILS; i++) {
+                assertThat(userRepository.findByEmail("signup-" + i + "@example.com")).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldCreateUserWithoutReadingEmailFirst() {
+        try (QueryScope scope = QueryScope.open()) {
+            userService.createUser(new UserRequest("Single", "single-statement@example.com", 30));
+            assertThat(scope.getExecutions().keySet()).noneMatch(sql -> sql.trim().toLowerCase().startsWith("select"));
+        }
+        try (QueryScope scope = QueryScope.open()) {
+            assertThatThrownBy(() -> userService.createUser(new UserRequest("Copy", "single-statement@example.com", 30)))
+                    .isInstanceOf(EmailAlreadyExistsException.class);
+            assertThat(scope.getExecutions().keySet()).noneMatch(sql -> sql.trim().toLowerCase().startsWith("select"));
+        }
+    }
+}
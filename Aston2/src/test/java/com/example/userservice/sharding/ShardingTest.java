@@ -0,0 +1,286 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.dto.UserChange;
+import com.example.userservice.dto.UserChangesResponse;
+import com.example.userservice.dto.UserLookupResponse;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.id.SnowflakeIdGenerator;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "user-changes.visibility-lag=0ms",
+        "user-ids.node-id=77",
+        "sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1"
+})
+class ShardingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private EmailDirectoryMigrator emailDirectoryMigrator;
+
+    @Autowired
+    private OrphanEmailCleaner orphanEmailCleaner;
+
+    @Test
+    void shouldStoreEachUserOnlyOnItsEmailShard() {
+        List<UserResponse> created = createUsers("placement", 12);
+
+        for (UserResponse user : created) {
+            int shard = shardRouter.shardForEmail(user.getEmail());
+            assertThat(ShardedIds.shardOf(user.getUserId())).isEqualTo(shard);
+            for (int i = 0; i < shardRouter.getShardCount(); i++) {
+                assertThat(rowsWithEmail(i, user.getEmail())).as("shard %d, %s", i, user.getEmail())
+                        .isEqualTo(i == shard ? 1 : 0);
+            }
+            assertThat(userService.getUserById(user.getUserId()).getEmail()).isEqualTo(user.getEmail());
+        }
+        assertThat(created).extracting(UserResponse::getUserId).doesNotHaveDuplicates();
+        assertThat(created).extracting(user -> ShardedIds.shardOf(user.getUserId())).contains(0, 1, 2);
+    }
+
+    @Test
+    void shouldEmbedConfiguredNodeIdInCreatedIds() {
+        List<UserResponse> created = createUsers("node", 3);
+
+        assertThat(created).extracting(user -> SnowflakeIdGenerator.nodeOf(ShardedIds.valueOf(user.getUserId())))
+                .containsOnly(77);
+    }
+
+    @Test
+    void shouldFailWithoutIdGeneratorBean() {
+        assertThatThrownBy(() -> new ShardedIdGenerator().generate(null, null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("IdGenerator");
+    }
+
+    @Test
+    void shouldMergeListingsAndCountsFromAllShards() {
+        List<UserResponse> created = createUsers("listing", 9);
+        List<Long> createdIds = created.stream().map(UserResponse::getUserId).toList();
+
+        List<UserResponse> all = userService.getAllUsers();
+        assertThat(all).extracting(UserResponse::getUserId).containsAll(createdIds);
+        assertThat(all).isSortedAccordingTo(Comparator.comparing(UserResponse::getCreatedAt).reversed());
+        assertThat(userService.getUserCount()).isEqualTo(all.size());
+
+        List<Map<String, Object>> compact = userService.getAllUsers(List.of("id", "name"));
+        assertThat(compact).extracting(row -> row.get("id")).containsExactlyElementsOf(
+                all.stream().map(user -> user.getUserId().toString()).toList());
+        assertThat(compact).allSatisfy(row -> assertThat(row).containsOnlyKeys("id", "name"));
+
+        UserLookupResponse lookup = userService.lookupUsers(List.of(createdIds.get(4), createdIds.get(0), createdIds.get(8)));
+        assertThat(lookup.getUsers()).extracting(UserResponse::getUserId)
+                .containsExactly(createdIds.get(4), createdIds.get(0), createdIds.get(8));
+        assertThat(lookup.getMissing()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepUserOnItsShardAndEmailsUniqueAcrossShards() {
+        UserResponse user = userService.createUser(new UserRequest("Mover", emailOnShard("mover", 0), 30));
+        UserResponse other = userService.createUser(new UserRequest("Other", emailOnShard("other", 1), 30));
+
+        assertThatThrownBy(() -> userService.updateUser(user.getUserId(), new UserRequest(null, other.getEmail(), null)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+
+        String moved = emailOnShard("moved", 2);
+        userService.updateUser(user.getUserId(), new UserRequest(null, moved, null));
+        assertThat(rowsWithEmail(0, moved)).isEqualTo(1);
+        assertThat(userService.getUserById(user.getUserId()).getEmail()).isEqualTo(moved);
+        assertThat(userService.existsByEmail(moved)).isTrue();
+        assertThatThrownBy(() -> userService.createUser(new UserRequest("Copy", moved, 30)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+
+        // Прежний email освобожден сменой, новый - удалением
+        assertThat(userService.createUser(new UserRequest("Reuse", user.getEmail(), 30)).getEmail()).isEqualTo(user.getEmail());
+        userService.deleteUser(user.getUserId());
+        assertThat(userService.existsByEmail(moved)).isFalse();
+    }
+
+    @Test
+    void shouldGiveContestedEmailToOneUserAcrossShards() throws Exception {
+        UserResponse mover = userService.createUser(new UserRequest("Mover", emailOnShard("contest-mover", 0), 30));
+        String contested = emailOnShard("contested", 2);
+        ExecutorService executor = Executors.newFixedThreadPool(11);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            attempts.add(executor.submit(() -> {
+                start.await();
+                return userService.updateUser(mover.getUserId(), new UserRequest(null, contested, null));
+            }));
+            for (int i = 0; i < 10; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return userService.createUser(new UserRequest("Signup", contested, 30));
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<?> attempt : attempts) {
+                try {
+                    attempt.get();
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(EmailAlreadyExistsException.class);
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+            assertThat(IntStream.range(0, shardRouter.getShardCount()).map(shard -> rowsWithEmail(shard, contested)).sum())
+                    .isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldMoveEmailRowsToTheirShardOnStartup() {
+        UserResponse user = userService.createUser(new UserRequest("Old layout", emailOnShard("old-layout", 1), 30));
+        UserResponse copied = userService.createUser(new UserRequest("Half moved", emailOnShard("half-moved", 2), 30));
+        // Как до добавления шардов: строка лежит не на шарде своего email; вторая уже скопирована, но не удалена
+        moveEmailRow(user.getEmail(), 1, 0);
+        copyEmailRow(copied.getEmail(), 2, 0);
+        assertThat(userService.existsByEmail(user.getEmail())).isFalse();
+
+        assertThat(emailDirectoryMigrator.migrate()).isEqualTo(2);
+
+        assertThat(emailRows(0, user.getEmail())).isZero();
+        assertThat(emailRows(1, user.getEmail())).isEqualTo(1);
+        assertThat(emailRows(0, copied.getEmail())).isZero();
+        assertThat(emailRows(2, copied.getEmail())).isEqualTo(1);
+        assertThatThrownBy(() -> userService.createUser(new UserRequest("Copy", user.getEmail(), 30)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        assertThat(emailDirectoryMigrator.migrate()).isZero();
+    }
+
+    @Test
+    void shouldRemoveOnlyOldEmailRowsWithoutOwner() {
+        UserResponse user = userService.createUser(new UserRequest("Owner", emailOnShard("owner", 0), 30));
+        Instant old = Instant.now().minus(1, ChronoUnit.HOURS);
+        // Прерванная смена email и удаление: строки остались, а пользователь с другим email или удален
+        String abandoned = emailOnShard("abandoned", 1);
+        String deleted = emailOnShard("deleted", 2);
+        String recent = emailOnShard("recent", 2);
+        insertEmailRow(1, abandoned, user.getUserId(), old);
+        insertEmailRow(2, deleted, ShardedIds.compose(1, 2), old);
+        insertEmailRow(2, recent, user.getUserId(), Instant.now());
+        new JdbcTemplate(dataSource.getShard(0)).update("UPDATE user_emails SET registered_at = ? WHERE email = ?",
+                Timestamp.from(old), user.getEmail());
+
+        assertThat(orphanEmailCleaner.cleanUp()).isGreaterThanOrEqualTo(2);
+
+        assertThat(emailRows(1, abandoned)).isZero();
+        assertThat(emailRows(2, deleted)).isZero();
+        assertThat(emailRows(2, recent)).isEqualTo(1);
+        assertThat(emailRows(0, user.getEmail())).isEqualTo(1);
+        assertThat(userService.createUser(new UserRequest("Reuse", abandoned, 30)).getEmail()).isEqualTo(abandoned);
+    }
+
+    @Test
+    void shouldCollectChangesAndTombstonesFromAllShards() {
+        String cursor = syncAll(null, new ArrayList<>());
+        List<UserResponse> created = createUsers("changes", 6);
+        UserResponse removed = created.get(1);
+        userService.deleteUser(removed.getUserId());
+
+        List<UserChange> changes = new ArrayList<>();
+        syncAll(cursor, changes);
+
+        assertThat(changes).filteredOn(change -> !change.isDeleted()).extracting(UserChange::getId)
+                .containsExactlyInAnyOrderElementsOf(created.stream()
+                        .map(UserResponse::getUserId)
+                        .filter(id -> !id.equals(removed.getUserId()))
+                        .toList());
+        assertThat(changes).filteredOn(UserChange::isDeleted).extracting(UserChange::getId)
+                .containsExactly(removed.getUserId());
+    }
+
+    private List<UserResponse> createUsers(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> userService.createUser(new UserRequest("User " + i,
+                        emailOnShard(prefix + "-" + i, i % shardRouter.getShardCount()), 20 + i)))
+                .toList();
+    }
+
+    // Первый адрес с этим префиксом, который по хэшу попадает на shard
+    private String emailOnShard(String prefix, int shard) {
+        for (int i = 0; ; i++) {
+            String email = prefix + "-" + i + "@example.com";
+            if (shardRouter.shardForEmail(email) == shard) {
+                return email;
+            }
+        }
+    }
+
+    private int rowsWithEmail(int shard, String email) {
+        return new JdbcTemplate(dataSource.getShard(shard))
+                .queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+    }
+
+    private int emailRows(int shard, String email) {
+        return new JdbcTemplate(dataSource.getShard(shard))
+                .queryForObject("SELECT COUNT(*) FROM user_emails WHERE email = ?", Integer.class, email);
+    }
+
+    private void insertEmailRow(int shard, String email, long userId, Instant registeredAt) {
+        new JdbcTemplate(dataSource.getShard(shard)).update(
+                "INSERT INTO user_emails (email, user_id, registered_at) VALUES (?, ?, ?)", email, userId, Timestamp.from(registeredAt));
+    }
+
+    private void moveEmailRow(String email, int from, int to) {
+        copyEmailRow(email, from, to);
+        new JdbcTemplate(dataSource.getShard(from)).update("DELETE FROM user_emails WHERE email = ?", email);
+    }
+
+    private void copyEmailRow(String email, int from, int to) {
+        Long userId = new JdbcTemplate(dataSource.getShard(from))
+                .queryForObject("SELECT user_id FROM user_emails WHERE email = ?", Long.class, email);
+        new JdbcTemplate(dataSource.getShard(to))
+                .update("INSERT INTO user_emails (email, user_id, registered_at) VALUES (?, ?, CURRENT_TIMESTAMP)", email, userId);
+    }
+
+    private String syncAll(String cursor, List<UserChange> changes) {
+        UserChangesResponse page;
+        do {
+            page = userService.getChangesSince(cursor, 2);
+            changes.addAll(page.getChanges());
+            cursor = page.getCursor();
+        } while (page.isHasMore());
+        return cursor;
+    }
+}
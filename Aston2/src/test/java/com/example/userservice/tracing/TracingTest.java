@@ -0,0 +1,100 @@
+package com.example.userservice.tracing;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.tracing.FileSpanExporter;
+import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "warmup.enabled=false",
+        "spring.application.name=user-service",
+        "tracing.file-enabled=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+class TracingTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @TempDir
+    static Path traces;
+
+    @DynamicPropertySource
+    static void traceFile(DynamicPropertyRegistry registry) {
+        registry.add("tracing.file", () -> traces.resolve("spans.jsonl").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private FileSpanExporter exporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldContinueGatewayTraceThroughServiceCircuitBreakerAndRepository() throws Exception {
+        UserResponse user = userService.createUser(new UserRequest("Traced", "traced@example.com", 33));
+
+        mockMvc.perform(get("/api/users/{id}", user.getUserId())
+                        .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01"))
+                .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(exporter.getFile())) {
+            JsonNode span = objectMapper.readTree(line);
+            if (TRACE_ID.equals(span.get("traceId").asText())) {
+                spans.add(span);
+            }
+        }
+        // Цепочка: входящий запрос шлюза -> HTTP -> UserService -> circuit breaker -> репозиторий
+        JsonNode http = spanNamed(spans, "http get /api/users/{id}");
+        JsonNode service = spanNamed(spans, "user-service#get-user-by-id");
+        JsonNode circuitBreaker = spanNamed(spans, "circuit-breaker");
+        JsonNode repository = spanNamed(spans, "user-repository#find-by-id");
+        assertThat(http.get("parentSpanId").asText()).isEqualTo("00f067aa0ba902b7");
+        assertThat(service.get("parentSpanId").asText()).isEqualTo(http.get("spanId").asText());
+        assertThat(circuitBreaker.get("parentSpanId").asText()).isEqualTo(service.get("spanId").asText());
+        assertThat(repository.get("parentSpanId").asText()).isEqualTo(circuitBreaker.get("spanId").asText());
+        assertThat(repository.get("attributes").get("repository").asText()).isEqualTo("UserRepository");
+        assertThat(spans).allSatisfy(span -> assertThat(span.get("service").asText()).isEqualTo("user-service"));
+    }
+
+    private static JsonNode spanNamed(List<JsonNode> spans, String name) {
+        return spans.stream()
+                .filter(span -> name.equals(span.get("name").asText()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans));
+    }
+}
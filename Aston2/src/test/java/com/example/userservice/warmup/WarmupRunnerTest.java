@@ -0,0 +1,103 @@
+package com.example.userservice.warmup;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "warmup.iterations=20",
+        "warmup.pool-connections=5"
+})
+class WarmupRunnerTest {
+
+    @Autowired
+    private WarmupRunner warmupRunner;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Resilience4JCircuitBreakerFactory circuitBreakerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldWarmUpBeforeAcceptingTraffic() {
+        WarmupRunner.WarmupReport report = warmupRunner.getLastReport();
+
+        // База при старте пуста: GET /api/users/{id} пропущен
+        assertThat(report).isNotNull();
+        assertThat(report.poolConnections()).isEqualTo(5);
+        assertThat(report.requests()).isEqualTo(20 * 3);
+        assertThat(report.failures()).isZero();
+        assertThat(((HikariDataSource) dataSource).getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(5);
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        // Прогревочные запросы не попадают в SLO-гистограммы и в статистику SQL по эндпоинтам
+        assertThat(meterRegistry.find("http.server.requests").timers()).isEmpty();
+        assertThat(meterRegistry.find("http.server.requests.queries").summaries()).isEmpty();
+    }
+
+    @Test
+    void shouldRequestExistingUserAndResetCircuitBreakers() {
+        userService.createUser(new UserRequest("Warm", "warm@example.com", 30));
+        try {
+            warmupRunner.run(null);
+
+            WarmupRunner.WarmupReport report = warmupRunner.getLastReport();
+            assertThat(report.requests()).isEqualTo(20 * 4);
+            assertThat(report.failures()).isZero();
+            assertThat(circuitBreakerFactory.getCircuitBreakerRegistry().getAllCircuitBreakers())
+                    .isNotEmpty()
+                    .allSatisfy(breaker -> {
+                        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+                        assertThat(breaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+                    });
+        } finally {
+            userRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void shouldFollowReadinessInEurekaStatus() {
+        ApplicationInfoManager manager = mock(ApplicationInfoManager.class);
+        EurekaReadinessListener listener = new EurekaReadinessListener(
+                new StaticListableBeanFactory(Map.of("manager", manager)).getBeanProvider(ApplicationInfoManager.class));
+
+        listener.onReadinessChange(new AvailabilityChangeEvent<>(this, ReadinessState.REFUSING_TRAFFIC));
+        verify(manager).setInstanceStatus(InstanceInfo.InstanceStatus.OUT_OF_SERVICE);
+
+        listener.onReadinessChange(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        verify(manager).setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+    }
+}
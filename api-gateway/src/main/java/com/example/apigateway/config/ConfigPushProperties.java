@@ -0,0 +1,26 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "config.push")
+public class ConfigPushProperties {
+
+    // Подписка на уведомления config-server об изменении конфигурации
+    private boolean enabled = false;
+
+    private String serverUrl = "http://localhost:8888";
+
+    // Пауза перед переподключением к потоку изменений
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getServerUrl() { return serverUrl; }
+    public void setServerUrl(String serverUrl) { this.serverUrl = serverUrl; }
+
+    public Duration getReconnectDelay() { return reconnectDelay; }
+    public void setReconnectDelay(Duration reconnectDelay) { this.reconnectDelay = reconnectDelay; }
+}
@@ -0,0 +1,34 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.refresh.ConfigChangeSubscriber;
+import com.example.apigateway.refresh.ConfigRefresher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+// В native-сборке refresh отключён (spring.cloud.refresh.enabled=false), ContextRefresher там нет
+@Configuration
+@ConditionalOnProperty(prefix = "spring.cloud.refresh", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ConfigPushProperties.class)
+public class ConfigRefreshConfig {
+
+    @Bean
+    public ConfigRefresher configRefresher(ContextRefresher contextRefresher, ApplicationEventPublisher publisher,
+                                           MeterRegistry meterRegistry) {
+        return new ConfigRefresher(contextRefresher, publisher, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "config.push", name = "enabled", havingValue = "true")
+    public ConfigChangeSubscriber configChangeSubscriber(ConfigPushProperties properties, Environment environment,
+                                                         ConfigRefresher refresher, WebClient.Builder webClientBuilder) {
+        return new ConfigChangeSubscriber(properties, environment.getProperty("spring.application.name"),
+                refresher, webClientBuilder);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.discovery.InstancePropagationMetrics;
+import com.example.apigateway.discovery.MeteredEurekaRequestFactorySupplier;
+import com.example.apigateway.discovery.RegistryFetchMetricsInterceptor;
+import com.netflix.discovery.EurekaClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.netflix.eureka.RestTemplateTimeoutProperties;
+import org.springframework.cloud.netflix.eureka.http.DefaultEurekaClientHttpRequestFactorySupplier;
+import org.springframework.cloud.netflix.eureka.http.EurekaClientHttpRequestFactorySupplier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DiscoveryMetricsConfig {
+
+    // Заменяет стандартный supplier Eureka client: те же таймауты, плюс метрики запросов реестра
+    @Bean
+    public EurekaClientHttpRequestFactorySupplier meteredEurekaRequestFactorySupplier(
+            ObjectProvider<RestTemplateTimeoutProperties> timeoutProperties, MeterRegistry meterRegistry) {
+        return new MeteredEurekaRequestFactorySupplier(
+                new DefaultEurekaClientHttpRequestFactorySupplier(
+                        timeoutProperties.getIfAvailable(RestTemplateTimeoutProperties::new)),
+                new RegistryFetchMetricsInterceptor(meterRegistry));
+    }
+
+    @Bean
+    public InstancePropagationMetrics instancePropagationMetrics(ObjectProvider<EurekaClient> eurekaClient,
+                                                                 MeterRegistry meterRegistry) {
+        return new InstancePropagationMetrics(eurekaClient, meterRegistry);
+    }
+}
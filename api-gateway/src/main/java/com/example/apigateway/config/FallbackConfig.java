@@ -0,0 +1,22 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.fallback.StaleCacheGatewayFilterFactory;
+import com.example.apigateway.fallback.StaleResponseCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(StaleCacheProperties.class)
+public class FallbackConfig {
+
+    @Bean
+    public StaleResponseCache staleResponseCache(StaleCacheProperties properties) {
+        return new StaleResponseCache(properties.getMaxEntries());
+    }
+
+    @Bean
+    public StaleCacheGatewayFilterFactory staleCacheGatewayFilterFactory(StaleResponseCache cache) {
+        return new StaleCacheGatewayFilterFactory(cache);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.apigateway.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Хинты для native-image сборки шлюза.
+ * Eureka client и Spring Cloud Gateway регистрируют основную часть хинтов сами,
+ * здесь добавляется то, что читается рефлексией из YAML и отдается через actuator /gateway.
+ */
+public class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> REFLECTIVE_TYPES = List.of(
+            "org.springframework.cloud.gateway.route.RouteDefinition",
+            "org.springframework.cloud.gateway.filter.FilterDefinition",
+            "org.springframework.cloud.gateway.handler.predicate.PredicateDefinition",
+            "org.springframework.cloud.gateway.discovery.DiscoveryLocatorProperties",
+            "com.example.apigateway.loadbalancer.LoadBalancerStrategyGatewayFilterFactory$Config",
+            "com.example.apigateway.ratelimit.LocalTokenBucketRateLimiter$Config",
+            "com.example.apigateway.hedging.HedgingGatewayFilterFactory$Config",
+            "com.example.apigateway.fallback.StaleCacheGatewayFilterFactory$Config",
+            "org.springframework.cloud.gateway.filter.factory.SpringCloudCircuitBreakerFilterFactory$Config",
+            "org.springframework.cloud.gateway.filter.factory.AbstractNameValueGatewayFilterFactory$NameValueConfig"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : REFLECTIVE_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.hedging.HedgedResponseWriteFilter;
+import com.example.apigateway.hedging.HedgingGatewayFilterFactory;
+import com.example.apigateway.loadbalancer.InstanceStatsRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+public class HedgingConfig {
+
+    @Bean
+    public HedgingGatewayFilterFactory hedgingGatewayFilterFactory(HttpClient httpClient,
+                                                                   HttpClientProperties httpClientProperties,
+                                                                   LoadBalancerClientFactory clientFactory,
+                                                                   InstanceStatsRegistry registry,
+                                                                   ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
+        return new HedgingGatewayFilterFactory(httpClient, httpClientProperties, clientFactory, registry, headersFilters);
+    }
+
+    @Bean
+    public HedgedResponseWriteFilter hedgedResponseWriteFilter() {
+        return new HedgedResponseWriteFilter();
+    }
+}
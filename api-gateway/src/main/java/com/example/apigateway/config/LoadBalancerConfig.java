@@ -0,0 +1,38 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.example.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.example.apigateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import com.example.apigateway.loadbalancer.LoadBalancerStrategyGatewayFilterFactory;
+import com.example.apigateway.loadbalancer.LoadBalancerStrategyHeadersFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LoadBalancerStrategyProperties.class)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(LoadBalancerStrategyProperties properties) {
+        return new InstanceStatsRegistry(properties.getDecayTime(), properties.getSlowStart());
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry registry,
+                                                         LoadBalancerStrategyProperties properties) {
+        return new InstanceStatsLifecycle(registry, properties.getFailurePenalty());
+    }
+
+    @Bean
+    public LoadBalancerStrategyGatewayFilterFactory loadBalancerStrategyGatewayFilterFactory() {
+        return new LoadBalancerStrategyGatewayFilterFactory();
+    }
+
+    @Bean
+    public LoadBalancerStrategyHeadersFilter loadBalancerStrategyHeadersFilter() {
+        return new LoadBalancerStrategyHeadersFilter();
+    }
+}
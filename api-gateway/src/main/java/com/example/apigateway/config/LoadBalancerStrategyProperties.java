@@ -0,0 +1,34 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.loadbalancer.LoadBalancingStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerStrategyProperties {
+
+    // Стратегия для маршрутов без фильтра LoadBalancerStrategy
+    private LoadBalancingStrategy strategy = LoadBalancingStrategy.POWER_OF_TWO_CHOICES;
+
+    // За это время наблюдаемая задержка инстанса без новых ответов затухает в e раз
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    // Ошибка или 5xx считается ответом не быстрее этого значения
+    private Duration failurePenalty = Duration.ofMillis(500);
+
+    // Новый инстанс выходит на полную долю трафика за это время (0 - без slow start)
+    private Duration slowStart = Duration.ofSeconds(30);
+
+    public LoadBalancingStrategy getStrategy() { return strategy; }
+    public void setStrategy(LoadBalancingStrategy strategy) { this.strategy = strategy; }
+
+    public Duration getDecayTime() { return decayTime; }
+    public void setDecayTime(Duration decayTime) { this.decayTime = decayTime; }
+
+    public Duration getFailurePenalty() { return failurePenalty; }
+    public void setFailurePenalty(Duration failurePenalty) { this.failurePenalty = failurePenalty; }
+
+    public Duration getSlowStart() { return slowStart; }
+    public void setSlowStart(Duration slowStart) { this.slowStart = slowStart; }
+}
\ No newline at end of file
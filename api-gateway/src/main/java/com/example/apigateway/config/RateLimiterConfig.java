@@ -0,0 +1,31 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.ratelimit.ClientKeyResolver;
+import com.example.apigateway.ratelimit.LocalTokenBucketRateLimiter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@EnableConfigurationProperties(RateLimiterProperties.class)
+public class RateLimiterConfig {
+
+    @Bean
+    @Primary
+    public LocalTokenBucketRateLimiter localTokenBucketRateLimiter(ConfigurationService configurationService,
+                                                                   RateLimiterProperties properties) {
+        LocalTokenBucketRateLimiter.Config defaults = new LocalTokenBucketRateLimiter.Config();
+        defaults.setReplenishRate(properties.getReplenishRate());
+        defaults.setBurstCapacity(properties.getBurstCapacity());
+        defaults.setRequestedTokens(properties.getRequestedTokens());
+        return new LocalTokenBucketRateLimiter(configurationService, defaults, properties.getMaxBuckets());
+    }
+
+    @Bean
+    @Primary
+    public ClientKeyResolver clientKeyResolver(RateLimiterProperties properties) {
+        return new ClientKeyResolver(properties.getTrustedProxies());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "gateway.rate-limiter")
+public class RateLimiterProperties {
+
+    // Значения по умолчанию для маршрутов без local-rate-limiter.* в аргументах фильтра
+    private int replenishRate = 50;
+    private int burstCapacity = 100;
+    private int requestedTokens = 1;
+
+    // IP балансировщиков перед шлюзом: только от них X-Forwarded-For заменяет адрес клиента
+    private List<String> trustedProxies = new ArrayList<>();
+
+    // Жесткий предел числа ведер: полные удаляются, новые клиенты сверх него делят общее ведро маршрута
+    private int maxBuckets = 100_000;
+
+    public int getReplenishRate() { return replenishRate; }
+    public void setReplenishRate(int replenishRate) { this.replenishRate = replenishRate; }
+
+    public int getBurstCapacity() { return burstCapacity; }
+    public void setBurstCapacity(int burstCapacity) { this.burstCapacity = burstCapacity; }
+
+    public int getRequestedTokens() { return requestedTokens; }
+    public void setRequestedTokens(int requestedTokens) { this.requestedTokens = requestedTokens; }
+
+    public List<String> getTrustedProxies() { return trustedProxies; }
+    public void setTrustedProxies(List<String> trustedProxies) { this.trustedProxies = trustedProxies; }
+
+    public int getMaxBuckets() { return maxBuckets; }
+    public void setMaxBuckets(int maxBuckets) { this.maxBuckets = maxBuckets; }
+}
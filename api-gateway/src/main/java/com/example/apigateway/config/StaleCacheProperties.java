@@ -0,0 +1,13 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.stale-cache")
+public class StaleCacheProperties {
+
+    // Общее число запомненных ответов по всем маршрутам с фильтром StaleCache
+    private int maxEntries = 10_000;
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+}
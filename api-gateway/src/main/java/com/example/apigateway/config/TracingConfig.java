@@ -0,0 +1,28 @@
+package com.example.apigateway.config;
+
+import com.example.tracing.FileSpanExporter;
+import com.example.apigateway.tracing.TracedRequestHeaderGatewayFilterFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    @Bean
+    public TracedRequestHeaderGatewayFilterFactory tracedRequestHeaderGatewayFilterFactory() {
+        return new TracedRequestHeaderGatewayFilterFactory();
+    }
+
+    // Подхватывается BatchSpanProcessor из автоконфигурации OpenTelemetry вместе с OTLP-экспортером, если он задан
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.tracing", name = "file-enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(TracingProperties properties, ObjectMapper objectMapper) {
+        return new FileSpanExporter(Path.of(properties.getFile()), objectMapper, properties.getMaxFileSize().toBytes());
+    }
+}
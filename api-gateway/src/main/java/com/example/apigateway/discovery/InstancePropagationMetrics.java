@@ -0,0 +1,119 @@
+package com.example.apigateway.discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.netflix.eureka.EurekaServiceInstance;
+import org.springframework.context.ApplicationListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Задержка распространения нового инстанса: от регистрации (перехода в UP) на Eureka-сервере
+ * до появления в локальном кэше реестра шлюза и до первого запроса, отправленного на него.
+ * Инстансы, поднятые раньше старта шлюза, не учитываются - для них задержка равна времени работы шлюза.
+ */
+public class InstancePropagationMetrics implements ApplicationListener<HeartbeatEvent>,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final ObjectProvider<EurekaClient> eurekaClient;
+    private final LongSupplier wallClock;
+    private final long startedAtMillis;
+    private final Timer visibleTimer;
+    private final Timer firstRequestTimer;
+    private final AtomicInteger registrySize = new AtomicInteger();
+    private final Set<String> visible = ConcurrentHashMap.newKeySet();
+    private final Set<String> routed = ConcurrentHashMap.newKeySet();
+
+    public InstancePropagationMetrics(ObjectProvider<EurekaClient> eurekaClient, MeterRegistry meterRegistry) {
+        this(eurekaClient, meterRegistry, System::currentTimeMillis);
+    }
+
+    InstancePropagationMetrics(ObjectProvider<EurekaClient> eurekaClient, MeterRegistry meterRegistry,
+                               LongSupplier wallClock) {
+        this.eurekaClient = eurekaClient;
+        this.wallClock = wallClock;
+        this.startedAtMillis = wallClock.getAsLong();
+        this.visibleTimer = Timer.builder("eureka.client.registry.propagation")
+                .description("От регистрации инстанса до появления в локальном кэше реестра")
+                .register(meterRegistry);
+        this.firstRequestTimer = Timer.builder("gateway.instance.first-request.delay")
+                .description("От регистрации инстанса до первого запроса, отправленного на него шлюзом")
+                .register(meterRegistry);
+        meterRegistry.gauge("eureka.client.registry.instances", registrySize);
+    }
+
+    // HeartbeatEvent публикуется после каждого обновления локального кэша реестра
+    @Override
+    public void onApplicationEvent(HeartbeatEvent event) {
+        EurekaClient client = eurekaClient.getIfAvailable();
+        if (client == null) {
+            return;
+        }
+        long now = wallClock.getAsLong();
+        Set<String> current = new HashSet<>();
+        for (Application application : client.getApplications().getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstances()) {
+                if (instance.getStatus() != InstanceInfo.InstanceStatus.UP) {
+                    continue;
+                }
+                current.add(instance.getInstanceId());
+                if (visible.add(instance.getInstanceId())) {
+                    record(visibleTimer, upTimestamp(instance), now);
+                }
+            }
+        }
+        visible.retainAll(current);
+        routed.retainAll(current);
+        registrySize.set(current.size());
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer() && lbResponse.getServer() instanceof EurekaServiceInstance eurekaInstance) {
+            InstanceInfo instance = eurekaInstance.getInstanceInfo();
+            if (routed.add(instance.getInstanceId())) {
+                record(firstRequestTimer, upTimestamp(instance), wallClock.getAsLong());
+            }
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+    }
+
+    private void record(Timer timer, long upTimestamp, long now) {
+        if (upTimestamp >= startedAtMillis && now >= upTimestamp) {
+            timer.record(Duration.ofMillis(now - upTimestamp));
+        }
+    }
+
+    private static long upTimestamp(InstanceInfo instance) {
+        LeaseInfo lease = instance.getLeaseInfo();
+        if (lease == null) {
+            return 0;
+        }
+        return lease.getServiceUpTimestamp() > 0 ? lease.getServiceUpTimestamp() : lease.getRegistrationTimestamp();
+    }
+}
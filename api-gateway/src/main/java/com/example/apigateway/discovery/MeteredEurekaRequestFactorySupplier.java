@@ -0,0 +1,29 @@
+package com.example.apigateway.discovery;
+
+import org.springframework.cloud.netflix.eureka.http.EurekaClientHttpRequestFactorySupplier;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.util.List;
+
+/**
+ * Добавляет {@link RegistryFetchMetricsInterceptor} в RestTemplate, которым Eureka client ходит на сервер.
+ */
+public class MeteredEurekaRequestFactorySupplier implements EurekaClientHttpRequestFactorySupplier {
+
+    private final EurekaClientHttpRequestFactorySupplier delegate;
+    private final RegistryFetchMetricsInterceptor interceptor;
+
+    public MeteredEurekaRequestFactorySupplier(EurekaClientHttpRequestFactorySupplier delegate,
+                                               RegistryFetchMetricsInterceptor interceptor) {
+        this.delegate = delegate;
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public ClientHttpRequestFactory get(SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+        return new InterceptingClientHttpRequestFactory(delegate.get(sslContext, hostnameVerifier), List.of(interceptor));
+    }
+}
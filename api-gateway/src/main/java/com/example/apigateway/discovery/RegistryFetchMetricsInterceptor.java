@@ -0,0 +1,143 @@
+package com.example.apigateway.discovery;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Время и размер ответов Eureka-сервера на запросы реестра (/apps/ - полный, /apps/delta - дельта).
+ * Размер считается по фактически прочитанным байтам: сервер отдает реестр без Content-Length.
+ */
+public class RegistryFetchMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public RegistryFetchMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String type = fetchType(request);
+        if (type == null) {
+            return execution.execute(request, body);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            sample.stop(fetchTimer(type, "IO_ERROR"));
+            throw e;
+        }
+        sample.stop(fetchTimer(type, Integer.toString(response.getStatusCode().value())));
+        return new CountingResponse(response, DistributionSummary.builder("eureka.client.registry.fetch.size")
+                .description("Размер ответа Eureka-сервера на запрос реестра")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .register(meterRegistry));
+    }
+
+    private Timer fetchTimer(String type, String status) {
+        return Timer.builder("eureka.client.registry.fetch")
+                .description("Время запроса реестра у Eureka-сервера")
+                .tag("type", type)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    static String fetchType(HttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return null;
+        }
+        String path = request.getURI().getPath();
+        if (path.endsWith("/apps/delta")) {
+            return "delta";
+        }
+        if (path.endsWith("/apps/") || path.endsWith("/apps")) {
+            return "full";
+        }
+        return null;
+    }
+
+    private static class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final DistributionSummary size;
+        private long bytesRead;
+        private InputStream body;
+
+        CountingResponse(ClientHttpResponse delegate, DistributionSummary size) {
+            this.delegate = delegate;
+            this.size = size;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    // Без mark/reset: RestTemplate проверяет наличие тела чтением байта с возвратом,
+                    // и перечитанный после reset байт посчитался бы дважды
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            bytesRead++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = super.read(buffer, offset, length);
+                        if (n > 0) {
+                            bytesRead += n;
+                        }
+                        return n;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                size.record(bytesRead);
+            }
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.apigateway.fallback;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Fallback circuit breaker маршрута user-service: последний успешный ответ из {@link StaleResponseCache}
+ * с заголовками Warning и Age, иначе сразу 503 без обращения к сервису.
+ */
+@RestController
+public class FallbackController {
+
+    public static final String CACHE_STATUS_HEADER = "X-Gateway-Cache";
+
+    private static final byte[] UNAVAILABLE = "{\"error\":\"user-service is temporarily unavailable\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final StaleResponseCache cache;
+
+    public FallbackController(StaleResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @RequestMapping("/userFallback")
+    public ResponseEntity<byte[]> userFallback(ServerWebExchange exchange) {
+        String key = exchange.getAttribute(StaleCacheGatewayFilterFactory.STALE_CACHE_KEY_ATTR);
+        StaleResponseCache.CachedResponse cached = exchange.getRequest().getMethod() == HttpMethod.GET && key != null
+                ? cache.get(key)
+                : null;
+        if (cached == null) {
+            Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(CACHE_STATUS_HEADER, "MISS")
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .header("X-Gateway-Fallback-Reason", cause != null ? cause.getClass().getSimpleName() : "unknown")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(UNAVAILABLE);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(cached.status())
+                .header(CACHE_STATUS_HEADER, "STALE")
+                .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                .header(HttpHeaders.AGE, Long.toString(cache.ageSeconds(cached)));
+        if (cached.contentType() != null) {
+            response.contentType(cached.contentType());
+        }
+        return response.body(cached.body());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.apigateway.fallback;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Запоминает успешные GET-ответы маршрута для {@link FallbackController}:
+ * <pre>
+ * filters:
+ *   - name: CircuitBreaker
+ *     args:
+ *       name: user-service
+ *       fallbackUri: forward:/userFallback
+ *   - name: StaleCache
+ *     args:
+ *       max-stale: 10m
+ * </pre>
+ * Фильтр выполняется перед NettyWriteResponseFilter, поэтому видит тело ответа независимо от позиции в списке.
+ * Тело не задерживается: буферы уходят клиенту сразу, копия набирается попутно и бросается,
+ * как только ответ (в том числе chunked, без Content-Length) превысил max-body-size.
+ */
+public class StaleCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<StaleCacheGatewayFilterFactory.Config> {
+
+    public static final int STALE_CACHE_FILTER_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    public static final String STALE_CACHE_KEY_ATTR = StaleCacheGatewayFilterFactory.class.getName() + ".key";
+
+    private final StaleResponseCache cache;
+
+    public StaleCacheGatewayFilterFactory(StaleResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public String name() {
+        return "StaleCache";
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long maxStaleNanos = config.getMaxStale().toNanos();
+        long maxBodySize = config.getMaxBodySize().toBytes();
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = cacheKey(exchange);
+            exchange.getAttributes().put(STALE_CACHE_KEY_ATTR, key);
+            ServerHttpResponse recording = new RecordingResponse(exchange.getResponse(), key, maxStaleNanos, maxBodySize);
+            return chain.filter(exchange.mutate().response(recording).build());
+        }, STALE_CACHE_FILTER_ORDER);
+    }
+
+    // Маршрут + путь с query + Accept: разные представления одного ресурса хранятся отдельно
+    static String cacheKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return (route != null ? route.getId() : "") + ' ' + request.getURI().getRawPath()
+                + (request.getURI().getRawQuery() != null ? '?' + request.getURI().getRawQuery() : "")
+                + ' ' + (accept != null ? accept : "*/*");
+    }
+
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final long maxStaleNanos;
+        private final long maxBodySize;
+
+        RecordingResponse(ServerHttpResponse delegate, String key, long maxStaleNanos, long maxBodySize) {
+            super(delegate);
+            this.key = key;
+            this.maxStaleNanos = maxStaleNanos;
+            this.maxBodySize = maxBodySize;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!cacheable()) {
+                return super.writeWith(body);
+            }
+            BodyCopy copy = new BodyCopy(maxBodySize);
+            Flux<? extends DataBuffer> recorded = Flux.from(body)
+                    .doOnNext(copy::append)
+                    .doOnComplete(() -> {
+                        byte[] bytes = copy.bytes();
+                        if (bytes != null) {
+                            cache.put(key, getStatusCode(), getHeaders().getContentType(), bytes, maxStaleNanos);
+                        }
+                    });
+            return super.writeWith(recorded);
+        }
+
+        private boolean cacheable() {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            // Ответ самого fallback повторно не кэшируется, иначе не растет Age
+            return status != null && status.value() == HttpStatus.OK.value()
+                    && !headers.containsKey(FallbackController.CACHE_STATUS_HEADER)
+                    && (cacheControl == null || !cacheControl.contains("no-store"))
+                    && headers.getContentLength() <= maxBodySize;
+        }
+    }
+
+    // Копия тела до maxBodySize байт; буферы читаются без сдвига позиции - их еще пишет клиенту Netty
+    private static class BodyCopy {
+
+        private final long maxBodySize;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        BodyCopy(long maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        void append(DataBuffer buffer) {
+            if (bytes == null) {
+                return;
+            }
+            int count = buffer.readableByteCount();
+            if (bytes.size() + (long) count > maxBodySize) {
+                bytes = null;
+                return;
+            }
+            byte[] chunk = new byte[count];
+            int position = buffer.readPosition();
+            buffer.read(chunk);
+            buffer.readPosition(position);
+            bytes.write(chunk, 0, count);
+        }
+
+        // null, если тело больше maxBodySize
+        byte[] bytes() {
+            return bytes != null ? bytes.toByteArray() : null;
+        }
+    }
+
+    public static class Config {
+        // Сколько времени после получения ответ можно отдавать из fallback
+        private Duration maxStale = Duration.ofMinutes(10);
+        // Ответы больше этого размера не кэшируются
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+        public Duration getMaxStale() { return maxStale; }
+        public void setMaxStale(Duration maxStale) { this.maxStale = maxStale; }
+
+        public DataSize getMaxBodySize() { return maxBodySize; }
+        public void setMaxBodySize(DataSize maxBodySize) { this.maxBodySize = maxBodySize; }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.apigateway.fallback;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Последние успешные GET-ответы маршрутов, которые отдаются из fallback при открытом circuit breaker.
+ * LRU с ограничением по числу записей, устаревшие записи удаляются при чтении.
+ */
+public class StaleResponseCache {
+
+    private final Map<String, CachedResponse> entries;
+    private final LongSupplier clock;
+
+    public StaleResponseCache(int maxEntries) {
+        this(maxEntries, System::nanoTime);
+    }
+
+    StaleResponseCache(int maxEntries, LongSupplier clock) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.clock = clock;
+    }
+
+    public void put(String key, HttpStatusCode status, MediaType contentType, byte[] body, long maxStaleNanos) {
+        long now = clock.getAsLong();
+        entries.put(key, new CachedResponse(status, contentType, body, now, now + maxStaleNanos));
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (clock.getAsLong() - cached.expiresAtNanos() > 0) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    public long ageSeconds(CachedResponse cached) {
+        return (clock.getAsLong() - cached.storedAtNanos()) / 1_000_000_000L;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public record CachedResponse(HttpStatusCode status, MediaType contentType, byte[] body,
+                                 long storedAtNanos, long expiresAtNanos) {
+    }
+}
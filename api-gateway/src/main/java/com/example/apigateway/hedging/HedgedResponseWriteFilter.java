@@ -0,0 +1,60 @@
+package com.example.apigateway.hedging;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR;
+
+/**
+ * Пишет тело ответа, полученного hedging-фильтром, на той же стадии, что и NettyWriteResponseFilter,
+ * чтобы post-обработка фильтров маршрута (заголовки ответа и т.п.) успевала до коммита ответа.
+ */
+public class HedgedResponseWriteFilter implements GlobalFilter, Ordered {
+
+    static final String HEDGED_RESPONSE_BODY_ATTR = HedgedResponseWriteFilter.class.getName() + ".body";
+
+    static void prepareResponse(ServerWebExchange exchange, ResponseEntity<Flux<DataBuffer>> entity,
+                                List<HttpHeadersFilter> headersFilters) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = HttpHeadersFilter.filter(headersFilters, entity.getHeaders(), exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        if (headers.containsKey(HttpHeaders.TRANSFER_ENCODING) && headers.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            headers = HttpHeaders.writableHttpHeaders(headers);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        if (entity.getHeaders().getContentType() != null) {
+            exchange.getAttributes().put(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, entity.getHeaders().getContentType().toString());
+        }
+        response.setStatusCode(entity.getStatusCode());
+        response.getHeaders().putAll(headers);
+        exchange.getAttributes().put(HEDGED_RESPONSE_BODY_ATTR, entity.getBody() != null ? entity.getBody() : Flux.empty());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).then(Mono.defer(() -> {
+            Flux<DataBuffer> body = exchange.getAttribute(HEDGED_RESPONSE_BODY_ATTR);
+            if (body == null) {
+                return Mono.empty();
+            }
+            return exchange.getResponse().writeWith(body);
+        }));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER;
+    }
+}
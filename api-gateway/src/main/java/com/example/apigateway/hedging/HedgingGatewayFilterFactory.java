@@ -0,0 +1,365 @@
+package com.example.apigateway.hedging;
+
+import com.example.apigateway.loadbalancer.InstanceStats;
+import com.example.apigateway.loadbalancer.InstanceStatsRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * Hedging для идемпотентных GET-запросов маршрута:
+ * <pre>
+ * filters:
+ *   - name: Hedge
+ *     args:
+ *       percentile: 95
+ *       budget-percent: 10
+ * </pre>
+ * Если выбранный балансировщиком инстанс не ответил за наблюдаемый перцентиль задержки маршрута,
+ * тот же запрос отправляется на другой инстанс и используется первый ответ. Ошибка соединения
+ * или 5xx от первого инстанса сразу запускает повтор на другом. Дополнительные попытки
+ * ограничены бюджетом, чтобы при сбое не умножать нагрузку на сервис. Прочие ошибки первого
+ * инстанса, в том числе таймаут ответа, завершают запрос сразу и отменяют hedge.
+ * Запрос выполняется вместо NettyRoutingFilter, тело ответа пишет {@link HedgedResponseWriteFilter}.
+ * Как и NettyRoutingFilter, каждая попытка соблюдает response-timeout и connect-timeout
+ * из metadata маршрута (иначе spring.cloud.gateway.httpclient.*) и проходит через HttpHeadersFilter.
+ */
+public class HedgingGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+
+    public static final int HEDGING_FILTER_ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private final HttpClient httpClient;
+    private final WebClient webClient;
+    // WebClient на каждое значение connect-timeout из metadata маршрутов
+    private final Map<Integer, WebClient> webClientsByConnectTimeout = new ConcurrentHashMap<>();
+    private final HttpClientProperties httpClientProperties;
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceStatsRegistry registry;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+
+    public HedgingGatewayFilterFactory(HttpClient httpClient, HttpClientProperties httpClientProperties,
+                                       LoadBalancerClientFactory clientFactory, InstanceStatsRegistry registry,
+                                       ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider) {
+        super(Config.class);
+        this.httpClient = httpClient;
+        this.webClient = webClient(httpClient);
+        this.httpClientProperties = httpClientProperties;
+        this.clientFactory = clientFactory;
+        this.registry = registry;
+        this.headersFiltersProvider = headersFiltersProvider;
+    }
+
+    @Override
+    public String name() {
+        return "Hedge";
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        LatencyWindow window = new LatencyWindow(config.getWindowSize(), config.getPercentile() / 100.0);
+        RetryBudget budget = new RetryBudget(config.getBudgetPercent(), config.getBudgetReserve());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            if (exchange.getRequest().getMethod() != HttpMethod.GET || isAlreadyRouted(exchange)
+                    || url == null || route == null || lbResponse == null || !lbResponse.hasServer()
+                    || !("http".equals(url.getScheme()) || "https".equals(url.getScheme()))) {
+                return chain.filter(exchange);
+            }
+            setAlreadyRouted(exchange);
+            budget.deposit();
+
+            return new HedgedRequest(exchange, route, config, window, budget, url, lbResponse.getServer())
+                    .execute()
+                    .doOnNext(entity -> HedgedResponseWriteFilter.prepareResponse(exchange, entity, headersFilters()))
+                    .then(chain.filter(exchange));
+        }, HEDGING_FILTER_ORDER);
+    }
+
+    private List<HttpHeadersFilter> headersFilters() {
+        return headersFiltersProvider.getIfAvailable(Collections::emptyList);
+    }
+
+    // Тот же пул соединений, что и у NettyRoutingFilter
+    private static WebClient webClient(HttpClient httpClient) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    private WebClient webClient(Route route) {
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout == null) {
+            return webClient;
+        }
+        return webClientsByConnectTimeout.computeIfAbsent(Integer.parseInt(connectTimeout.toString()),
+                millis -> webClient(httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, millis)));
+    }
+
+    // null - без таймаута: отрицательное значение в metadata отключает глобальный
+    private Duration responseTimeout(Route route) {
+        Object responseTimeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (responseTimeout == null) {
+            return httpClientProperties.getResponseTimeout();
+        }
+        long millis = Long.parseLong(responseTimeout.toString());
+        return millis < 0 ? null : Duration.ofMillis(millis);
+    }
+
+    private class HedgedRequest {
+
+        private final ServerWebExchange exchange;
+        private final WebClient webClient;
+        private final Duration responseTimeout;
+        private final Config config;
+        private final LatencyWindow window;
+        private final RetryBudget budget;
+        private final URI primaryUrl;
+        private final ServiceInstance primary;
+        private final HttpHeaders requestHeaders;
+        private final AtomicBoolean hedged = new AtomicBoolean();
+        private final Sinks.One<Throwable> primaryFailed = Sinks.one();
+        private volatile Throwable primaryError;
+
+        HedgedRequest(ServerWebExchange exchange, Route route, Config config, LatencyWindow window, RetryBudget budget,
+                      URI primaryUrl, ServiceInstance primary) {
+            this.exchange = exchange;
+            this.webClient = webClient(route);
+            this.responseTimeout = responseTimeout(route);
+            this.config = config;
+            this.window = window;
+            this.budget = budget;
+            this.primaryUrl = primaryUrl;
+            this.primary = primary;
+            this.requestHeaders = requestHeaders(exchange);
+        }
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> execute() {
+            long start = System.nanoTime();
+            Mono<ResponseEntity<Flux<DataBuffer>>> primaryAttempt = send(primaryUrl, true)
+                    .doOnError(e -> {
+                        primaryError = e;
+                        if (!isRetryable(e)) {
+                            primaryFailed.tryEmitValue(e);
+                        }
+                    })
+                    .onErrorResume(this::isRetryable, e -> hedge());
+            // Неповторяемая ошибка первого инстанса отменяет hedge: ждать его ответа незачем
+            Mono<ResponseEntity<Flux<DataBuffer>>> delayedHedge = Mono.delay(hedgeDelay())
+                    .then(Mono.defer(this::hedge))
+                    .takeUntilOther(primaryFailed.asMono());
+
+            return Mono.firstWithValue(primaryAttempt, delayedHedge)
+                    .doOnNext(entity -> window.record(System.nanoTime() - start))
+                    .onErrorMap(e -> upstreamError(primaryError != null ? primaryError : e));
+        }
+
+        private Duration hedgeDelay() {
+            long observed = window.quantileNanos();
+            if (observed < 0) {
+                return config.getInitialDelay();
+            }
+            long bounded = Math.max(config.getMinDelay().toNanos(), Math.min(observed, config.getMaxDelay().toNanos()));
+            return Duration.ofNanos(bounded);
+        }
+
+        private Mono<ResponseEntity<Flux<DataBuffer>>> hedge() {
+            if (!hedged.compareAndSet(false, true) || !budget.tryWithdraw()) {
+                return Mono.empty();
+            }
+            return alternativeInstance()
+                    .flatMap(instance -> {
+                        InstanceStats stats = registry.get(instance);
+                        long start = registry.now();
+                        return send(reconstructUrl(instance), false)
+                                .doOnSubscribe(s -> stats.requestStarted())
+                                .doFinally(signal -> {
+                                    long now = registry.now();
+                                    stats.requestFinished(now - start, now);
+                                });
+                    });
+        }
+
+        private Mono<ResponseEntity<Flux<DataBuffer>>> send(URI url, boolean primaryAttempt) {
+            Mono<ResponseEntity<Flux<DataBuffer>>> response = webClient.get()
+                    .uri(url)
+                    .headers(headers -> headers.addAll(requestHeaders))
+                    .retrieve()
+                    .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> primaryAttempt && canHedge()
+                            ? clientResponse.releaseBody().then(Mono.error(new RetryableStatusException(clientResponse.statusCode())))
+                            : Mono.empty())
+                    .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> Mono.empty())
+                    .toEntityFlux(DataBuffer.class);
+            if (responseTimeout == null) {
+                return response;
+            }
+            return response.timeout(responseTimeout,
+                    Mono.error(() -> new TimeoutException("Response took longer than timeout: " + responseTimeout)));
+        }
+
+        private boolean canHedge() {
+            return !hedged.get() && budget.canWithdraw();
+        }
+
+        private boolean isRetryable(Throwable error) {
+            return error instanceof WebClientRequestException || error instanceof RetryableStatusException;
+        }
+
+        private Mono<ServiceInstance> alternativeInstance() {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route == null) {
+                return Mono.empty();
+            }
+            ServiceInstanceListSupplier supplier = clientFactory
+                    .getLazyProvider(route.getUri().getHost(), ServiceInstanceListSupplier.class)
+                    .getIfAvailable();
+            if (supplier == null) {
+                return Mono.empty();
+            }
+            return supplier.get().next().mapNotNull(instances -> {
+                long now = registry.now();
+                ServiceInstance best = null;
+                double bestCost = Double.MAX_VALUE;
+                for (ServiceInstance candidate : instances) {
+                    if (sameInstance(candidate, primary)) {
+                        continue;
+                    }
+                    double cost = registry.get(candidate).cost(now);
+                    if (cost < bestCost) {
+                        best = candidate;
+                        bestCost = cost;
+                    }
+                }
+                return best;
+            });
+        }
+
+        private URI reconstructUrl(ServiceInstance instance) {
+            return UriComponentsBuilder.fromUri(primaryUrl)
+                    .scheme(instance.isSecure() ? "https" : "http")
+                    .host(instance.getHost())
+                    .port(instance.getPort())
+                    .build(true)
+                    .toUri();
+        }
+    }
+
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders filtered = HttpHeadersFilter.filterRequest(headersFilters(), exchange);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(filtered);
+        if (!Boolean.TRUE.equals(exchange.getAttribute(PRESERVE_HOST_HEADER_ATTRIBUTE))) {
+            headers.remove(HttpHeaders.HOST);
+        }
+        return headers;
+    }
+
+    // Ответ клиенту, как у NettyRoutingFilter: 5xx инстанса без повтора - тот же статус, таймаут - 504
+    private static Throwable upstreamError(Throwable error) {
+        if (error instanceof RetryableStatusException status) {
+            return new ResponseStatusException(status.getStatusCode());
+        }
+        if (error instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, error.getMessage(), error);
+        }
+        return error;
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return a.getHost().equals(b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    static class RetryableStatusException extends RuntimeException {
+        private final HttpStatusCode statusCode;
+
+        RetryableStatusException(HttpStatusCode statusCode) {
+            super("Retryable upstream status " + statusCode.value(), null, false, false);
+            this.statusCode = statusCode;
+        }
+
+        HttpStatusCode getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    public static class Config {
+        // Перцентиль задержки маршрута, после которого запускается hedge
+        private int percentile = 95;
+        // Задержка hedge, пока не набрано достаточно измерений
+        private Duration initialDelay = Duration.ofMillis(100);
+        private Duration minDelay = Duration.ofMillis(10);
+        private Duration maxDelay = Duration.ofSeconds(1);
+        // Дополнительные попытки - не больше budgetPercent % от запросов, с запасом budgetReserve попыток
+        private int budgetPercent = 10;
+        private int budgetReserve = 10;
+        private int windowSize = 1024;
+
+        public int getPercentile() { return percentile; }
+        public void setPercentile(int percentile) { this.percentile = percentile; }
+
+        public Duration getInitialDelay() { return initialDelay; }
+        public void setInitialDelay(Duration initialDelay) { this.initialDelay = initialDelay; }
+
+        public Duration getMinDelay() { return minDelay; }
+        public void setMinDelay(Duration minDelay) { this.minDelay = minDelay; }
+
+        public Duration getMaxDelay() { return maxDelay; }
+        public void setMaxDelay(Duration maxDelay) { this.maxDelay = maxDelay; }
+
+        public int getBudgetPercent() { return budgetPercent; }
+        public void setBudgetPercent(int budgetPercent) { this.budgetPercent = budgetPercent; }
+
+        public int getBudgetReserve() { return budgetReserve; }
+        public void setBudgetReserve(int budgetReserve) { this.budgetReserve = budgetReserve; }
+
+        public int getWindowSize() { return windowSize; }
+        public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.apigateway.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Скользящее окно последних задержек маршрута с периодически пересчитываемым перцентилем.
+ * Запись - один getAndIncrement и set без блокировок; сортировка окна выполняется раз в RECOMPUTE_EVERY записей.
+ */
+class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong written = new AtomicLong();
+    private final double quantile;
+    private volatile long cachedQuantileNanos = -1;
+
+    LatencyWindow(int size, double quantile) {
+        this.samples = new AtomicLongArray(size);
+        this.quantile = quantile;
+    }
+
+    void record(long latencyNanos) {
+        long index = written.getAndIncrement();
+        samples.set((int) (index % samples.length()), latencyNanos);
+        if ((index + 1) % RECOMPUTE_EVERY == 0) {
+            recompute(Math.min(index + 1, samples.length()));
+        }
+    }
+
+    // -1, пока окно не набрало достаточно измерений
+    long quantileNanos() {
+        return cachedQuantileNanos;
+    }
+
+    private void recompute(long filled) {
+        long[] copy = new long[(int) filled];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int rank = (int) Math.ceil(quantile * copy.length) - 1;
+        cachedQuantileNanos = copy[Math.max(0, Math.min(rank, copy.length - 1))];
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.apigateway.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бюджет повторов: каждый запрос пополняет бюджет на долю percent / 100 попытки,
+ * каждый hedge или повтор списывает одну попытку. Во время сбоя доля дополнительных
+ * запросов к сервису не превышает percent, а не удваивает нагрузку.
+ */
+class RetryBudget {
+
+    private static final long UNIT = 1_000;
+
+    private final AtomicLong balance;
+    private final long depositPerRequest;
+    private final long maxBalance;
+
+    RetryBudget(int percent, int maxReserve) {
+        this.depositPerRequest = UNIT * percent / 100;
+        this.maxBalance = UNIT * maxReserve;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    void deposit() {
+        balance.updateAndGet(current -> Math.min(maxBalance, current + depositPerRequest));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    boolean canWithdraw() {
+        return balance.get() >= UNIT;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Наблюдаемая нагрузка на один инстанс: число запросов в полете и peak-EWMA времени ответа.
+ * EWMA затухает со временем, чтобы инстанс после GC-паузы не оставался без трафика навсегда.
+ * Время первого появления инстанса в списке балансировщика используется для slow start.
+ * generation - метка регистрации инстанса, при ее смене статистика создается заново.
+ */
+public class InstanceStats {
+
+    static final double MIN_WEIGHT = 0.05;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<Sample> latency;
+    private final double decayNanos;
+    private final long firstSeenNanos;
+    private final String generation;
+    private volatile boolean observed;
+
+    InstanceStats(double decayNanos, long nowNanos, String generation) {
+        this.decayNanos = decayNanos;
+        this.firstSeenNanos = nowNanos;
+        this.generation = generation;
+        this.latency = new AtomicReference<>(new Sample(0, nowNanos));
+    }
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void requestFinished(long latencyNanos, long nowNanos) {
+        inFlight.updateAndGet(current -> Math.max(0, current - 1));
+        latency.updateAndGet(previous -> previous.observe(latencyNanos, nowNanos, decayNanos));
+        observed = true;
+    }
+
+    public String getGeneration() {
+        return generation;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getLatencyNanos(long nowNanos) {
+        return latency.get().decayed(nowNanos, decayNanos);
+    }
+
+    // false, пока через инстанс не прошел ни один запрос
+    public boolean hasLatency() {
+        return observed;
+    }
+
+    // Стоимость выбора инстанса: ожидаемая задержка с учетом очереди перед ним
+    public double cost(long nowNanos) {
+        return (getInFlight() + 1) * (getLatencyNanos(nowNanos) + 1);
+    }
+
+    // Доля трафика для нового инстанса: линейно от MIN_WEIGHT до 1 за slowStartNanos
+    public double weight(long nowNanos, long slowStartNanos) {
+        long age = nowNanos - firstSeenNanos;
+        if (slowStartNanos <= 0 || age >= slowStartNanos) {
+            return 1.0;
+        }
+        return Math.max(MIN_WEIGHT, (double) Math.max(0, age) / slowStartNanos);
+    }
+
+    private record Sample(double ewmaNanos, long stampNanos) {
+
+        double decayed(long nowNanos, double decayNanos) {
+            long elapsed = Math.max(0, nowNanos - stampNanos);
+            return ewmaNanos * Math.exp(-elapsed / decayNanos);
+        }
+
+        Sample observe(long latencyNanos, long nowNanos, double decayNanos) {
+            double current = decayed(nowNanos, decayNanos);
+            // Пики принимаются сразу, снижение сглаживается
+            if (latencyNanos > current) {
+                return new Sample(latencyNanos, nowNanos);
+            }
+            double weight = Math.exp(-Math.max(0, nowNanos - stampNanos) / decayNanos);
+            return new Sample(ewmaNanos * weight + latencyNanos * (1 - weight), nowNanos);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.netflix.eureka.EurekaServiceInstance;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Статистика инстансов всех сервисов, ключ - serviceId и instanceId.
+ * Перерегистрированный инстанс (новый lastUpdatedTimestamp в Eureka или метаданные start-time)
+ * начинает со свежей статистикой и заново проходит slow start; инстансы, пропавшие из списка
+ * балансировщика, удаляются.
+ */
+public class InstanceStatsRegistry {
+
+    // Метка запуска инстанса для discovery без Eureka, например spring.cloud.discovery.client.simple
+    public static final String START_TIME_METADATA = "start-time";
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final double decayNanos;
+    private final long slowStartNanos;
+    private final LongSupplier nanoClock;
+
+    public InstanceStatsRegistry(Duration decayTime, Duration slowStart) {
+        this(decayTime, slowStart, System::nanoTime);
+    }
+
+    InstanceStatsRegistry(Duration decayTime, LongSupplier nanoClock) {
+        this(decayTime, Duration.ZERO, nanoClock);
+    }
+
+    InstanceStatsRegistry(Duration decayTime, Duration slowStart, LongSupplier nanoClock) {
+        this.decayNanos = decayTime.toNanos();
+        this.slowStartNanos = slowStart.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        String key = key(instance);
+        String generation = generation(instance);
+        InstanceStats current = stats.get(key);
+        if (current != null && Objects.equals(current.getGeneration(), generation)) {
+            return current;
+        }
+        return stats.compute(key, (k, existing) -> existing != null && Objects.equals(existing.getGeneration(), generation)
+                ? existing : new InstanceStats(decayNanos, nanoClock.getAsLong(), generation));
+    }
+
+    // Удаляет статистику инстансов сервиса, которых нет в текущем списке
+    public void retain(String serviceId, Collection<ServiceInstance> instances) {
+        Set<String> live = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            live.add(key(instance));
+        }
+        // Eureka отдает serviceId в верхнем регистре, балансировщик знает его в исходном
+        String prefix = serviceId + "/";
+        stats.keySet().removeIf(key -> key.regionMatches(true, 0, prefix, 0, prefix.length()) && !live.contains(key));
+    }
+
+    // Вес инстанса с учетом slow start; 1 - инстанс прогрет
+    public double weight(ServiceInstance instance, long nowNanos) {
+        return get(instance).weight(nowNanos, slowStartNanos);
+    }
+
+    public long now() {
+        return nanoClock.getAsLong();
+    }
+
+    int size() {
+        return stats.size();
+    }
+
+    static String generation(ServiceInstance instance) {
+        Map<String, String> metadata = instance.getMetadata();
+        if (metadata != null && metadata.get(START_TIME_METADATA) != null) {
+            return metadata.get(START_TIME_METADATA);
+        }
+        if (instance instanceof EurekaServiceInstance eureka) {
+            return String.valueOf(eureka.getInstanceInfo().getLastUpdatedTimestamp());
+        }
+        return null;
+    }
+
+    static String key(ServiceInstance instance) {
+        if (instance.getInstanceId() != null) {
+            return instance.getServiceId() + "/" + instance.getInstanceId();
+        }
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+}
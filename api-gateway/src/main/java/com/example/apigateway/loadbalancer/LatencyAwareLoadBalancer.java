@@ -0,0 +1,183 @@
+package com.example.apigateway.loadbalancer;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Балансировщик с учетом наблюдаемой задержки и запросов в полете.
+ * Стратегия берется из заголовка, выставленного фильтром маршрута LoadBalancerStrategy,
+ * иначе используется стратегия по умолчанию из gateway.load-balancer.strategy.
+ * Новый инстанс в течение gateway.load-balancer.slow-start получает постепенно растущую долю запросов.
+ * Статистика инстансов, пропавших из списка, удаляется при каждой смене списка.
+ * Выбор инстанса - отдельный span gateway.loadbalancer.choose внутри серверного span-а запроса.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Log log = LogFactory.getLog(LatencyAwareLoadBalancer.class);
+
+    public static final String OBSERVATION_NAME = "gateway.loadbalancer.choose";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+    private final LoadBalancingStrategy defaultStrategy;
+    private final ObservationRegistry observationRegistry;
+    private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+    // Кэширующий supplier отдает один и тот же список до обновления
+    private volatile List<ServiceInstance> knownInstances;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                    InstanceStatsRegistry registry, LoadBalancingStrategy defaultStrategy) {
+        this(supplierProvider, serviceId, registry, defaultStrategy, ObservationRegistry.NOOP);
+    }
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                    InstanceStatsRegistry registry, LoadBalancingStrategy defaultStrategy,
+                                    ObservationRegistry observationRegistry) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+        this.defaultStrategy = defaultStrategy;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        LoadBalancingStrategy strategy = resolveStrategy(request);
+        // Родитель - серверная observation запроса, WebFlux кладет ее в Reactor Context
+        return Mono.deferContextual(context -> {
+            Observation observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                    .parentObservation(context.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+                    .lowCardinalityKeyValue("service", serviceId)
+                    .lowCardinalityKeyValue("strategy", strategy.name())
+                    .start();
+            return supplier.get(request).next().map(instances -> {
+                        Response<ServiceInstance> response = choose(instances, strategy);
+                        if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                            callback.selectedServiceInstance(response.getServer());
+                        }
+                        observation.highCardinalityKeyValue("instance", response.hasServer()
+                                ? response.getServer().getHost() + ":" + response.getServer().getPort() : "none");
+                        return response;
+                    })
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances, LoadBalancingStrategy strategy) {
+        if (instances != knownInstances) {
+            knownInstances = instances;
+            registry.retain(serviceId, instances);
+        }
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: " + serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ServiceInstance chosen = switch (strategy) {
+            case ROUND_ROBIN -> roundRobin(instances);
+            case LEAST_REQUESTS -> leastRequests(instances);
+            case POWER_OF_TWO_CHOICES -> powerOfTwoChoices(instances);
+        };
+        return new DefaultResponse(chosen);
+    }
+
+    private ServiceInstance roundRobin(List<ServiceInstance> instances) {
+        long now = registry.now();
+        // Прогревающийся инстанс пропускается с вероятностью 1 - weight, его очередь достается следующему
+        ServiceInstance candidate = null;
+        for (int attempt = 0; attempt < instances.size(); attempt++) {
+            int pos = position.incrementAndGet() & Integer.MAX_VALUE;
+            candidate = instances.get(pos % instances.size());
+            double weight = registry.weight(candidate, now);
+            if (weight >= 1.0 || ThreadLocalRandom.current().nextDouble() < weight) {
+                return candidate;
+            }
+        }
+        return candidate;
+    }
+
+    private ServiceInstance leastRequests(List<ServiceInstance> instances) {
+        long now = registry.now();
+        // Старт со случайной позиции, чтобы при равенстве не выбирать всегда первый инстанс
+        int offset = ThreadLocalRandom.current().nextInt(instances.size());
+        ServiceInstance best = null;
+        double bestLoad = Double.MAX_VALUE;
+        double bestLatency = Double.MAX_VALUE;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance candidate = instances.get((offset + i) % instances.size());
+            InstanceStats stats = registry.get(candidate);
+            double load = (stats.getInFlight() + 1) / registry.weight(candidate, now);
+            double latency = stats.getLatencyNanos(now);
+            if (load < bestLoad || (load == bestLoad && latency < bestLatency)) {
+                best = candidate;
+                bestLoad = load;
+                bestLatency = latency;
+            }
+        }
+        return best;
+    }
+
+    private ServiceInstance powerOfTwoChoices(List<ServiceInstance> instances) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = registry.now();
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        InstanceStats statsA = registry.get(a);
+        InstanceStats statsB = registry.get(b);
+        // Инстанс без измерений считается таким же быстрым, как соперник, иначе новый инстанс
+        // с нулевой задержкой забирал бы все запросы до своего первого ответа
+        double latencyA = statsA.hasLatency() ? statsA.getLatencyNanos(now) : statsB.getLatencyNanos(now);
+        double latencyB = statsB.hasLatency() ? statsB.getLatencyNanos(now) : latencyA;
+        return cost(statsA, latencyA, registry.weight(a, now)) <= cost(statsB, latencyB, registry.weight(b, now)) ? a : b;
+    }
+
+    private static double cost(InstanceStats stats, double latencyNanos, double weight) {
+        return (stats.getInFlight() + 1) * (latencyNanos + 1) / weight;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private LoadBalancingStrategy resolveStrategy(Request request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null && context.getClientRequest().getHeaders() != null) {
+            String value = context.getClientRequest().getHeaders().getFirst(LoadBalancerStrategyGatewayFilterFactory.STRATEGY_HEADER);
+            if (value != null) {
+                try {
+                    return LoadBalancingStrategy.valueOf(value);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unknown load-balancing strategy '" + value + "' for service " + serviceId);
+                }
+            }
+        }
+        return defaultStrategy;
+    }
+}
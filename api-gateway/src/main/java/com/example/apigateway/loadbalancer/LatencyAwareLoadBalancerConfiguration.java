@@ -0,0 +1,29 @@
+package com.example.apigateway.loadbalancer;
+
+import com.example.apigateway.config.LoadBalancerStrategyProperties;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Конфигурация дочернего контекста LoadBalancer, намеренно без @Configuration:
+// подключается через @LoadBalancerClients(defaultConfiguration = ...) в LoadBalancerConfig
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStatsRegistry registry,
+                                                                         LoadBalancerStrategyProperties properties,
+                                                                         ObjectProvider<ObservationRegistry> observationRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, registry, properties.getStrategy(),
+                observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+
+import java.util.List;
+
+/**
+ * Выбор стратегии балансировки для конкретного маршрута:
+ * <pre>
+ * filters:
+ *   - LoadBalancerStrategy=LEAST_REQUESTS
+ * </pre>
+ * Стратегия передается балансировщику через служебный заголовок, который
+ * {@link LoadBalancerStrategyHeadersFilter} вырезает перед отправкой запроса в сервис.
+ */
+public class LoadBalancerStrategyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LoadBalancerStrategyGatewayFilterFactory.Config> {
+
+    public static final String STRATEGY_HEADER = "X-Gateway-LB-Strategy";
+
+    public LoadBalancerStrategyGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("strategy");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String strategy = config.getStrategy().name();
+        return (exchange, chain) -> chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> headers.set(STRATEGY_HEADER, strategy)))
+                .build());
+    }
+
+    public static class Config {
+        private LoadBalancingStrategy strategy = LoadBalancingStrategy.POWER_OF_TWO_CHOICES;
+
+        public LoadBalancingStrategy getStrategy() { return strategy; }
+        public void setStrategy(LoadBalancingStrategy strategy) { this.strategy = strategy; }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+public class LoadBalancerStrategyHeadersFilter implements HttpHeadersFilter {
+
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        if (!input.containsKey(LoadBalancerStrategyGatewayFilterFactory.STRATEGY_HEADER)) {
+            return input;
+        }
+        HttpHeaders filtered = new HttpHeaders();
+        input.forEach((name, values) -> {
+            if (!LoadBalancerStrategyGatewayFilterFactory.STRATEGY_HEADER.equalsIgnoreCase(name)) {
+                filtered.put(name, values);
+            }
+        });
+        return filtered;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.apigateway.loadbalancer;
+
+public enum LoadBalancingStrategy {
+    ROUND_ROBIN,
+    LEAST_REQUESTS,
+    POWER_OF_TWO_CHOICES
+}
@@ -0,0 +1,74 @@
+package com.example.apigateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Клиент определяется по адресу, с которого пришел запрос. X-Forwarded-For учитывается, только если
+ * запрос пришел от доверенного прокси: адреса заголовка разбираются справа налево, пока это доверенные прокси,
+ * и первый недоверенный считается клиентом. Значения, которые клиент выставляет сам (X-Client-Id,
+ * X-Forwarded-For в обход прокси), ключ не меняют - иначе лимит обходится сменой значения.
+ */
+public class ClientKeyResolver implements KeyResolver {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    // Только IP-литералы: имя хоста из заголовка не должно уходить в DNS
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final Set<InetAddress> trustedProxies;
+
+    public ClientKeyResolver(Collection<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(proxy -> {
+                    InetAddress address = parse(proxy);
+                    if (address == null) {
+                        throw new IllegalArgumentException("Trusted proxy must be an IP address: " + proxy);
+                    }
+                    return address;
+                })
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return Mono.empty();
+        }
+        InetAddress client = remoteAddress.getAddress();
+        if (trustedProxies.contains(client)) {
+            List<String> forwarded = exchange.getRequest().getHeaders().getValuesAsList(FORWARDED_FOR);
+            for (int i = forwarded.size() - 1; i >= 0 && trustedProxies.contains(client); i--) {
+                InetAddress hop = parse(forwarded.get(i));
+                if (hop == null) {
+                    break;
+                }
+                client = hop;
+            }
+        }
+        return Mono.just("ip:" + client.getHostAddress());
+    }
+
+    private static InetAddress parse(String value) {
+        String address = value.strip();
+        if (!IP_LITERAL.matcher(address).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.apigateway.ratelimit;
+
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory замена RedisRateLimiter для фильтра RequestRateLimiter.
+ * Ведро заводится на пару (маршрут, клиент); настройки маршрута берутся из аргументов фильтра
+ * с префиксом local-rate-limiter, иначе из gateway.rate-limiter.
+ * Лимит действует в пределах одного инстанса шлюза. Настройки проверяются при загрузке маршрута,
+ * а не на каждом запросе.
+ * Число ведер ограничено maxBuckets: полные ведра вычищаются не чаще раза в SWEEP_INTERVAL,
+ * а новые клиенты сверх лимита делят одно общее ведро маршрута, пока место не освободится.
+ */
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    // Полный проход по карте - O(n), поэтому не чаще раза в интервал, а не на каждом запросе
+    static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // Общие ведра маршрутов для клиентов, не поместившихся в buckets; их не больше числа маршрутов
+    private final Map<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt;
+    private final Config defaultConfig;
+    private final int maxBuckets;
+    private final LongSupplier nanoClock;
+
+    public LocalTokenBucketRateLimiter(ConfigurationService configurationService, Config defaultConfig, int maxBuckets) {
+        this(configurationService, defaultConfig, maxBuckets, System::nanoTime);
+    }
+
+    LocalTokenBucketRateLimiter(ConfigurationService configurationService, Config defaultConfig, int maxBuckets,
+                                LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        defaultConfig.validate("gateway.rate-limiter");
+        this.defaultConfig = defaultConfig;
+        this.maxBuckets = maxBuckets;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    // Аргументы фильтра маршрута привязываются здесь: неверные значения роняют загрузку маршрута
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        super.onApplicationEvent(event);
+        Config config = getConfig().get(event.getRouteId());
+        if (config != null) {
+            config.validate("route " + event.getRouteId());
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return Mono.just(decide(routeId, id));
+    }
+
+    Response decide(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.getReplenishRate();
+        long burst = interval * config.getBurstCapacity();
+        long now = nanoClock.getAsLong();
+
+        TokenBucket.Decision decision = bucket(routeId, id, now)
+                .tryConsume(now, config.getRequestedTokens(), interval, burst);
+        return new Response(decision.allowed(), headers(config, decision));
+    }
+
+    private TokenBucket bucket(String routeId, String id, long now) {
+        String bucketKey = routeId + ':' + id;
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            evictFullBuckets(now);
+        }
+        // Одновременные вставки могут превысить лимит не больше чем на число потоков
+        if (buckets.size() >= maxBuckets) {
+            return overflowBuckets.computeIfAbsent(routeId, key -> new TokenBucket());
+        }
+        return buckets.computeIfAbsent(bucketKey, key -> new TokenBucket());
+    }
+
+    // Полное ведро неотличимо от нового, поэтому его можно удалить без потери состояния.
+    // Проход выполняет один поток, выигравший CAS на nextSweepAt
+    private void evictFullBuckets(long now) {
+        long due = nextSweepAt.get();
+        if (now - due >= 0 && nextSweepAt.compareAndSet(due, now + SWEEP_INTERVAL)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+            overflowBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private Map<String, String> headers(Config config, TokenBucket.Decision decision) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(REMAINING_HEADER, Long.toString(decision.remaining()));
+        headers.put(REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+        if (!decision.allowed()) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999L));
+            headers.put(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+        return headers;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    public static class Config {
+        // Интервал между токенами - целые наносекунды: при большей частоте он стал бы нулем и лимит пропал бы
+        public static final int MAX_REPLENISH_RATE = 1_000_000_000;
+
+        // Токенов в секунду
+        private int replenishRate = 50;
+        // Размер ведра - допустимый всплеск
+        private int burstCapacity = 100;
+        // Стоимость одного запроса в токенах
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() { return replenishRate; }
+        public void setReplenishRate(int replenishRate) { this.replenishRate = replenishRate; }
+
+        public int getBurstCapacity() { return burstCapacity; }
+        public void setBurstCapacity(int burstCapacity) { this.burstCapacity = burstCapacity; }
+
+        public int getRequestedTokens() { return requestedTokens; }
+        public void setRequestedTokens(int requestedTokens) { this.requestedTokens = requestedTokens; }
+
+        void validate(String source) {
+            if (replenishRate < 1 || replenishRate > MAX_REPLENISH_RATE) {
+                throw new IllegalArgumentException("replenishRate must be in [1, " + MAX_REPLENISH_RATE + "] for "
+                        + source + ": " + replenishRate);
+            }
+            if (burstCapacity < 1 || requestedTokens < 1) {
+                throw new IllegalArgumentException("burstCapacity and requestedTokens must be positive for " + source
+                        + ": " + this);
+            }
+            // Запрос дороже всего ведра не пройдет никогда - маршрут отвечал бы 429 на все подряд
+            if (requestedTokens > burstCapacity) {
+                throw new IllegalArgumentException("requestedTokens must not exceed burstCapacity for " + source
+                        + ": " + this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity
+                    + ", requestedTokens=" + requestedTokens + '}';
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket в форме GCRA: все состояние - одно "теоретическое время прихода" (TAT) в AtomicLong,
+ * поэтому решение принимается одним CAS без блокировок и без аллокаций на состояние.
+ * Ведро полно, когда TAT <= now; каждый токен сдвигает TAT на интервал пополнения.
+ */
+class TokenBucket {
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    Decision tryConsume(long nowNanos, int tokens, long intervalNanos, long burstNanos) {
+        long increment = intervalNanos * tokens;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, nowNanos);
+            long next = base + increment;
+            if (next - nowNanos > burstNanos) {
+                long remaining = (burstNanos - (base - nowNanos)) / intervalNanos;
+                return new Decision(false, Math.max(0, remaining), next - nowNanos - burstNanos);
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return new Decision(true, (burstNanos - (next - nowNanos)) / intervalNanos, 0);
+            }
+        }
+    }
+
+    boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+
+    record Decision(boolean allowed, long remaining, long retryAfterNanos) {
+    }
+}
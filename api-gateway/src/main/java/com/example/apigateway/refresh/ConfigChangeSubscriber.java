@@ -0,0 +1,90 @@
+package com.example.apigateway.refresh;
+
+import com.example.apigateway.config.ConfigPushProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.Set;
+
+/**
+ * Подписка на поток изменений config-server (Server-Sent Events, GET /changes?application=...).
+ * Уведомления применяются по одному через {@link ConfigRefresher}; обрыв и штатное завершение
+ * потока ведут к переподключению через config.push.reconnect-delay, после которого
+ * конфигурация обновляется один раз.
+ */
+public class ConfigChangeSubscriber implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigChangeSubscriber.class);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<ConfigChangeNotification>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() { };
+
+    private static final String SUBSCRIBED = "subscribed";
+
+    private final ConfigPushProperties properties;
+    private final String application;
+    private final ConfigRefresher refresher;
+    private final WebClient webClient;
+
+    private volatile Disposable subscription;
+
+    public ConfigChangeSubscriber(ConfigPushProperties properties, String application,
+                                  ConfigRefresher refresher, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.application = application;
+        this.refresher = refresher;
+        this.webClient = webClientBuilder.baseUrl(properties.getServerUrl()).build();
+    }
+
+    @Override
+    public void start() {
+        subscription = webClient.get()
+                .uri(uri -> uri.path("/changes").queryParam("application", application).build())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE)
+                .doOnSubscribe(s -> log.info("Подписка на изменения конфигурации {}", properties.getServerUrl()))
+                .mapNotNull(this::toNotification)
+                .concatMap(notification -> Mono.fromCallable(() -> refresher.refresh(notification))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .doOnError(e -> log.debug("Поток изменений конфигурации прерван: {}", e.toString()))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, properties.getReconnectDelay()))
+                .repeatWhen(completed -> completed.delayElements(properties.getReconnectDelay()))
+                .subscribe();
+    }
+
+    // Первое событие потока - комментарий subscribed: изменения, пропущенные без подписки,
+    // забираются одним обновлением
+    private ConfigChangeNotification toNotification(ServerSentEvent<ConfigChangeNotification> event) {
+        if (event.data() != null) {
+            return event.data();
+        }
+        if (SUBSCRIBED.equals(event.comment())) {
+            return new ConfigChangeNotification(application, null, null, Set.of(), null);
+        }
+        return null;
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+}
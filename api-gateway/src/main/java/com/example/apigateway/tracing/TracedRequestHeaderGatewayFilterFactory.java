@@ -0,0 +1,49 @@
+package com.example.apigateway.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractNameValueGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Как AddRequestHeader, но к значению дописывается контекст трассировки шлюза в формате W3C:
+ * <pre>
+ * filters:
+ *   - TracedRequestHeader=X-Gateway-Request, user-service
+ * </pre>
+ * дает {@code X-Gateway-Request: user-service;traceparent=00-<trace-id>-<span-id>-01}, где span-id -
+ * серверный span шлюза. Стандартный traceparent с клиентским span-ом выставляет сам Spring Cloud Gateway.
+ */
+public class TracedRequestHeaderGatewayFilterFactory extends AbstractNameValueGatewayFilterFactory {
+
+    @Override
+    public GatewayFilter apply(NameValueConfig config) {
+        return (exchange, chain) -> {
+            String value = ServerWebExchangeUtils.expand(exchange, config.getValue());
+            String traceParent = traceParent(exchange);
+            String header = traceParent == null ? value : value + ";traceparent=" + traceParent;
+            return chain.filter(exchange.mutate()
+                    .request(request -> request.headers(headers -> headers.set(config.getName(), header)))
+                    .build());
+        };
+    }
+
+    static String traceParent(ServerWebExchange exchange) {
+        return ServerRequestObservationContext.findCurrent(exchange.getAttributes())
+                .map(context -> context.<TracingObservationHandler.TracingContext>get(TracingObservationHandler.TracingContext.class))
+                .map(TracingObservationHandler.TracingContext::getSpan)
+                .filter(span -> !span.isNoop())
+                .map(Span::context)
+                .map(TracedRequestHeaderGatewayFilterFactory::format)
+                .orElse(null);
+    }
+
+    private static String format(TraceContext context) {
+        return "00-" + context.traceId() + "-" + context.spanId() + "-"
+                + (Boolean.TRUE.equals(context.sampled()) ? "01" : "00");
+    }
+}
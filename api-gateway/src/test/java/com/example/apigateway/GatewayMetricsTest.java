@@ -0,0 +1,89 @@
+package com.example.apigateway;
+
+import com.example.apigateway.discovery.MeteredEurekaRequestFactorySupplier;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.netflix.eureka.http.EurekaClientHttpRequestFactorySupplier;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "eureka.client.enabled=false")
+@AutoConfigureObservability(tracing = false)
+class GatewayMetricsTest {
+
+    private static final HttpServer userService = stub();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private EurekaClientHttpRequestFactorySupplier eurekaRequestFactorySupplier;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.user-service[0].uri",
+                () -> "http://localhost:" + userService.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        userService.stop(0);
+    }
+
+    @Test
+    void shouldExposeRouteLatencyHistogramWithSloBuckets() {
+        WebTestClient client = webTestClient.mutate().responseTimeout(Duration.ofSeconds(5)).build();
+        client.get().uri("/api/users/1").exchange().expectStatus().isOk();
+
+        String scrape = client.get().uri("/actuator/prometheus").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(scrape).containsPattern(
+                        "spring_cloud_gateway_requests_seconds_bucket\\{[^}]*routeId=\"user-service\"[^}]*le=\"0\\.25\"")
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*le=\"0\\.1\"")
+                .contains("application=\"api-gateway\"")
+                .contains("jvm_gc_memory_allocated_bytes_total")
+                .contains("eureka_client_registry_propagation_seconds_count")
+                .contains("gateway_instance_first_request_delay_seconds_count");
+    }
+
+    @Test
+    void shouldMeterEurekaRegistryFetches() {
+        assertThat(eurekaRequestFactorySupplier).isInstanceOf(MeteredEurekaRequestFactorySupplier.class);
+    }
+
+    private static HttpServer stub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", exchange -> {
+                byte[] bytes = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
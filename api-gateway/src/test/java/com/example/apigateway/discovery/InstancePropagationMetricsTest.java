@@ -0,0 +1,134 @@
+package com.example.apigateway.discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.netflix.eureka.EurekaServiceInstance;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstancePropagationMetricsTest {
+
+    private static final long GATEWAY_STARTED_AT = 100_000;
+
+    private final AtomicLong clock = new AtomicLong(GATEWAY_STARTED_AT);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Application application = new Application("USER-SERVICE");
+    private InstancePropagationMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        Applications applications = new Applications();
+        applications.addApplication(application);
+        EurekaClient eurekaClient = mock(EurekaClient.class);
+        when(eurekaClient.getApplications()).thenReturn(applications);
+        metrics = new InstancePropagationMetrics(
+                new StaticListableBeanFactory(Map.of("eurekaClient", eurekaClient)).getBeanProvider(EurekaClient.class),
+                meterRegistry, clock::get);
+    }
+
+    @Test
+    void shouldRecordPropagationOncePerNewInstance() {
+        InstanceInfo fresh = instance("fresh", GATEWAY_STARTED_AT + 5_000);
+        application.addInstance(fresh);
+
+        clock.set(GATEWAY_STARTED_AT + 6_500);
+        refreshRegistry();
+        clock.addAndGet(1_000);
+        refreshRegistry();
+
+        assertThat(propagation().count()).isEqualTo(1);
+        assertThat(propagation().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(1_500);
+        assertThat(meterRegistry.get("eureka.client.registry.instances").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordFirstRequestOncePerNewInstance() {
+        InstanceInfo fresh = instance("fresh", GATEWAY_STARTED_AT + 5_000);
+        application.addInstance(fresh);
+        refreshRegistry();
+
+        clock.set(GATEWAY_STARTED_AT + 8_000);
+        route(fresh);
+        clock.addAndGet(1_000);
+        route(fresh);
+
+        assertThat(firstRequest().count()).isEqualTo(1);
+        assertThat(firstRequest().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3_000);
+    }
+
+    @Test
+    void shouldSkipInstancesUpBeforeGatewayStarted() {
+        InstanceInfo old = instance("old", GATEWAY_STARTED_AT - 60_000);
+        application.addInstance(old);
+
+        clock.addAndGet(2_000);
+        refreshRegistry();
+        route(old);
+
+        assertThat(propagation().count()).isZero();
+        assertThat(firstRequest().count()).isZero();
+        assertThat(meterRegistry.get("eureka.client.registry.instances").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIgnoreInstancesUntilTheyAreUpAndMeasureFromUpTimestamp() {
+        InstanceInfo starting = instance("starting", GATEWAY_STARTED_AT + 1_000);
+        starting.setStatus(InstanceInfo.InstanceStatus.STARTING);
+        application.addInstance(starting);
+
+        clock.set(GATEWAY_STARTED_AT + 2_000);
+        refreshRegistry();
+        assertThat(propagation().count()).isZero();
+
+        InstanceInfo up = instance("starting", GATEWAY_STARTED_AT + 3_000);
+        application.addInstance(up);
+        clock.set(GATEWAY_STARTED_AT + 3_400);
+        refreshRegistry();
+
+        assertThat(propagation().count()).isEqualTo(1);
+        assertThat(propagation().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(400);
+    }
+
+    private void refreshRegistry() {
+        metrics.onApplicationEvent(new HeartbeatEvent(this, clock.get()));
+    }
+
+    private void route(InstanceInfo instance) {
+        metrics.onStartRequest(new DefaultRequest<>(), new DefaultResponse(new EurekaServiceInstance(instance)));
+    }
+
+    private Timer propagation() {
+        return meterRegistry.get("eureka.client.registry.propagation").timer();
+    }
+
+    private Timer firstRequest() {
+        return meterRegistry.get("gateway.instance.first-request.delay").timer();
+    }
+
+    private static InstanceInfo instance(String id, long upTimestamp) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName("USER-SERVICE")
+                .setInstanceId(id)
+                .setHostName(id + ".local")
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder().setServiceUpTimestamp(upTimestamp).build())
+                .build();
+    }
+}
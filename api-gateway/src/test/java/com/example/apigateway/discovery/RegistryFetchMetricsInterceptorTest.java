@@ -0,0 +1,77 @@
+package com.example.apigateway.discovery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistryFetchMetricsInterceptorTest {
+
+    private static final String REGISTRY = "{\"applications\":{\"versions__delta\":\"1\",\"application\":[]}}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldMeasureFullAndDeltaFetches() {
+        RestTemplate eureka = eurekaRestTemplate(false);
+
+        eureka.getForObject("http://eureka:8761/eureka/apps/", String.class);
+        eureka.getForObject("http://eureka:8761/eureka/apps/delta", String.class);
+        eureka.getForObject("http://eureka:8761/eureka/apps/delta", String.class);
+
+        assertThat(meterRegistry.get("eureka.client.registry.fetch").tag("type", "full").tag("status", "200")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("eureka.client.registry.fetch").tag("type", "delta").tag("status", "200")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("eureka.client.registry.fetch.size").tag("type", "delta").summary().totalAmount())
+                .isEqualTo(2.0 * REGISTRY.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void shouldIgnoreRequestsOtherThanRegistryFetches() {
+        RestTemplate eureka = eurekaRestTemplate(false);
+
+        eureka.put("http://eureka:8761/eureka/apps/USER-SERVICE/user-1", null);
+        eureka.getForObject("http://eureka:8761/eureka/apps/USER-SERVICE", String.class);
+
+        assertThat(meterRegistry.find("eureka.client.registry.fetch").timers()).isEmpty();
+        assertThat(meterRegistry.find("eureka.client.registry.fetch.size").summaries()).isEmpty();
+    }
+
+    @Test
+    void shouldTagFailedFetchesAsIoError() {
+        RestTemplate eureka = eurekaRestTemplate(true);
+
+        assertThatThrownBy(() -> eureka.getForObject("http://eureka:8761/eureka/apps/delta", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(meterRegistry.get("eureka.client.registry.fetch").tag("type", "delta").tag("status", "IO_ERROR")
+                .timer().count()).isEqualTo(1);
+    }
+
+    // RestTemplate поверх фабрики, которую получает Eureka client, с подставным сервером вместо HTTP
+    private RestTemplate eurekaRestTemplate(boolean unreachable) {
+        MeteredEurekaRequestFactorySupplier supplier = new MeteredEurekaRequestFactorySupplier(
+                (sslContext, hostnameVerifier) -> (uri, method) -> new MockClientHttpRequest(method, uri) {
+                    @Override
+                    protected ClientHttpResponse executeInternal() throws IOException {
+                        if (unreachable) {
+                            throw new IOException("Connection refused");
+                        }
+                        return new MockClientHttpResponse(REGISTRY.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+                    }
+                },
+                new RegistryFetchMetricsInterceptor(meterRegistry));
+        return new RestTemplate(supplier.get(null, null));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.apigateway.fallback;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "eureka.client.enabled=false")
+class StaleCacheFallbackTest {
+
+    // Статус, который отдает заглушка сервиса; тело - путь запроса
+    private static final AtomicInteger upstreamStatus = new AtomicInteger(200);
+    private static final HttpServer upstream = stub();
+
+    // Больше max-body-size по умолчанию (256 КБ)
+    private static final int LARGE_BODY = 300 * 1024;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.cached-service[0].uri",
+                () -> "http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @TestConfiguration
+    static class Routes {
+
+        @Bean
+        RouteLocator cachedRoutes(RouteLocatorBuilder builder, StaleCacheGatewayFilterFactory staleCache) {
+            return builder.routes()
+                    .route("cached", r -> r.path("/cached/**")
+                            .filters(f -> f
+                                    .circuitBreaker(c -> c.setName("cached-service")
+                                            .setFallbackUri("forward:/userFallback")
+                                            .setStatusCodes(Set.of("503")))
+                                    .filter(staleCache.apply(c -> { })))
+                            .uri("lb://cached-service"))
+                    .build();
+        }
+    }
+
+    @AfterAll
+    static void stopStub() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void shouldServeStaleResponseWhenServiceFails() {
+        upstreamStatus.set(200);
+        webTestClient.get().uri("/cached/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(FallbackController.CACHE_STATUS_HEADER)
+                .expectBody(String.class).isEqualTo("/cached/1");
+
+        upstreamStatus.set(503);
+        webTestClient.get().uri("/cached/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(FallbackController.CACHE_STATUS_HEADER, "STALE")
+                .expectHeader().exists(HttpHeaders.WARNING)
+                .expectHeader().valueEquals(HttpHeaders.AGE, "0")
+                .expectBody(String.class).isEqualTo("/cached/1");
+    }
+
+    @Test
+    void shouldAnswerUnavailableWithoutCachedResponse() {
+        upstreamStatus.set(503);
+        webTestClient.get().uri("/cached/never-seen")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(FallbackController.CACHE_STATUS_HEADER, "MISS")
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+    }
+
+    @Test
+    void shouldCacheChunkedResponsesOnlyUpToMaxBodySize() {
+        upstreamStatus.set(200);
+        webTestClient.get().uri("/cached/chunked/small").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("/cached/chunked/small");
+        webTestClient.mutate().codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(2 * LARGE_BODY)).build()
+                .get().uri("/cached/chunked/large").exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).value(body -> assertThat(body).hasSize(LARGE_BODY));
+
+        upstreamStatus.set(503);
+        webTestClient.get().uri("/cached/chunked/small").exchange()
+                .expectHeader().valueEquals(FallbackController.CACHE_STATUS_HEADER, "STALE")
+                .expectBody(String.class).isEqualTo("/cached/chunked/small");
+        webTestClient.get().uri("/cached/chunked/large").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(FallbackController.CACHE_STATUS_HEADER, "MISS");
+    }
+
+    @Test
+    void shouldNotServeCachedResponseForOtherMethods() {
+        upstreamStatus.set(200);
+        webTestClient.get().uri("/cached/2").exchange().expectStatus().isOk();
+
+        upstreamStatus.set(503);
+        webTestClient.delete().uri("/cached/2")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(FallbackController.CACHE_STATUS_HEADER, "MISS");
+    }
+
+    private static HttpServer stub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                String path = exchange.getRequestURI().getPath();
+                byte[] bytes = path.endsWith("/large") ? new byte[LARGE_BODY] : path.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                // /chunked/... - без Content-Length
+                exchange.sendResponseHeaders(upstreamStatus.get(), path.contains("/chunked/") ? 0 : bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
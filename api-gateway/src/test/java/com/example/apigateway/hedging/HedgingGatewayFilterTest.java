@@ -0,0 +1,201 @@
+package com.example.apigateway.hedging;
+
+import com.example.apigateway.loadbalancer.LoadBalancerStrategyGatewayFilterFactory;
+import com.example.apigateway.loadbalancer.LoadBalancingStrategy;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
+// Без slow start round-robin строго чередует инстансы
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.load-balancer.slow-start=0s"
+})
+class HedgingGatewayFilterTest {
+
+    private static final AtomicInteger slowCalls = new AtomicInteger();
+    private static final AtomicInteger fastCalls = new AtomicInteger();
+    private static final AtomicInteger failingCalls = new AtomicInteger();
+
+    // Один инстанс зависает на 2 секунды, второй отвечает сразу, третий всегда отдает 503
+    private static final HttpServer slow = stub(2000, 200, "slow", slowCalls);
+    private static final HttpServer fast = stub(0, 200, "fast", fastCalls);
+    private static final HttpServer failing = stub(0, 503, "failing", failingCalls);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.stalling-service[0].uri", () -> uri(slow));
+        registry.add("spring.cloud.discovery.client.simple.instances.stalling-service[1].uri", () -> uri(fast));
+        registry.add("spring.cloud.discovery.client.simple.instances.flaky-service[0].uri", () -> uri(failing));
+        registry.add("spring.cloud.discovery.client.simple.instances.flaky-service[1].uri", () -> uri(fast));
+        registry.add("spring.cloud.discovery.client.simple.instances.timing-out-service[0].uri", () -> uri(slow));
+        registry.add("spring.cloud.discovery.client.simple.instances.timing-out-service[1].uri", () -> uri(fast));
+    }
+
+    @TestConfiguration
+    static class Routes {
+
+        // Round-robin, чтобы половина запросов гарантированно попадала на проблемный инстанс
+        @Bean
+        RouteLocator hedgedRoutes(RouteLocatorBuilder builder,
+                                  LoadBalancerStrategyGatewayFilterFactory strategy,
+                                  HedgingGatewayFilterFactory hedging) {
+            return builder.routes()
+                    .route("stalling", r -> r.path("/stalling/**")
+                            .filters(f -> f
+                                    .filter(strategy.apply(c -> c.setStrategy(LoadBalancingStrategy.ROUND_ROBIN)))
+                                    .filter(hedging.apply(c -> c.setInitialDelay(Duration.ofMillis(100))))
+                                    .addResponseHeader("X-Gateway-Response", "processed"))
+                            .uri("lb://stalling-service"))
+                    .route("flaky", r -> r.path("/flaky/**")
+                            .filters(f -> f
+                                    .filter(strategy.apply(c -> c.setStrategy(LoadBalancingStrategy.ROUND_ROBIN)))
+                                    .filter(hedging.apply(c -> c.setInitialDelay(Duration.ofSeconds(5)))))
+                            .uri("lb://flaky-service"))
+                    .route("timing-out", r -> r.path("/timing-out/**")
+                            .filters(f -> f
+                                    .filter(strategy.apply(c -> c.setStrategy(LoadBalancingStrategy.ROUND_ROBIN)))
+                                    .filter(hedging.apply(c -> c.setInitialDelay(Duration.ofSeconds(1)))))
+                            .metadata(RESPONSE_TIMEOUT_ATTR, 300)
+                            .uri("lb://timing-out-service"))
+                    .build();
+        }
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        slow.stop(0);
+        fast.stop(0);
+        failing.stop(0);
+    }
+
+    @Test
+    void shouldAnswerFromFastInstanceWhenPrimaryStalls() {
+        int slowBefore = slowCalls.get();
+
+        for (int i = 0; i < 6; i++) {
+            long start = System.nanoTime();
+            String body = client().get().uri("/stalling/{id}", i)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("X-Gateway-Response", "processed")
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseBody();
+
+            assertThat(body).isEqualTo("fast");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+        }
+        assertThat(slowCalls.get() - slowBefore).isPositive();
+    }
+
+    @Test
+    void shouldRetryServerErrorOnAnotherInstance() {
+        int failingBefore = failingCalls.get();
+
+        for (int i = 0; i < 4; i++) {
+            client().get().uri("/flaky/{id}", i)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).isEqualTo("fast");
+        }
+        assertThat(failingCalls.get() - failingBefore).isPositive();
+    }
+
+    // Таймаут ответа маршрута завершает запрос 504 и отменяет hedge, не дожидаясь его
+    @Test
+    void shouldApplyRouteResponseTimeoutAndCancelHedge() {
+        int fastBefore = fastCalls.get();
+        List<Integer> statuses = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            statuses.add(client().get().uri("/timing-out/{id}", i)
+                    .exchange()
+                    .returnResult(String.class)
+                    .getStatus()
+                    .value());
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(900));
+        }
+
+        assertThat(statuses).containsOnly(HttpStatus.OK.value(), HttpStatus.GATEWAY_TIMEOUT.value());
+        assertThat(statuses).contains(HttpStatus.GATEWAY_TIMEOUT.value());
+        // Быстрый инстанс получил только свои запросы, hedge ни разу не ушел
+        assertThat(fastCalls.get() - fastBefore).isEqualTo((int) statuses.stream().filter(s -> s == 200).count());
+    }
+
+    @Test
+    void shouldNotHedgeNonIdempotentRequests() {
+        int slowBefore = slowCalls.get();
+        int fastBefore = fastCalls.get();
+
+        client().post().uri("/stalling/1")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(slowCalls.get() - slowBefore + fastCalls.get() - fastBefore).isEqualTo(1);
+    }
+
+    private WebTestClient client() {
+        return webTestClient.mutate().responseTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    private static String uri(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static HttpServer stub(long delayMillis, int status, String body, AtomicInteger calls) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", exchange -> {
+                calls.incrementAndGet();
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                try {
+                    exchange.sendResponseHeaders(status, bytes.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(bytes);
+                    }
+                } catch (IOException e) {
+                    // проигравшая попытка уже отменена шлюзом
+                }
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
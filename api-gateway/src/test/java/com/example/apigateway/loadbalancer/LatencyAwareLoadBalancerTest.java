@@ -0,0 +1,251 @@
+package com.example.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final ServiceInstance fast1 = instance("fast-1", 8081);
+    private final ServiceInstance fast2 = instance("fast-2", 8082);
+    private final ServiceInstance slow = instance("slow", 8083);
+    private final ServiceInstance fresh = instance("fresh", 8084);
+    private final List<ServiceInstance> instances = List.of(fast1, fast2, slow);
+    private final Map<ServiceInstance, Long> latencies = Map.of(fast1, 10 * MS, fast2, 10 * MS, slow, 200 * MS,
+            fresh, 10 * MS);
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(Duration.ofSeconds(10), clock::get);
+    private final InstanceStatsLifecycle lifecycle = new InstanceStatsLifecycle(registry, Duration.ofMillis(500));
+
+    @Test
+    void roundRobinSpreadsEvenlyRegardlessOfLatency() {
+        Map<ServiceInstance, Integer> picks = simulate(LoadBalancingStrategy.ROUND_ROBIN, 3000);
+
+        assertThat(share(picks, slow)).isBetween(0.30, 0.36);
+    }
+
+    @Test
+    void powerOfTwoChoicesAvoidsSlowInstance() {
+        Map<ServiceInstance, Integer> picks = simulate(LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 3000);
+
+        assertThat(share(picks, slow)).isLessThan(0.10);
+    }
+
+    @Test
+    void leastRequestsAvoidsSlowInstance() {
+        Map<ServiceInstance, Integer> picks = simulate(LoadBalancingStrategy.LEAST_REQUESTS, 3000);
+
+        assertThat(share(picks, slow)).isLessThan(0.10);
+    }
+
+    @Test
+    void slowInstanceRecoversAfterDecay() {
+        simulate(LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 1000);
+        assertThat(registry.get(slow).getLatencyNanos(clock.get())).isGreaterThan(50 * MS);
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertThat(registry.get(slow).getLatencyNanos(clock.get())).isLessThan(1 * MS);
+    }
+
+    @Test
+    void failedResponseIsPenalized() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(LoadBalancingStrategy.POWER_OF_TWO_CHOICES);
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = loadBalancer.choose(List.of(fast1), LoadBalancingStrategy.POWER_OF_TWO_CHOICES);
+
+        lifecycle.onStartRequest(request, response);
+        assertThat(registry.get(fast1).getInFlight()).isEqualTo(1);
+
+        clock.addAndGet(MS);
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+                new RuntimeException("connection refused"), request, response));
+
+        assertThat(registry.get(fast1).getInFlight()).isZero();
+        assertThat(registry.get(fast1).getLatencyNanos(clock.get())).isGreaterThanOrEqualTo(400.0 * MS);
+    }
+
+    @Test
+    void routeStrategyHeaderOverridesDefault() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(LoadBalancingStrategy.POWER_OF_TWO_CHOICES);
+        // slow выглядит самым быстрым, но у него больше запросов в полете
+        registry.get(fast1).requestStarted();
+        registry.get(fast2).requestStarted();
+        registry.get(slow).requestFinished(1, clock.get());
+        registry.get(fast1).requestFinished(100 * MS, clock.get());
+        registry.get(fast2).requestFinished(100 * MS, clock.get());
+        for (int i = 0; i < 3; i++) {
+            registry.get(slow).requestStarted();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(LoadBalancerStrategyGatewayFilterFactory.STRATEGY_HEADER, LoadBalancingStrategy.LEAST_REQUESTS.name());
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://user-service/api/users"),
+                headers, new LinkedMultiValueMap<>(), new HashMap<>());
+
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(requestData))).block();
+
+        assertThat(response).isNotNull();
+        assertThat(response.getServer()).isNotEqualTo(slow);
+    }
+
+    @Test
+    void newInstanceRampsUpDuringSlowStart() {
+        InstanceStatsRegistry slowStartRegistry = new InstanceStatsRegistry(Duration.ofSeconds(10), Duration.ofSeconds(30), clock::get);
+        InstanceStatsLifecycle slowStartLifecycle = new InstanceStatsLifecycle(slowStartRegistry, Duration.ofMillis(500));
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(LoadBalancingStrategy.POWER_OF_TWO_CHOICES, slowStartRegistry);
+        List<ServiceInstance> scaledOut = List.of(fast1, fast2, fresh);
+        simulate(loadBalancer, slowStartLifecycle, List.of(fast1, fast2), LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 1000);
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Первые 2 секунды после появления: вес нового инстанса не больше 0.07
+        Map<ServiceInstance, Integer> early = simulate(loadBalancer, slowStartLifecycle, scaledOut,
+                LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 1000);
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        Map<ServiceInstance, Integer> warm = simulate(loadBalancer, slowStartLifecycle, scaledOut,
+                LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 3000);
+
+        assertThat(share(early, fresh)).isLessThan(0.10);
+        assertThat(share(warm, fresh)).isGreaterThan(0.25);
+    }
+
+    @Test
+    void roundRobinSkipsWarmingInstance() {
+        InstanceStatsRegistry slowStartRegistry = new InstanceStatsRegistry(Duration.ofSeconds(10), Duration.ofSeconds(30), clock::get);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(LoadBalancingStrategy.ROUND_ROBIN, slowStartRegistry);
+        slowStartRegistry.get(fast1);
+        slowStartRegistry.get(fast2);
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        Map<ServiceInstance, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            picks.merge(loadBalancer.choose(List.of(fast1, fast2, fresh), LoadBalancingStrategy.ROUND_ROBIN).getServer(),
+                    1, Integer::sum);
+        }
+
+        assertThat(share(picks, fresh)).isLessThan(0.05);
+        assertThat(share(picks, fast1)).isBetween(0.45, 0.55);
+    }
+
+    @Test
+    void reregisteredInstanceStartsWithFreshStats() {
+        InstanceStatsRegistry slowStartRegistry = new InstanceStatsRegistry(Duration.ofSeconds(10), Duration.ofSeconds(30), clock::get);
+        ServiceInstance before = instance("restarted", 8085, "1000");
+        slowStartRegistry.get(before).requestFinished(200 * MS, clock.get());
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        ServiceInstance after = instance("restarted", 8085, "2000");
+
+        assertThat(slowStartRegistry.get(before).hasLatency()).isTrue();
+        assertThat(slowStartRegistry.get(after).hasLatency()).isFalse();
+        assertThat(slowStartRegistry.weight(after, clock.get())).isLessThan(0.10);
+    }
+
+    @Test
+    void evictsStatsOfInstancesMissingFromList() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(LoadBalancingStrategy.ROUND_ROBIN);
+        registry.get(new DefaultServiceInstance("other", "order-service", "localhost", 9090, false));
+        loadBalancer.choose(instances, LoadBalancingStrategy.ROUND_ROBIN);
+        instances.forEach(registry::get);
+
+        loadBalancer.choose(List.of(fast1, fast2), LoadBalancingStrategy.ROUND_ROBIN);
+
+        // slow удален, fast-1, fast-2 и инстанс другого сервиса остались
+        assertThat(registry.size()).isEqualTo(3);
+    }
+
+    // Дискретная симуляция: запрос приходит каждые 2 мс и завершается через latency выбранного инстанса
+    private Map<ServiceInstance, Integer> simulate(LoadBalancingStrategy strategy, int requests) {
+        return simulate(loadBalancer(strategy), lifecycle, instances, strategy, requests);
+    }
+
+    private Map<ServiceInstance, Integer> simulate(LatencyAwareLoadBalancer loadBalancer, InstanceStatsLifecycle lifecycle,
+                                                   List<ServiceInstance> instances, LoadBalancingStrategy strategy,
+                                                   int requests) {
+        PriorityQueue<Completion> pending = new PriorityQueue<>((a, b) -> Long.compare(a.at, b.at));
+        Map<ServiceInstance, Integer> picks = new HashMap<>();
+
+        for (int i = 0; i < requests; i++) {
+            clock.addAndGet(2 * MS);
+            while (!pending.isEmpty() && pending.peek().at <= clock.get()) {
+                Completion completion = pending.poll();
+                long now = clock.get();
+                clock.set(completion.at);
+                lifecycle.onComplete(new CompletionContext<ResponseData, ServiceInstance, RequestDataContext>(
+                        CompletionContext.Status.SUCCESS, completion.request, completion.response));
+                clock.set(now);
+            }
+
+            Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+            Response<ServiceInstance> response = loadBalancer.choose(instances, strategy);
+            lifecycle.onStartRequest(request, response);
+            picks.merge(response.getServer(), 1, Integer::sum);
+            pending.add(new Completion(clock.get() + latencies.get(response.getServer()), request, response));
+        }
+        return picks;
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(LoadBalancingStrategy strategy) {
+        return loadBalancer(strategy, registry);
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(LoadBalancingStrategy strategy, InstanceStatsRegistry registry) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "user-service";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("supplier", supplier));
+        return new LatencyAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "user-service", registry, strategy);
+    }
+
+    private static double share(Map<ServiceInstance, Integer> picks, ServiceInstance instance) {
+        int total = picks.values().stream().mapToInt(Integer::intValue).sum();
+        return (double) picks.getOrDefault(instance, 0) / total;
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "user-service", "localhost", port, false);
+    }
+
+    private static ServiceInstance instance(String id, int port, String startTime) {
+        return new DefaultServiceInstance(id, "user-service", "localhost", port, false,
+                Map.of(InstanceStatsRegistry.START_TIME_METADATA, startTime));
+    }
+
+    private record Completion(long at, Request<RequestDataContext> request, Response<ServiceInstance> response) {
+    }
+}
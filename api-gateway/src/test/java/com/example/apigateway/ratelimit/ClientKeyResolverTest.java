@@ -0,0 +1,45 @@
+package com.example.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientKeyResolverTest {
+
+    private final ClientKeyResolver resolver = new ClientKeyResolver(List.of("10.0.0.1", "10.0.0.2"));
+
+    @Test
+    void shouldIgnoreClientSuppliedHeaders() {
+        MockServerWebExchange exchange = exchange("203.0.113.7", "X-Client-Id", "someone-else");
+        MockServerWebExchange forwarded = exchange("203.0.113.7", "X-Forwarded-For", "198.51.100.1");
+
+        assertThat(resolver.resolve(exchange).block()).isEqualTo("ip:203.0.113.7");
+        assertThat(resolver.resolve(forwarded).block()).isEqualTo("ip:203.0.113.7");
+    }
+
+    @Test
+    void shouldTakeClientFromForwardedForBehindTrustedProxies() {
+        // Клиент подставил свой адрес в начало, доверенные прокси дописали реальный
+        MockServerWebExchange exchange = exchange("10.0.0.1", "X-Forwarded-For", "1.1.1.1, 198.51.100.1, 10.0.0.2");
+
+        assertThat(resolver.resolve(exchange).block()).isEqualTo("ip:198.51.100.1");
+    }
+
+    @Test
+    void shouldStopAtUnparsableForwardedAddress() {
+        MockServerWebExchange exchange = exchange("10.0.0.1", "X-Forwarded-For", "198.51.100.1, unknown");
+
+        assertThat(resolver.resolve(exchange).block()).isEqualTo("ip:10.0.0.1");
+    }
+
+    private static MockServerWebExchange exchange(String remoteAddress, String header, String value) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .remoteAddress(new InetSocketAddress(remoteAddress, 40000))
+                .header(header, value));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Стоимость решения лимитера под конкуренцией. Не входит в обычный прогон тестов:
+ * mvn test -Pbenchmark
+ */
+class LocalTokenBucketRateLimiterBenchmark {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    @Test
+    void singleHotKey() throws Exception {
+        run("single hot key", 1);
+    }
+
+    @Test
+    void manyClients() throws Exception {
+        run("10k clients", 10_000);
+    }
+
+    private void run(String name, int clients) throws Exception {
+        LocalTokenBucketRateLimiter limiter = limiter();
+        // прогрев JIT
+        measure(limiter, clients, TimeUnit.SECONDS.toNanos(1));
+
+        LongAdder decisions = measure(limiter, clients, DURATION_NANOS);
+
+        double perSecond = decisions.sum() / (DURATION_NANOS / 1e9);
+        double nanosPerDecision = (double) DURATION_NANOS * THREADS / decisions.sum();
+        System.out.printf("%-16s threads=%d  %,.0f decisions/s  %.1f ns/decision per thread%n",
+                name, THREADS, perSecond, nanosPerDecision);
+    }
+
+    private LongAdder measure(LocalTokenBucketRateLimiter limiter, int clients, long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder decisions = new LongAdder();
+        String[] keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "client:" + i;
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                start.await();
+                long deadline = System.nanoTime() + durationNanos;
+                int i = offset;
+                long local = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int batch = 0; batch < 256; batch++) {
+                        limiter.decide("user-service", keys[i++ % clients]);
+                    }
+                    local += 256;
+                }
+                decisions.add(local);
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(durationNanos * 2, TimeUnit.NANOSECONDS);
+        return decisions;
+    }
+
+    private static LocalTokenBucketRateLimiter limiter() {
+        LocalTokenBucketRateLimiter.Config config = new LocalTokenBucketRateLimiter.Config();
+        config.setReplenishRate(1_000);
+        config.setBurstCapacity(2_000);
+        return new LocalTokenBucketRateLimiter(null, config, 100_000);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalTokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void shouldAllowBurstThenReject() {
+        LocalTokenBucketRateLimiter limiter = limiter(10, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.decide("user-service", "client:a").isAllowed()).isTrue();
+        }
+        RateLimiter.Response rejected = limiter.decide("user-service", "client:a");
+
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getHeaders())
+                .containsEntry(LocalTokenBucketRateLimiter.REMAINING_HEADER, "0")
+                .containsEntry(LocalTokenBucketRateLimiter.REPLENISH_RATE_HEADER, "10")
+                .containsEntry(LocalTokenBucketRateLimiter.BURST_CAPACITY_HEADER, "5")
+                .containsEntry("Retry-After", "1");
+    }
+
+    @Test
+    void shouldReportRemainingTokens() {
+        LocalTokenBucketRateLimiter limiter = limiter(10, 5);
+
+        RateLimiter.Response first = limiter.decide("user-service", "client:a");
+
+        assertThat(first.getHeaders()).containsEntry(LocalTokenBucketRateLimiter.REMAINING_HEADER, "4");
+    }
+
+    @Test
+    void shouldRefillAtReplenishRate() {
+        LocalTokenBucketRateLimiter limiter = limiter(10, 5);
+        for (int i = 0; i < 5; i++) {
+            limiter.decide("user-service", "client:a");
+        }
+        assertThat(limiter.decide("user-service", "client:a").isAllowed()).isFalse();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(limiter.decide("user-service", "client:a").isAllowed()).isTrue();
+        assertThat(limiter.decide("user-service", "client:a").isAllowed()).isFalse();
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerClientAndRoute() {
+        LocalTokenBucketRateLimiter limiter = limiter(1, 1);
+
+        assertThat(limiter.decide("user-service", "client:a").isAllowed()).isTrue();
+        assertThat(limiter.decide("user-service", "client:a").isAllowed()).isFalse();
+        assertThat(limiter.decide("user-service", "client:b").isAllowed()).isTrue();
+        assertThat(limiter.decide("other-route", "client:a").isAllowed()).isTrue();
+    }
+
+    @Test
+    void shouldUseRouteSpecificConfig() {
+        LocalTokenBucketRateLimiter limiter = limiter(1, 1);
+        LocalTokenBucketRateLimiter.Config routeConfig = new LocalTokenBucketRateLimiter.Config();
+        routeConfig.setReplenishRate(100);
+        routeConfig.setBurstCapacity(3);
+        limiter.getConfig().put("user-service", routeConfig);
+
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.decide("user-service", "client:a").isAllowed()) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectRatesBeyondNanosecondResolution() {
+        assertThatThrownBy(() -> limiter(LocalTokenBucketRateLimiter.Config.MAX_REPLENISH_RATE + 1, 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("replenishRate");
+        assertThatThrownBy(() -> limiter(0, 5)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(limiter(LocalTokenBucketRateLimiter.Config.MAX_REPLENISH_RATE, 5)
+                .decide("user-service", "client:a").isAllowed()).isTrue();
+    }
+
+    @Test
+    void shouldEvictFullBucketsWhenLimitExceeded() {
+        LocalTokenBucketRateLimiter limiter = new LocalTokenBucketRateLimiter(null, config(10, 5), 10, clock::get);
+        for (int i = 0; i < 10; i++) {
+            limiter.decide("user-service", "client:" + i);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        limiter.decide("user-service", "client:new");
+
+        assertThat(limiter.bucketCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void shouldSweepAtMostOncePerInterval() {
+        LocalTokenBucketRateLimiter limiter = new LocalTokenBucketRateLimiter(null, config(10, 5), 3, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.decide("user-service", "client:" + i);
+        }
+        limiter.decide("user-service", "client:overflow-1");
+
+        clock.addAndGet(LocalTokenBucketRateLimiter.SWEEP_INTERVAL / 2);
+        limiter.decide("user-service", "client:overflow-2");
+        assertThat(limiter.bucketCount()).isEqualTo(3);
+
+        clock.addAndGet(LocalTokenBucketRateLimiter.SWEEP_INTERVAL / 2);
+        limiter.decide("user-service", "client:new");
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareOneBucketPerRouteBeyondLimit() {
+        LocalTokenBucketRateLimiter limiter = new LocalTokenBucketRateLimiter(null, config(10, 2), 3, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.decide("user-service", "client:" + i);
+        }
+
+        assertThat(limiter.decide("user-service", "client:x").isAllowed()).isTrue();
+        assertThat(limiter.decide("user-service", "client:y").isAllowed()).isTrue();
+        assertThat(limiter.decide("user-service", "client:z").isAllowed()).isFalse();
+        assertThat(limiter.decide("orders", "client:x").isAllowed()).isTrue();
+        assertThat(limiter.bucketCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectRequestCostAboveBurst() {
+        LocalTokenBucketRateLimiter.Config config = config(10, 5);
+        config.setRequestedTokens(6);
+
+        assertThatThrownBy(() -> new LocalTokenBucketRateLimiter(null, config, 10, clock::get))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("requestedTokens");
+    }
+
+    @Test
+    void shouldNeverExceedBurstUnderConcurrency() throws Exception {
+        LocalTokenBucketRateLimiter limiter = limiter(1, 1000);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.decide("user-service", "client:hot").isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed.get()).isEqualTo(1000);
+    }
+
+    private LocalTokenBucketRateLimiter limiter(int replenishRate, int burstCapacity) {
+        return new LocalTokenBucketRateLimiter(null, config(replenishRate, burstCapacity), 100_000, clock::get);
+    }
+
+    private static LocalTokenBucketRateLimiter.Config config(int replenishRate, int burstCapacity) {
+        LocalTokenBucketRateLimiter.Config config = new LocalTokenBucketRateLimiter.Config();
+        config.setReplenishRate(replenishRate);
+        config.setBurstCapacity(burstCapacity);
+        return config;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.apigateway.refresh;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Локальная замена транспорта: уведомление передаётся в ConfigRefresher напрямую.
+// additional-location передаётся аргументом: при refresh заново читаются только стандартные источники
+@SpringBootTest(properties = "eureka.client.enabled=false",
+        args = "--spring.config.additional-location=optional:file:target/refresh-test/refresh.yml")
+class ConfigRefresherTest {
+
+    private static final Path OVERRIDES = Path.of("target/refresh-test/refresh.yml");
+
+    @Autowired
+    private ConfigRefresher refresher;
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(OVERRIDES);
+        refresher.refresh(notification());
+    }
+
+    @Test
+    void shouldRebuildRoutesWithoutRestart() throws IOException {
+        assertThat(routeIds()).contains("user-service").doesNotContain("pushed");
+
+        Files.createDirectories(OVERRIDES.getParent());
+        Files.writeString(OVERRIDES, """
+                spring:
+                  cloud:
+                    gateway:
+                      routes:
+                        - id: pushed
+                          uri: http://localhost:9
+                          predicates:
+                            - Path=/pushed/**
+                """);
+        Set<String> keys = refresher.refresh(notification());
+
+        assertThat(keys).anyMatch(key -> key.startsWith("spring.cloud.gateway.routes"));
+        assertThat(routeIds()).contains("pushed").doesNotContain("user-service");
+        assertThat(meterRegistry.get("config.refresh.pause").tag("outcome", "success").timer().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    private List<String> routeIds() {
+        return routeLocator.getRoutes().map(Route::getId).collectList().block(Duration.ofSeconds(5));
+    }
+
+    private static ConfigChangeNotification notification() {
+        return new ConfigChangeNotification("api-gateway", "default", null,
+                Set.of("spring.cloud.gateway.routes[0].id"), "test");
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.apigateway.tracing;
+
+import com.example.tracing.FileSpanExporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.tracing.file-enabled=true"
+})
+@AutoConfigureObservability(metrics = false)
+class GatewayTracingTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String CLIENT_SPAN_ID = "b7ad6b7169203331";
+
+    // Заголовки последнего запроса, дошедшего до user-service
+    private static final Map<String, String> received = new ConcurrentHashMap<>();
+    private static final HttpServer userService = stub();
+
+    @TempDir
+    static Path traces;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private FileSpanExporter exporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.user-service[0].uri",
+                () -> "http://localhost:" + userService.getAddress().getPort());
+        registry.add("gateway.tracing.file", () -> traces.resolve("spans.jsonl").toString());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        userService.stop(0);
+    }
+
+    @Test
+    void shouldPropagateTraceToUserServiceAndRecordEveryHop() throws Exception {
+        webTestClient.mutate().responseTimeout(Duration.ofSeconds(5)).build()
+                .get().uri("/api/users/7")
+                .header("traceparent", "00-" + TRACE_ID + "-" + CLIENT_SPAN_ID + "-01")
+                .exchange()
+                .expectStatus().isOk();
+        // Серверный span закрывается уже после отправки ответа клиенту
+        List<JsonNode> spans = waitForSpans(3);
+        JsonNode server = spans.stream()
+                .filter(span -> "SERVER".equals(span.get("kind").asText()))
+                .findFirst().orElseThrow(() -> new AssertionError("No server span in " + spans));
+        JsonNode loadBalancer = spans.stream()
+                .filter(span -> span.get("name").asText().contains("loadbalancer"))
+                .findFirst().orElseThrow(() -> new AssertionError("No load balancer span in " + spans));
+        JsonNode proxy = spans.stream()
+                .filter(span -> "CLIENT".equals(span.get("kind").asText()))
+                .findFirst().orElseThrow(() -> new AssertionError("No client span in " + spans));
+
+        assertThat(server.get("parentSpanId").asText()).isEqualTo(CLIENT_SPAN_ID);
+        assertThat(loadBalancer.get("parentSpanId").asText()).isEqualTo(server.get("spanId").asText());
+        assertThat(loadBalancer.get("attributes").get("service").asText()).isEqualTo("user-service");
+
+        // user-service продолжает трассу от клиентского span-а шлюза,
+        // X-Gateway-Request несет серверный span шлюза
+        assertThat(received.get("traceparent"))
+                .isEqualTo("00-" + TRACE_ID + "-" + proxy.get("spanId").asText() + "-01");
+        assertThat(received.get("x-gateway-request"))
+                .isEqualTo("user-service;traceparent=00-" + TRACE_ID + "-" + server.get("spanId").asText() + "-01");
+    }
+
+    private List<JsonNode> waitForSpans(int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+            List<JsonNode> spans = new ArrayList<>();
+            if (Files.exists(exporter.getFile())) {
+                for (String line : Files.readAllLines(exporter.getFile())) {
+                    JsonNode span = objectMapper.readTree(line);
+                    if (TRACE_ID.equals(span.get("traceId").asText())) {
+                        spans.add(span);
+                    }
+                }
+            }
+            if (spans.size() >= count || System.nanoTime() > deadline) {
+                return spans;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static HttpServer stub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", exchange -> {
+                exchange.getRequestHeaders().forEach((name, values) -> received.put(name.toLowerCase(), values.get(0)));
+                byte[] bytes = "{\"id\":7}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
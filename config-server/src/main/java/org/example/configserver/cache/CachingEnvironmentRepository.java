@@ -0,0 +1,269 @@
+package org.example.configserver.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathLocator;
+import org.springframework.core.Ordered;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш собранных Environment поверх основного репозитория конфигурации.
+ * Свежая запись отдаётся без обращения к бэкенду, устаревшая перезапрашивается
+ * и сверяется по etag, при ошибке бэкенда отдаётся последняя удачная версия.
+ */
+public class CachingEnvironmentRepository implements EnvironmentRepository, SearchPathLocator, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingEnvironmentRepository.class);
+
+    public static final String RESOLVE_TIMER = "config.server.environment.resolve";
+    public static final String BACKEND_TIMER = "config.server.environment.backend";
+
+    private final EnvironmentRepository delegate;
+    private final MeterRegistry meterRegistry;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final LongSupplier clock;
+    private final Map<Key, Entry> entries;
+
+    private volatile ChangeListener changeListener = (key, previous, current, etag) -> { };
+
+    public CachingEnvironmentRepository(EnvironmentRepository delegate, MeterRegistry meterRegistry,
+                                        Duration ttl, Duration maxStale, int maxEntries) {
+        this(delegate, meterRegistry, ttl, maxStale, maxEntries, System::nanoTime);
+    }
+
+    CachingEnvironmentRepository(EnvironmentRepository delegate, MeterRegistry meterRegistry,
+                                 Duration ttl, Duration maxStale, int maxEntries, LongSupplier clock) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        meterRegistry.gaugeMapSize("config.server.environment.cache.size", List.of(), entries);
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label) {
+        return findOne(application, profile, label, false);
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+        long start = clock.getAsLong();
+        Key key = new Key(application, profile, label, includeOrigin);
+        Entry cached = get(key);
+        if (cached != null && start - cached.resolvedAtNanos < ttlNanos) {
+            record(Outcome.HIT, start);
+            return copy(cached.environment);
+        }
+
+        Entry resolved;
+        try {
+            resolved = revalidate(key, cached);
+        } catch (RuntimeException e) {
+            if (cached != null && start - cached.resolvedAtNanos < ttlNanos + maxStaleNanos) {
+                log.warn("Бэкенд конфигурации недоступен, отдаём кэш {} (etag {}): {}", key, cached.etag, e.toString());
+                record(Outcome.STALE, start);
+                return copy(cached.environment);
+            }
+            record(Outcome.ERROR, start);
+            throw e;
+        }
+        record(cached == null ? Outcome.MISS
+                : resolved.environment == cached.environment ? Outcome.REVALIDATED : Outcome.CHANGED, start);
+        return copy(resolved.environment);
+    }
+
+    /**
+     * Перезапрашивает у бэкенда все записи кэша независимо от TTL.
+     * Так изменения находятся до того, как о них спросит клиент (см. {@link ChangeListener}).
+     */
+    public void revalidateAll() {
+        List<Map.Entry<Key, Entry>> snapshot;
+        synchronized (entries) {
+            snapshot = List.copyOf(entries.entrySet());
+        }
+        for (Map.Entry<Key, Entry> entry : snapshot) {
+            try {
+                revalidate(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                log.debug("Не удалось перепроверить {}: {}", entry.getKey(), e.toString());
+            }
+        }
+    }
+
+    /**
+     * Текущий etag записи или null, если её нет в кэше.
+     */
+    public String etag(String application, String profile, String label) {
+        Entry entry = get(new Key(application, profile, label, false));
+        return entry != null ? entry.etag : null;
+    }
+
+    public void setChangeListener(ChangeListener changeListener) { this.changeListener = changeListener; }
+
+    public void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public Locations getLocations(String application, String profile, String label) {
+        if (delegate instanceof SearchPathLocator locator) {
+            return locator.getLocations(application, profile, label);
+        }
+        return new Locations(application, profile, label, null, new String[0]);
+    }
+
+    @Override
+    public int getOrder() {
+        return delegate instanceof Ordered ordered ? ordered.getOrder() : Ordered.LOWEST_PRECEDENCE;
+    }
+
+    public EnvironmentRepository getDelegate() { return delegate; }
+
+    // Новая запись; при совпадении etag сохраняется прежний объект Environment
+    private Entry revalidate(Key key, Entry cached) {
+        Environment resolved = resolve(key);
+        String etag = etag(resolved);
+        Entry entry;
+        if (cached != null && cached.etag.equals(etag)) {
+            entry = new Entry(cached.environment, etag, clock.getAsLong());
+        } else {
+            entry = new Entry(resolved, etag, clock.getAsLong());
+        }
+        put(key, entry);
+        if (cached != null && !cached.etag.equals(etag)) {
+            log.info("Конфигурация {} изменилась: {} -> {}", key, cached.etag, etag);
+            changeListener.onChange(key, cached.environment, resolved, etag);
+        }
+        return entry;
+    }
+
+    private Environment resolve(Key key) {
+        long start = clock.getAsLong();
+        String outcome = "success";
+        try {
+            return delegate.findOne(key.application(), key.profile(), key.label(), key.includeOrigin());
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            Timer.builder(BACKEND_TIMER)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void record(Outcome outcome, long start) {
+        Timer.builder(RESOLVE_TIMER)
+                .tag("cache", outcome.tag)
+                .register(meterRegistry)
+                .record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Entry get(Key key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    // Хэш содержимого: у native-бэкенда нет версии, поэтому учитываем сами свойства
+    static String etag(Environment environment) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, environment.getName());
+        update(digest, Arrays.toString(environment.getProfiles()));
+        update(digest, environment.getLabel());
+        update(digest, environment.getVersion());
+        update(digest, environment.getState());
+        for (PropertySource source : environment.getPropertySources()) {
+            update(digest, source.getName());
+            Map<String, String> sorted = new TreeMap<>();
+            source.getSource().forEach((k, v) -> sorted.put(String.valueOf(k), String.valueOf(v)));
+            update(digest, sorted.toString());
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    // Контроллер и шифрование могут менять Environment, наружу отдаём копию
+    private static Environment copy(Environment source) {
+        Environment copy = new Environment(source.getName(), source.getProfiles(), source.getLabel(),
+                source.getVersion(), source.getState());
+        copy.addAll(source.getPropertySources());
+        return copy;
+    }
+
+    private enum Outcome {
+        HIT("hit"), MISS("miss"), REVALIDATED("revalidated"), CHANGED("changed"), STALE("stale"), ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Ключ кэша: запрос клиента к config-server.
+     */
+    public record Key(String application, String profile, String label, boolean includeOrigin) {
+    }
+
+    /**
+     * Вызывается, когда перезапрос бэкенда вернул конфигурацию с другим etag.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(Key key, Environment previous, Environment current, String etag);
+    }
+
+    private record Entry(Environment environment, String etag, long resolvedAtNanos) {
+    }
+}
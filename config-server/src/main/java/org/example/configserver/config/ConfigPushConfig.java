@@ -0,0 +1,56 @@
+package org.example.configserver.config;
+
+import org.example.configserver.cache.CachingEnvironmentRepository;
+import org.example.configserver.push.ConfigChangeDispatcher;
+import org.example.configserver.push.ConfigChangePublisher;
+import org.example.configserver.push.ConfigChangeTransport;
+import org.example.configserver.push.ConfigChangeWatcher;
+import org.example.configserver.push.LocalConfigChangeTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.List;
+
+/**
+ * Push-уведомления об изменении конфигурации: кэш находит изменения,
+ * событие контекста разносится по транспортам ({@link org.example.configserver.push.SseConfigChangeTransport}
+ * для клиентов, очередь для тестов).
+ */
+// @EnableScheduling включает автоконфигурацию TaskScheduler для ConfigChangeWatcher
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ConfigPushProperties.class)
+@ConditionalOnProperty(prefix = "config.push", name = "enabled", matchIfMissing = true)
+public class ConfigPushConfig {
+
+    @Bean
+    public ConfigChangePublisher configChangePublisher(ApplicationEventPublisher publisher) {
+        return new ConfigChangePublisher(publisher);
+    }
+
+    // Без кэша (config.cache.enabled=false) сравнивать не с чем, перепроверка не запускается
+    @Bean
+    @ConditionalOnProperty(prefix = "config.cache", name = "enabled", matchIfMissing = true)
+    public ConfigChangeWatcher configChangeWatcher(EnvironmentRepository repository, ConfigChangePublisher publisher,
+                                                   TaskScheduler taskScheduler, ConfigPushProperties properties) {
+        return new ConfigChangeWatcher((CachingEnvironmentRepository) repository, publisher,
+                taskScheduler, properties.getPollInterval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "config.push", name = "local-transport", havingValue = "true")
+    public LocalConfigChangeTransport localConfigChangeTransport() {
+        return new LocalConfigChangeTransport();
+    }
+
+    @Bean
+    public ConfigChangeDispatcher configChangeDispatcher(List<ConfigChangeTransport> transports) {
+        return new ConfigChangeDispatcher(transports);
+    }
+}
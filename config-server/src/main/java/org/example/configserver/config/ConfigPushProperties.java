@@ -0,0 +1,29 @@
+package org.example.configserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки рассылки изменений конфигурации клиентам.
+ */
+@ConfigurationProperties(prefix = "config.push")
+public class ConfigPushProperties {
+
+    private boolean enabled = true;
+
+    // Как часто перепроверять закэшированные Environment
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    // Очередь в памяти вместо SSE, для тестов
+    private boolean localTransport = false;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getPollInterval() { return pollInterval; }
+    public void setPollInterval(Duration pollInterval) { this.pollInterval = pollInterval; }
+
+    public boolean isLocalTransport() { return localTransport; }
+    public void setLocalTransport(boolean localTransport) { this.localTransport = localTransport; }
+}
@@ -0,0 +1,57 @@
+package org.example.configserver.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.configserver.cache.CachingEnvironmentRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.config.server.environment.SearchPathCompositeEnvironmentRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Кэш Environment поверх основного (@Primary) репозитория и ETag для HTTP-ответов.
+ */
+@Configuration
+@EnableConfigurationProperties(EnvironmentCacheProperties.class)
+public class EnvironmentCacheConfig {
+
+    // Оборачиваем именно композитный репозиторий: его получает EnvironmentController
+    @Bean
+    public static BeanPostProcessor cachingEnvironmentRepositoryPostProcessor(
+            ObjectProvider<EnvironmentCacheProperties> properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof SearchPathCompositeEnvironmentRepository repository)) {
+                    return bean;
+                }
+                EnvironmentCacheProperties props = properties.getObject();
+                if (!props.isEnabled()) {
+                    return bean;
+                }
+                return new CachingEnvironmentRepository(repository, meterRegistry.getObject(),
+                        props.getTtl(), props.getMaxStale(), props.getMaxEntries());
+            }
+        };
+    }
+
+    // Клиент с If-None-Match получает 304 без тела, если конфигурация не менялась.
+    // Поток /changes не буферизуется: фильтр задержал бы заголовки до первого события
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter() {
+                    @Override
+                    protected boolean shouldNotFilter(HttpServletRequest request) {
+                        return "/changes".equals(request.getRequestURI().substring(request.getContextPath().length()));
+                    }
+                });
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.configserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша собранных Environment.
+ */
+@ConfigurationProperties(prefix = "config.cache")
+public class EnvironmentCacheProperties {
+
+    private boolean enabled = true;
+
+    // Сколько ответ считается свежим без обращения к бэкенду
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Сколько можно отдавать устаревший ответ, если бэкенд недоступен
+    private Duration maxStale = Duration.ofHours(24);
+
+    private int maxEntries = 1000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public Duration getMaxStale() { return maxStale; }
+    public void setMaxStale(Duration maxStale) { this.maxStale = maxStale; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+}
@@ -0,0 +1,34 @@
+package org.example.configserver.push;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+
+/**
+ * Рассылает события изменения конфигурации через все зарегистрированные транспорты.
+ */
+public class ConfigChangeDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigChangeDispatcher.class);
+
+    private final List<ConfigChangeTransport> transports;
+
+    public ConfigChangeDispatcher(List<ConfigChangeTransport> transports) {
+        this.transports = transports;
+    }
+
+    @EventListener
+    public void onChange(ConfigChangeEvent event) {
+        log.info("Изменение конфигурации {}/{}: {}", event.application(), event.profile(), event.keys());
+        for (ConfigChangeTransport transport : transports) {
+            try {
+                transport.send(event);
+            } catch (RuntimeException e) {
+                // Сбой одного транспорта не мешает остальным
+                log.warn("Транспорт {} не доставил {}: {}", transport.getClass().getSimpleName(), event, e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.configserver.push;
+
+import java.util.Set;
+
+/**
+ * Изменение конфигурации приложения: какие ключи поменялись и новый etag.
+ * Публикуется как событие контекста, транспорты рассылают его клиентам.
+ */
+public record ConfigChangeEvent(String application, String profile, String label,
+                                Set<String> keys, String etag) {
+}
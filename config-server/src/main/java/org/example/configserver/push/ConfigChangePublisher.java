@@ -0,0 +1,101 @@
+package org.example.configserver.push;
+
+import org.example.configserver.cache.CachingEnvironmentRepository;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Превращает изменение записи кэша в {@link ConfigChangeEvent} со списком изменённых ключей.
+ * Внутри {@link #batch(Runnable)} изменения одного приложения (разные профили одного файла)
+ * сливаются в одно событие, чтобы клиент обновлялся один раз.
+ */
+public class ConfigChangePublisher implements CachingEnvironmentRepository.ChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    // Один и тот же Environment кэшируется с includeOrigin и без него, уведомляем один раз
+    private final Map<String, String> lastEtags = new ConcurrentHashMap<>();
+
+    private final Map<String, ConfigChangeEvent> pending = new LinkedHashMap<>();
+    private boolean batching;
+
+    public ConfigChangePublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void onChange(CachingEnvironmentRepository.Key key, Environment previous, Environment current, String etag) {
+        String id = key.application() + "|" + key.profile() + "|" + key.label();
+        if (etag.equals(lastEtags.put(id, etag))) {
+            return;
+        }
+        Set<String> keys = changedKeys(flatten(previous), flatten(current));
+        ConfigChangeEvent event = new ConfigChangeEvent(key.application(), key.profile(), key.label(), keys, etag);
+        synchronized (pending) {
+            if (batching) {
+                pending.merge(key.application(), event, ConfigChangePublisher::merge);
+                return;
+            }
+        }
+        publisher.publishEvent(event);
+    }
+
+    public void batch(Runnable action) {
+        synchronized (pending) {
+            batching = true;
+        }
+        List<ConfigChangeEvent> events;
+        try {
+            action.run();
+        } finally {
+            synchronized (pending) {
+                batching = false;
+                events = List.copyOf(pending.values());
+                pending.clear();
+            }
+        }
+        events.forEach(publisher::publishEvent);
+    }
+
+    private static ConfigChangeEvent merge(ConfigChangeEvent first, ConfigChangeEvent second) {
+        Set<String> keys = new TreeSet<>(first.keys());
+        keys.addAll(second.keys());
+        String profile = Objects.equals(first.profile(), second.profile()) ? first.profile()
+                : first.profile() + "," + second.profile();
+        return new ConfigChangeEvent(first.application(), profile, first.label(), keys, second.etag());
+    }
+
+    static Set<String> changedKeys(Map<String, Object> before, Map<String, Object> after) {
+        Set<String> keys = new TreeSet<>();
+        Set<String> all = new HashSet<>(before.keySet());
+        all.addAll(after.keySet());
+        for (String name : all) {
+            if (!Objects.equals(before.get(name), after.get(name))) {
+                keys.add(name);
+            }
+        }
+        return keys;
+    }
+
+    // Источники идут по убыванию приоритета, побеждает первое значение
+    private static Map<String, Object> flatten(Environment environment) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (PropertySource source : environment.getPropertySources()) {
+            Map<String, Object> values = new HashMap<>();
+            source.getSource().forEach((name, value) -> values.put(String.valueOf(name), value));
+            values.forEach(properties::putIfAbsent);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.configserver.push;
+
+/**
+ * Способ доставить {@link ConfigChangeEvent} клиентам.
+ */
+public interface ConfigChangeTransport {
+
+    void send(ConfigChangeEvent event);
+}
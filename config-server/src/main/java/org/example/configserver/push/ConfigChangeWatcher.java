@@ -0,0 +1,50 @@
+package org.example.configserver.push;
+
+import org.example.configserver.cache.CachingEnvironmentRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Периодически перепроверяет закэшированные Environment, чтобы изменения
+ * доходили до клиентов без их запроса. Для git частоту обращений к удалённому
+ * репозиторию дополнительно ограничивает refresh-rate.
+ */
+public class ConfigChangeWatcher implements SmartLifecycle {
+
+    private final CachingEnvironmentRepository cache;
+    private final ConfigChangePublisher publisher;
+    private final TaskScheduler scheduler;
+    private final Duration pollInterval;
+
+    private volatile ScheduledFuture<?> task;
+
+    public ConfigChangeWatcher(CachingEnvironmentRepository cache, ConfigChangePublisher publisher,
+                               TaskScheduler scheduler, Duration pollInterval) {
+        this.cache = cache;
+        this.publisher = publisher;
+        this.scheduler = scheduler;
+        this.pollInterval = pollInterval;
+        cache.setChangeListener(publisher);
+    }
+
+    @Override
+    public void start() {
+        task = scheduler.scheduleWithFixedDelay(() -> publisher.batch(cache::revalidateAll), Instant.now().plus(pollInterval), pollInterval);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledFuture<?> current = task;
+        if (current != null) {
+            current.cancel(false);
+        }
+        task = null;
+    }
+
+    @Override
+    public boolean isRunning() { return task != null; }
+}
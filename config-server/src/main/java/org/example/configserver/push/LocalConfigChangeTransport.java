@@ -0,0 +1,28 @@
+package org.example.configserver.push;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Транспорт внутри процесса: события складываются в очередь.
+ * Используется в тестах вместо SSE (config.push.local-transport=true).
+ */
+public class LocalConfigChangeTransport implements ConfigChangeTransport {
+
+    private final BlockingQueue<ConfigChangeEvent> events = new LinkedBlockingQueue<>();
+
+    @Override
+    public void send(ConfigChangeEvent event) {
+        events.add(event);
+    }
+
+    public ConfigChangeEvent poll(Duration timeout) throws InterruptedException {
+        return events.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
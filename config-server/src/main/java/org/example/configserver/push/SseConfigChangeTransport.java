@@ -0,0 +1,54 @@
+package org.example.configserver.push;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поток изменений конфигурации для клиентов: GET /changes?application=user-service.
+ * Без параметра application приходят изменения всех приложений.
+ */
+@RestController
+public class SseConfigChangeTransport implements ConfigChangeTransport {
+
+    private static final String ALL = "";
+
+    private final Map<SseEmitter, String> subscribers = new ConcurrentHashMap<>();
+
+    @GetMapping(path = "/changes", produces = "text/event-stream")
+    public SseEmitter subscribe(@RequestParam(required = false) String application) {
+        SseEmitter emitter = new SseEmitter(0L);
+        subscribers.put(emitter, application != null ? application : ALL);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        // До первого события ответ не отправляется, клиент ждал бы заголовков
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            subscribers.remove(emitter);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void send(ConfigChangeEvent event) {
+        subscribers.forEach((emitter, application) -> {
+            if (!application.equals(ALL) && !application.equals(event.application())) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("config-change").data(event));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(emitter);
+            }
+        });
+    }
+
+    public int subscriberCount() { return subscribers.size(); }
+}
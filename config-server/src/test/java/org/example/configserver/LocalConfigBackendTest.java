@@ -0,0 +1,57 @@
+package org.example.configserver;
+
+import org.example.configserver.cache.CachingEnvironmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Офлайн-режим поверх каталога config/ из репозитория
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "eureka.client.enabled=false")
+@ActiveProfiles("native")
+class LocalConfigBackendTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EnvironmentRepository repository;
+
+    @Test
+    void servesUserServiceConfigFromLocalDirectory() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/user-service/default", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("user-service.yml"));
+        assertTrue(response.getBody().contains("8081"));
+    }
+
+    @Test
+    void repeatedRequestIsAnsweredFromCacheAndNotModified() {
+        ResponseEntity<String> first = restTemplate.getForEntity("/api-gateway/default", String.class);
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        CachingEnvironmentRepository cache = assertInstanceOf(CachingEnvironmentRepository.class, repository);
+        assertNotNull(cache.etag("api-gateway", "default", null));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> second = restTemplate.exchange("/api-gateway/default", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.configserver.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingEnvironmentRepositoryTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private volatile String value = "a";
+    private volatile boolean failing;
+
+    private CachingEnvironmentRepository cache;
+
+    @BeforeEach
+    void setUp() {
+        EnvironmentRepository backend = new EnvironmentRepository() {
+            @Override
+            public Environment findOne(String application, String profile, String label) {
+                calls.incrementAndGet();
+                if (failing) {
+                    throw new IllegalStateException("git недоступен");
+                }
+                Environment environment = new Environment(application, profile);
+                environment.add(new PropertySource("test", Map.of("key", value)));
+                return environment;
+            }
+        };
+        cache = new CachingEnvironmentRepository(backend, registry,
+                Duration.ofSeconds(30), Duration.ofMinutes(10), 10, now::get);
+    }
+
+    @Test
+    void freshEntryIsServedWithoutBackend() {
+        cache.findOne("user-service", "default", "main");
+        cache.findOne("user-service", "default", "main");
+
+        assertEquals(1, calls.get());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void expiredEntryIsRevalidatedByEtag() {
+        cache.findOne("user-service", "default", "main");
+        String etag = cache.etag("user-service", "default", "main");
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        cache.findOne("user-service", "default", "main");
+        assertEquals(etag, cache.etag("user-service", "default", "main"));
+        assertEquals(1, count("revalidated"));
+
+        value = "b";
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        Environment changed = cache.findOne("user-service", "default", "main");
+        assertNotEquals(etag, cache.etag("user-service", "default", "main"));
+        assertEquals("b", changed.getPropertySources().get(0).getSource().get("key"));
+        assertEquals(1, count("changed"));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void staleEntryIsServedWhenBackendFails() {
+        cache.findOne("user-service", "default", "main");
+        failing = true;
+
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        Environment stale = cache.findOne("user-service", "default", "main");
+        assertEquals("a", stale.getPropertySources().get(0).getSource().get("key"));
+        assertEquals(1, count("stale"));
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertThrows(IllegalStateException.class, () -> cache.findOne("user-service", "default", "main"));
+        assertThrows(IllegalStateException.class, () -> cache.findOne("api-gateway", "default", "main"));
+    }
+
+    @Test
+    void callersGetIndependentCopies() {
+        Environment first = cache.findOne("user-service", "default", "main");
+        first.setName("changed");
+        first.addFirst(new PropertySource("extra", Map.of()));
+
+        Environment second = cache.findOne("user-service", "default", "main");
+        assertEquals("user-service", second.getName());
+        assertEquals(1, second.getPropertySources().size());
+        assertSame(first.getPropertySources().get(1), second.getPropertySources().get(0));
+    }
+
+    private long count(String outcome) {
+        return registry.get(CachingEnvironmentRepository.RESOLVE_TIMER).tag("cache", outcome).timer().count();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.configserver.push;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Копия каталога config/ из репозитория, которую тест меняет на лету
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "config.cache.ttl=100ms",
+        "config.push.poll-interval=200ms",
+        "config.push.local-transport=true"
+})
+@ActiveProfiles("native")
+class ConfigChangePushTest {
+
+    private static final Path CONFIG_DIR = copyConfig();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private LocalConfigChangeTransport localTransport;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void configDir(DynamicPropertyRegistry registry) {
+        registry.add("config.local.dir", CONFIG_DIR::toString);
+    }
+
+    @BeforeEach
+    void setUp() {
+        localTransport.clear();
+    }
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        FileSystemUtils.deleteRecursively(CONFIG_DIR);
+    }
+
+    @Test
+    void changedFileIsPushedWithChangedKeys() throws Exception {
+        restTemplate.getForEntity("/user-service/default", String.class);
+        replace("user-service.yml", "port: 8081", "port: 8082");
+
+        ConfigChangeEvent event = localTransport.poll(Duration.ofSeconds(10));
+        assertNotNull(event);
+        assertEquals("user-service", event.application());
+        assertTrue(event.keys().contains("server.port"), event.keys().toString());
+        assertEquals(1, event.keys().size());
+    }
+
+    @Test
+    void subscribersReceiveChangesOverSse() throws Exception {
+        restTemplate.getForEntity("/api-gateway/default", String.class);
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/changes?application=api-gateway")).build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        CompletableFuture<String> data = CompletableFuture.supplyAsync(() -> response.body()
+                .filter(line -> line.startsWith("data:"))
+                .findFirst()
+                .orElse(null));
+
+        replace("api-gateway.yml", "port: 8060", "port: 8061");
+
+        String json = data.get(10, TimeUnit.SECONDS);
+        response.body().close();
+        assertTrue(json.contains("\"application\":\"api-gateway\""), json);
+        assertTrue(json.contains("server.port"), json);
+    }
+
+    private static void replace(String file, String from, String to) throws IOException {
+        Path path = CONFIG_DIR.resolve(file);
+        String content = Files.readString(path);
+        assertTrue(content.contains(from));
+        Files.writeString(path, content.replace(from, to));
+    }
+
+    private static Path copyConfig() {
+        try {
+            Path dir = Files.createTempDirectory("config-push");
+            try (Stream<Path> files = Files.list(Path.of("../config"))) {
+                for (Path file : files.toList()) {
+                    Files.copy(file, dir.resolve(file.getFileName()));
+                }
+            }
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Сохраненные результаты прогона и допуски, с которыми сравнивается новый прогон:
+ * <ul>
+ *   <li>throughput не ниже baseline * (1 - tolerance.throughput);</li>
+ *   <li>p50/p99/p999 не выше baseline * (1 + tolerance.latency) + tolerance.latency-slack-ms, если за перцентилем
+ *   хотя бы {@value #MIN_TAIL_SAMPLES} ответов (p999 - от 10000 ответов): иначе это просто максимум из нескольких замеров;</li>
+ *   <li>error-rate не выше tolerance.error-rate.</li>
+ * </ul>
+ * Метрики, которых нет в baseline (например, новая операция), не сравниваются.
+ */
+public class Baseline {
+
+    static final double DEFAULT_THROUGHPUT_TOLERANCE = 0.2;
+    static final double DEFAULT_LATENCY_TOLERANCE = 0.3;
+    static final double DEFAULT_LATENCY_SLACK_MS = 5;
+    static final double DEFAULT_ERROR_RATE = 0.01;
+    static final int MIN_TAIL_SAMPLES = 10;
+
+    private final Properties values;
+
+    Baseline(Properties values) {
+        this.values = values;
+    }
+
+    public static Baseline load(Path file) throws IOException {
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            values.load(reader);
+        }
+        return new Baseline(values);
+    }
+
+    // Допуски из прежнего файла сохраняются, значения метрик заменяются результатами прогона
+    public static void write(Path file, LoadReport report, String comment) throws IOException {
+        Map<String, String> values = new TreeMap<>();
+        values.put("tolerance.throughput", Double.toString(DEFAULT_THROUGHPUT_TOLERANCE));
+        values.put("tolerance.latency", Double.toString(DEFAULT_LATENCY_TOLERANCE));
+        values.put("tolerance.latency-slack-ms", Double.toString(DEFAULT_LATENCY_SLACK_MS));
+        values.put("tolerance.error-rate", Double.toString(DEFAULT_ERROR_RATE));
+        if (Files.isRegularFile(file)) {
+            Properties previous = load(file).values;
+            for (String key : previous.stringPropertyNames()) {
+                if (key.startsWith("tolerance.")) {
+                    values.put(key, previous.getProperty(key));
+                }
+            }
+        }
+        report.metrics().forEach((key, value) -> values.put(key, String.format(Locale.ROOT, "%.3f", value)));
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# " + comment + System.lineSeparator());
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + System.lineSeparator());
+            }
+        }
+    }
+
+    public List<String> regressions(LoadReport report) {
+        double throughputTolerance = tolerance("throughput", DEFAULT_THROUGHPUT_TOLERANCE);
+        double latencyTolerance = tolerance("latency", DEFAULT_LATENCY_TOLERANCE);
+        double latencySlack = tolerance("latency-slack-ms", DEFAULT_LATENCY_SLACK_MS);
+        double maxErrorRate = tolerance("error-rate", DEFAULT_ERROR_RATE);
+
+        List<String> regressions = new ArrayList<>();
+        Map<String, Double> metrics = report.metrics();
+        for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+            String key = metric.getKey();
+            double actual = metric.getValue();
+            if (key.endsWith(".count")) {
+                continue;
+            }
+            if (key.endsWith(".error-rate")) {
+                if (actual > maxErrorRate) {
+                    regressions.add(String.format(Locale.ROOT, "%s %.4f > %.4f", key, actual, maxErrorRate));
+                }
+                continue;
+            }
+            String stored = values.getProperty(key);
+            if (stored == null) {
+                continue;
+            }
+            double expected = Double.parseDouble(stored);
+            if (key.endsWith(".throughput")) {
+                double min = expected * (1 - throughputTolerance);
+                if (actual < min) {
+                    regressions.add(String.format(Locale.ROOT, "%s %.1f req/s < %.1f (baseline %.1f)", key, actual, min, expected));
+                }
+            } else if (enoughTailSamples(key, metrics)) {
+                double max = expected * (1 + latencyTolerance) + latencySlack;
+                if (actual > max) {
+                    regressions.add(String.format(Locale.ROOT, "%s %.2f ms > %.2f (baseline %.2f)", key, actual, max, expected));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private static boolean enoughTailSamples(String key, Map<String, Double> metrics) {
+        int dot = key.lastIndexOf('.');
+        double tail = switch (key.substring(dot + 1)) {
+            case "p50" -> 0.5;
+            case "p99" -> 0.01;
+            case "p999" -> 0.001;
+            default -> throw new IllegalArgumentException("Unknown metric " + key);
+        };
+        return metrics.getOrDefault(key.substring(0, dot) + ".count", 0.0) * tail >= MIN_TAIL_SAMPLES;
+    }
+
+    private double tolerance(String name, double defaultValue) {
+        String value = values.getProperty("tolerance." + name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
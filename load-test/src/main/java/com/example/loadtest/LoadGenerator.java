@@ -0,0 +1,124 @@
+package com.example.loadtest;
+
+import com.example.loadtest.Workload.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Замкнутая модель нагрузки: users виртуальных пользователей, каждый в своем потоке шлет следующий
+ * запрос сразу после ответа на предыдущий. Задержки пишутся в HdrHistogram по операциям,
+ * ответы не 2xx и сетевые ошибки считаются ошибками. Прогрев не попадает в отчет.
+ */
+public class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Workload workload;
+    private final int users;
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private volatile boolean running;
+
+    public LoadGenerator(Workload workload, int users) {
+        this.workload = workload;
+        this.users = users;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    // Пользователи для чтений и обновлений создаются напрямую в user-service, мимо шлюза
+    public void seed(URI userService, int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = client.send(workload.seedRequest(userService), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            workload.addId(Workload.userId(response.body()));
+        }
+    }
+
+    public LoadReport run(Duration warmup, Duration duration) throws InterruptedException {
+        running = true;
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            // Свой адрес клиента у каждого виртуального пользователя: 10.0.0.0/16
+            String clientAddress = "10.0." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            Thread thread = new Thread(() -> loop(clientAddress), "load-user-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            Thread.sleep(warmup.toMillis());
+            reset();
+            long start = System.nanoTime();
+            Thread.sleep(duration.toMillis());
+            Duration measured = Duration.ofNanos(System.nanoTime() - start);
+            return snapshot(measured);
+        } finally {
+            running = false;
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(15));
+            }
+        }
+    }
+
+    private void loop(String clientAddress) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Operation operation = workload.next(random);
+            HttpRequest request = workload.request(operation, clientAddress, random);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                if (response.statusCode() / 100 != 2) {
+                    errors.get(operation).increment();
+                    continue;
+                }
+                latencies.get(operation).recordValue(micros);
+                if (operation == Operation.CREATE) {
+                    workload.addId(Workload.userId(response.body()));
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.get(operation).increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void reset() {
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    private LoadReport snapshot(Duration measured) {
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, latencies.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+        return new LoadReport(measured, histograms, errorCounts);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.loadtest;
+
+import com.example.loadtest.Workload.Operation;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Итог прогона: throughput, p50/p99/p999 (по успешным ответам) и доля ошибок - всего и по операциям.
+ * Метрики в {@link #metrics()} называются scope.metric: total.p99, GET_BY_ID.throughput и т.д.;
+ * scope.count - число успешных ответов, по которым считались перцентили.
+ */
+public class LoadReport {
+
+    public static final String TOTAL = "total";
+
+    private final Duration duration;
+    private final Map<Operation, Histogram> latencies;
+    private final Map<Operation, Long> errors;
+
+    public LoadReport(Duration duration, Map<Operation, Histogram> latencies, Map<Operation, Long> errors) {
+        this.duration = duration;
+        this.latencies = new EnumMap<>(latencies);
+        this.errors = new EnumMap<>(errors);
+    }
+
+    public Map<String, Double> metrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long operationErrors = errors.getOrDefault(operation, 0L);
+            if (histogram == null || histogram.getTotalCount() + operationErrors == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += operationErrors;
+            put(metrics, operation.name(), histogram, operationErrors);
+        }
+        Map<String, Double> result = new LinkedHashMap<>();
+        put(result, TOTAL, total, totalErrors);
+        result.putAll(metrics);
+        return result;
+    }
+
+    public Duration getDuration() { return duration; }
+
+    public String format() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-14s %10s %10s %10s %10s %8s%n",
+                "operation", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors"));
+        Map<String, Double> metrics = metrics();
+        metrics.keySet().stream()
+                .map(key -> key.substring(0, key.indexOf('.')))
+                .distinct()
+                .forEach(scope -> table.append(String.format(Locale.ROOT, "%-14s %10.1f %10.2f %10.2f %10.2f %7.2f%%%n",
+                        scope, metrics.get(scope + ".throughput"), metrics.get(scope + ".p50"), metrics.get(scope + ".p99"),
+                        metrics.get(scope + ".p999"), metrics.get(scope + ".error-rate") * 100)));
+        return table.toString();
+    }
+
+    private void put(Map<String, Double> metrics, String scope, Histogram histogram, long errorCount) {
+        long requests = histogram.getTotalCount() + errorCount;
+        metrics.put(scope + ".count", (double) histogram.getTotalCount());
+        metrics.put(scope + ".throughput", histogram.getTotalCount() / (duration.toMillis() / 1000.0));
+        metrics.put(scope + ".p50", millis(histogram, 50));
+        metrics.put(scope + ".p99", millis(histogram, 99));
+        metrics.put(scope + ".p999", millis(histogram, 99.9));
+        metrics.put(scope + ".error-rate", requests == 0 ? 0 : (double) errorCount / requests);
+    }
+
+    // Гистограммы в микросекундах
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
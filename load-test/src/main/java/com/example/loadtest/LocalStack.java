@@ -0,0 +1,73 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Локальное окружение для нагрузки: service-discovery, user-service на H2 и api-gateway
+ * из target/ соседних модулей, с профилем fast-discovery, без трассировки в файл и DEBUG-логов.
+ * Готово, когда шлюз маршрутизирует /api/users/** в зарегистрированный user-service.
+ */
+public class LocalStack implements AutoCloseable {
+
+    public static final int DISCOVERY_PORT = 8761;
+    public static final int USER_SERVICE_PORT = 8080;
+    public static final int GATEWAY_PORT = 8765;
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Deque<ServiceProcess> started = new ArrayDeque<>();
+    private ServiceProcess userService;
+    private ServiceProcess gateway;
+
+    public static LocalStack start(Path projectRoot, List<String> jvmArgs, Path logDir) throws Exception {
+        LocalStack stack = new LocalStack();
+        try {
+            ServiceProcess discovery = stack.launch(ServiceProcess.start("service-discovery",
+                    projectRoot.resolve("service-discovery/target/service-discovery-1.0-SNAPSHOT.jar"), DISCOVERY_PORT,
+                    jvmArgs, List.of("--spring.profiles.active=fast-discovery"), logDir));
+            discovery.awaitHealthy(STARTUP_TIMEOUT);
+
+            stack.userService = stack.launch(ServiceProcess.start("user-service",
+                    projectRoot.resolve("Aston2/target/user-service-1.0-SNAPSHOT.jar"), USER_SERVICE_PORT, jvmArgs,
+                    List.of("--spring.profiles.active=fast-discovery",
+                            "--logging.level.com.example.userservice=INFO",
+                            "--user-ids.node-id=1",
+                            "--tracing.file-enabled=false"), logDir));
+            stack.gateway = stack.launch(ServiceProcess.start("api-gateway",
+                    projectRoot.resolve("api-gateway/target/api-gateway-1.0-SNAPSHOT.jar"), GATEWAY_PORT, jvmArgs,
+                    List.of("--spring.profiles.active=fast-discovery",
+                            "--gateway.tracing.file-enabled=false",
+                            // Генератор нагрузки - доверенный прокси: ключ rate limiter-а берется из X-Forwarded-For
+                            "--gateway.rate-limiter.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1"), logDir));
+
+            stack.userService.awaitHealthy(STARTUP_TIMEOUT);
+            stack.gateway.awaitHealthy(STARTUP_TIMEOUT);
+            stack.gateway.awaitStatus("/api/users/count", 200, STARTUP_TIMEOUT);
+            return stack;
+        } catch (Exception e) {
+            stack.close();
+            throw e;
+        }
+    }
+
+    private ServiceProcess launch(ServiceProcess process) {
+        started.push(process);
+        return process;
+    }
+
+    public ServiceProcess getUserService() { return userService; }
+
+    public ServiceProcess getGateway() { return gateway; }
+
+    // В обратном порядке: шлюз и сервис успевают сняться с регистрации
+    @Override
+    public void close() throws InterruptedException {
+        while (!started.isEmpty()) {
+            started.pop().close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Смешанная нагрузка на /api/users/**: примерно 75% чтений и 25% записей.
+ * Id для чтений и обновлений берутся из засеянных и созданных во время прогона пользователей.
+ */
+public class Workload {
+
+    public enum Operation {
+        GET_BY_ID(60),
+        GET_BY_IDS(10),
+        LIST_COMPACT(5),
+        CREATE(15),
+        UPDATE(10);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        public int getWeight() { return weight; }
+    }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int IDS_PER_LOOKUP = 10;
+    private static final int TOTAL_WEIGHT = Arrays.stream(Operation.values()).mapToInt(Operation::getWeight).sum();
+
+    private final URI baseUri;
+    private final List<Long> ids = new CopyOnWriteArrayList<>();
+    // Уникальные email для создаваемых пользователей: у email уникальный индекс
+    private final AtomicLong sequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    public Workload(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    public Operation next(ThreadLocalRandom random) {
+        int point = random.nextInt(TOTAL_WEIGHT);
+        for (Operation operation : Operation.values()) {
+            point -= operation.getWeight();
+            if (point < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    // clientAddress - отдельный ключ rate limiter-а шлюза на каждого виртуального пользователя: генератор
+    // выступает доверенным прокси шлюза (gateway.rate-limiter.trusted-proxies) и передает адрес в X-Forwarded-For
+    public HttpRequest request(Operation operation, String clientAddress, ThreadLocalRandom random) {
+        HttpRequest.Builder builder = switch (operation) {
+            case GET_BY_ID -> HttpRequest.newBuilder(uri("/api/users/" + randomId(random))).GET();
+            case GET_BY_IDS -> {
+                StringJoiner ids = new StringJoiner(",");
+                for (int i = 0; i < IDS_PER_LOOKUP; i++) {
+                    ids.add(Long.toString(randomId(random)));
+                }
+                yield HttpRequest.newBuilder(uri("/api/users?ids=" + ids)).GET();
+            }
+            case LIST_COMPACT -> HttpRequest.newBuilder(uri("/api/users?view=compact")).GET();
+            case CREATE -> HttpRequest.newBuilder(uri("/api/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(userJson("Load User")));
+            case UPDATE -> HttpRequest.newBuilder(uri("/api/users/" + randomId(random)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(userJson("Updated User")));
+        };
+        return builder.header("Accept", "application/json")
+                .header("X-Forwarded-For", clientAddress)
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    public HttpRequest seedRequest(URI userServiceUri) {
+        return HttpRequest.newBuilder(userServiceUri.resolve("/api/users"))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(userJson("Seed User")))
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    public void addId(long id) {
+        ids.add(id);
+    }
+
+    public int getIdCount() { return ids.size(); }
+
+    // Ответ на создание: {"id":"42",...} - id строкой, он длиннее 53 бит
+    public static long userId(String body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).get("id");
+            if (id == null || !id.isTextual() && !id.isNumber()) {
+                throw new IllegalStateException("No id in response: " + body);
+            }
+            return Long.parseLong(id.asText());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Not a JSON response: " + body, e);
+        }
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private String userJson(String name) {
+        long n = sequence.incrementAndGet();
+        return "{\"name\":\"" + name + " " + n + "\",\"email\":\"load-" + runId + "-" + n + "@example.com\",\"age\":30}";
+    }
+
+    private URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.loadtest;
+
+import com.example.loadtest.Workload.Operation;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BaselineTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReportMetricsPerOperationAndTotal() {
+        LoadReport report = report(1000, 10_000, 0);
+
+        Map<String, Double> metrics = report.metrics();
+
+        assertThat(metrics.get("total.throughput")).isEqualTo(100.0);
+        assertThat(metrics.get("GET_BY_ID.p50")).isBetween(9.9, 10.1);
+        assertThat(metrics).containsEntry("total.error-rate", 0.0).doesNotContainKey("CREATE.throughput");
+    }
+
+    @Test
+    void shouldPassWithinTolerancesAndFailOnRegression() throws Exception {
+        Path file = dir.resolve("baseline.properties");
+        Baseline.write(file, report(1000, 10_000, 0), "test");
+        Baseline baseline = Baseline.load(file);
+
+        // 10 мс * 1.3 + 5 мс = 18 мс допустимо
+        assertThat(baseline.regressions(report(900, 17_000, 0))).isEmpty();
+        assertThat(baseline.regressions(report(700, 10_000, 0)))
+                .anySatisfy(regression -> assertThat(regression).startsWith("total.throughput"));
+        assertThat(baseline.regressions(report(1000, 25_000, 0)))
+                .anySatisfy(regression -> assertThat(regression).startsWith("GET_BY_ID.p99"));
+        assertThat(baseline.regressions(report(1000, 10_000, 50)))
+                .anySatisfy(regression -> assertThat(regression).startsWith("total.error-rate"));
+    }
+
+    @Test
+    void shouldSkipPercentilesWithTooFewSamplesInTail() throws Exception {
+        Path file = dir.resolve("baseline.properties");
+        Baseline.write(file, report(1000, 10_000, 0), "test");
+
+        // 100 ответов: за p99 один замер, сравнивается только p50
+        assertThat(Baseline.load(file).regressions(report(100, 25_000, 0)))
+                .noneMatch(regression -> regression.contains(".p99") || regression.contains(".p999"))
+                .anySatisfy(regression -> assertThat(regression).startsWith("GET_BY_ID.p50"));
+    }
+
+    @Test
+    void shouldKeepTolerancesWhenBaselineIsUpdated() throws Exception {
+        Path file = dir.resolve("baseline.properties");
+        Files.writeString(file, "tolerance.latency=1.0\nGET_BY_ID.p99=1.0\n");
+
+        Baseline.write(file, report(1000, 10_000, 0), "updated");
+
+        Properties stored = new Properties();
+        stored.load(Files.newBufferedReader(file));
+        assertThat(stored.getProperty("tolerance.latency")).isEqualTo("1.0");
+        assertThat(Double.parseDouble(stored.getProperty("GET_BY_ID.p99"))).isBetween(9.9, 10.1);
+    }
+
+    // requests ответов GET_BY_ID по latencyMicros за 10 секунд
+    private static LoadReport report(int requests, long latencyMicros, long errors) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(latencyMicros, requests);
+        return new LoadReport(Duration.ofSeconds(10), Map.of(Operation.GET_BY_ID, histogram),
+                Map.of(Operation.GET_BY_ID, errors));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Смешанная нагрузка через api-gateway на user-service. Падает, если результат хуже baselines/gateway-mixed.properties.
+ * Не входит в обычный прогон тестов: mvn test -Pbenchmark (или scripts/load-test.sh). Параметры:
+ * <pre>
+ * -Dload.users=16 -Dload.warmup=PT15S -Dload.duration=PT30S -Dload.seed-users=500
+ * -Dload.jvm-args="-Xmx512m"    JVM-опции сервисов
+ * -Dload.update-baseline=true    записать результат как новый baseline вместо сравнения
+ * </pre>
+ * Baseline зависит от машины: после смены железа CI его нужно перезаписать.
+ */
+class GatewayLoadBenchmark {
+
+    private static final Path PROJECT_ROOT = Path.of(System.getProperty("load.project-root", "..")).normalize();
+    private static final Path BASELINE = PROJECT_ROOT.resolve("load-test/baselines/gateway-mixed.properties");
+
+    @Test
+    void mixedReadWriteThroughGateway() throws Exception {
+        int users = Integer.getInteger("load.users", 16);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        int seedUsers = Integer.getInteger("load.seed-users", 500);
+        List<String> jvmArgs = Arrays.stream(System.getProperty("load.jvm-args", "-Xmx512m").split("\\s+"))
+                .filter(arg -> !arg.isBlank())
+                .toList();
+        Path logDir = PROJECT_ROOT.resolve("load-test/target/load-test");
+
+        LoadReport report;
+        try (LocalStack stack = LocalStack.start(PROJECT_ROOT, jvmArgs, logDir)) {
+            Workload workload = new Workload(stack.getGateway().url("/"));
+            LoadGenerator generator = new LoadGenerator(workload, users);
+            generator.seed(stack.getUserService().url("/"), seedUsers);
+            report = generator.run(warmup, duration);
+        }
+
+        System.out.printf("users=%d warmup=%s duration=%s, logs in %s%n%s", users, warmup, duration, logDir, report.format());
+        if (Boolean.getBoolean("load.update-baseline")) {
+            Baseline.write(BASELINE, report, "users=" + users + " duration=" + duration);
+            System.out.println("Baseline written to " + BASELINE);
+            return;
+        }
+        assertThat(Files.isRegularFile(BASELINE))
+                .as("no baseline at %s, run with -Dload.update-baseline=true", BASELINE)
+                .isTrue();
+        assertThat(Baseline.load(BASELINE).regressions(report)).as("regressions against %s", BASELINE).isEmpty();
+    }
+}
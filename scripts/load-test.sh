@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Нагрузочный тест пути клиент -> api-gateway -> user-service (модуль load-test):
+# поднимает service-discovery, user-service на H2 и api-gateway из собранных jar,
+# гоняет смешанную нагрузку (чтения по id и пачкой, компактный список, создание, обновление)
+# и сравнивает throughput и p50/p99/p999 с load-test/baselines/gateway-mixed.properties.
+#
+#   ./scripts/load-test.sh                              # собрать сервисы и прогнать
+#   SKIP_BUILD=1 USERS=32 DURATION=PT60S ./scripts/load-test.sh
+#   UPDATE_BASELINE=1 ./scripts/load-test.sh            # записать новый baseline
+#
+# Порты 8761, 8080 и 8765 должны быть свободны. Логи сервисов - load-test/target/load-test/.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    # tracing-support - библиотека Aston2 и api-gateway, ставится в локальный репозиторий первой
+    (cd "$ROOT/tracing-support" && mvn -B -q install)
+    for module in service-discovery Aston2 api-gateway; do
+        (cd "$ROOT/$module" && mvn -B -q -DskipTests package)
+    done
+fi
+
+cd "$ROOT/load-test"
+mvn -B test -Pbenchmark \
+    -Dload.users="${USERS:-16}" \
+    -Dload.warmup="${WARMUP:-PT15S}" \
+    -Dload.duration="${DURATION:-PT30S}" \
+    -Dload.seed-users="${SEED_USERS:-500}" \
+    -Dload.jvm-args="${JVM_ARGS:--Xmx512m}" \
+    -Dload.update-baseline="${UPDATE_BASELINE:+true}"
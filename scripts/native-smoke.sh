@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Сравнение JVM и native-image сборок service-discovery и api-gateway:
+# время старта до health=UP, RSS после старта и throughput по /actuator/health.
+#
+#   ./scripts/native-smoke.sh            # собрать оба варианта и сравнить
+#   SKIP_BUILD=1 ./scripts/native-smoke.sh
+#
+# Нужен GraalVM 22.3+ (native-image в PATH) и curl.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+REQUESTS="${REQUESTS:-5000}"
+CONCURRENCY="${CONCURRENCY:-32}"
+
+declare -A PORTS=([service-discovery]=8761 [api-gateway]=8765)
+
+build() {
+    local module="$1"
+    (cd "$ROOT/$module" && mvn -B -q -DskipTests package && mvn -B -q -Pnative -DskipTests native:compile)
+}
+
+now_ms() { date +%s%3N; }
+
+wait_up() {
+    local port="$1" deadline=$(( $(now_ms) + 120000 ))
+    until curl -sf "http://localhost:$port/actuator/health" | grep -q '"UP"'; do
+        [ "$(now_ms)" -gt "$deadline" ] && return 1
+        sleep 0.05
+    done
+}
+
+rss_kb() { awk '/VmRSS/ {print $2}' "/proc/$1/status"; }
+
+throughput() {
+    local port="$1" start end
+    start=$(now_ms)
+    seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null "http://localhost:$port/actuator/health"
+    end=$(now_ms)
+    echo $(( REQUESTS * 1000 / (end - start) ))
+}
+
+measure() {
+    local module="$1" mode="$2" port="${PORTS[$1]}" pid start startup rss rps
+    start=$(now_ms)
+    if [ "$mode" = jvm ]; then
+        java -jar "$ROOT/$module/target/$module-1.0-SNAPSHOT.jar" >"/tmp/$module-$mode.log" 2>&1 &
+    else
+        "$ROOT/$module/target/$module" >"/tmp/$module-$mode.log" 2>&1 &
+    fi
+    pid=$!
+
+    if ! wait_up "$port"; then
+        echo "$module ($mode) не поднялся, см. /tmp/$module-$mode.log"
+        kill "$pid" 2>/dev/null || true
+        return 1
+    fi
+    startup=$(( $(now_ms) - start ))
+    rss=$(rss_kb "$pid")
+    rps=$(throughput "$port")
+    printf '%-18s %-6s %8d ms %10d KB %8d req/s\n' "$module" "$mode" "$startup" "$rss" "$rps"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    (cd "$ROOT/tracing-support" && mvn -B -q install)
+    build service-discovery
+    build api-gateway
+fi
+
+printf '%-18s %-6s %11s %13s %14s\n' module mode startup rss throughput
+for module in service-discovery api-gateway; do
+    for mode in jvm native; do
+        measure "$module" "$mode"
+    done
+done
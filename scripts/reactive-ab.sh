@@ -0,0 +1,119 @@
+#!/usr/bin/env bash
+# A/B блокирующего (Aston2: MVC + JPA) и реактивного (user-service-reactive: WebFlux + R2DBC)
+# user-service при 10k одновременных соединений: throughput, p99, RSS, heap и число потоков.
+#
+#   ./scripts/reactive-ab.sh                  # собрать оба варианта и сравнить
+#   SKIP_BUILD=1 CONNECTIONS=2000 ./scripts/reactive-ab.sh
+#
+# Сценарии:
+#   db    - GET /api/users/{id} по случайным id из ответов засева (чтение из H2)
+#   wait  - GET /api/users/test/circuit-breaker?delay=100 (100 мс ожидания на запрос:
+#           MVC держит поток, WebFlux - нет)
+#
+# Нужны wrk и curl; ulimit -n должен быть больше CONNECTIONS.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+CONNECTIONS="${CONNECTIONS:-10000}"
+THREADS="${THREADS:-8}"
+DURATION="${DURATION:-60s}"
+USERS="${USERS:-1000}"
+
+declare -A PORTS=([Aston2]=8080 [user-service-reactive]=8082)
+declare -A JARS=([Aston2]=user-service-1.0-SNAPSHOT.jar [user-service-reactive]=user-service-reactive-1.0-SNAPSHOT.jar)
+
+ulimit -n $(( CONNECTIONS * 2 + 1024 )) 2>/dev/null || echo "ulimit -n не поднят, wrk может не открыть $CONNECTIONS соединений"
+
+now_ms() { date +%s%3N; }
+
+wait_up() {
+    local port="$1" deadline=$(( $(now_ms) + 180000 ))
+    until curl -sf "http://localhost:$port/actuator/health" | grep -q '"UP"'; do
+        [ "$(now_ms)" -gt "$deadline" ] && return 1
+        sleep 0.2
+    done
+}
+
+metric() {
+    curl -s "http://localhost:$1/actuator/metrics/$2${3:+?tag=$3}" \
+        | grep -o '"value":[0-9.E+-]*' | head -1 | cut -d: -f2 | awk '{printf "%d", $1}'
+}
+
+rss_kb() { awk '/VmRSS/ {print $2}' "/proc/$1/status"; }
+
+LUA="$(mktemp --suffix=.lua)"
+IDS="$(mktemp)"
+trap 'rm -f "$LUA" "$IDS"' EXIT
+
+# Id созданных пользователей берутся из ответов: их назначает сервис (в Aston2 - Snowflake, строкой), подряд они не идут
+seed() {
+    local port="$1" i
+    : >"$IDS"
+    for i in $(seq "$USERS"); do
+        curl -s -H 'Content-Type: application/json' \
+            -d "{\"name\":\"User $i\",\"email\":\"user$i@example.com\",\"age\":30}" \
+            "http://localhost:$port/api/users" \
+            | sed -n 's/.*"id":"\{0,1\}\([0-9][0-9]*\).*/\1/p' >>"$IDS"
+    done
+    [ -s "$IDS" ] || { echo "засев не вернул ни одного id"; return 1; }
+}
+
+# Случайный id из засеянных; в Lua id строками - числа там double и теряют младшие разряды
+write_lua() {
+    {
+        echo "ids = {$(sed 's/.*/"&"/' "$IDS" | paste -sd,)}"
+        echo 'request = function()'
+        echo '    return wrk.format("GET", "/api/users/" .. ids[math.random(#ids)])'
+        echo 'end'
+    } >"$LUA"
+}
+
+run_wrk() {
+    local url="$1"; shift
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --timeout 10s --latency "$@" "$url" \
+        | awk '/Requests\/sec/ {rps=$2} /^ +99%/ {p99=$2} /Socket errors/ {err=$0} END {printf "%10s req/s  p99 %8s  %s", rps, p99, err}'
+}
+
+measure() {
+    local module="$1" port="${PORTS[$1]}" pid db wait_result
+    local opts=(--eureka.client.enabled=false --logging.level.root=WARN --spring.jpa.show-sql=false)
+    # Tomcat по умолчанию принимает 8192 соединения, для честного сравнения лимит поднимается
+    [ "$module" = Aston2 ] && opts+=(--server.tomcat.max-connections=$(( CONNECTIONS + 2000 )) --warmup.enabled=false --user-ids.node-id=1)
+
+    java -jar "$ROOT/$module/target/${JARS[$module]}" "${opts[@]}" >"/tmp/$module-ab.log" 2>&1 &
+    pid=$!
+    if ! wait_up "$port"; then
+        echo "$module не поднялся, см. /tmp/$module-ab.log"
+        kill "$pid" 2>/dev/null || true
+        return 1
+    fi
+    if ! seed "$port"; then
+        kill "$pid" 2>/dev/null || true
+        return 1
+    fi
+    write_lua
+
+    db=$(run_wrk "http://localhost:$port" -s "$LUA")
+    printf '%-22s %-5s %s\n' "$module" db "$db"
+    printf '%-22s %-5s threads %5s  heap %6s MB  rss %7s KB\n' "$module" "" \
+        "$(metric "$port" jvm.threads.live)" "$(( $(metric "$port" jvm.memory.used area:heap) / 1048576 ))" "$(rss_kb "$pid")"
+
+    wait_result=$(run_wrk "http://localhost:$port/api/users/test/circuit-breaker?delay=100")
+    printf '%-22s %-5s %s\n' "$module" wait "$wait_result"
+    printf '%-22s %-5s threads %5s  heap %6s MB  rss %7s KB\n' "$module" "" \
+        "$(metric "$port" jvm.threads.live)" "$(( $(metric "$port" jvm.memory.used area:heap) / 1048576 ))" "$(rss_kb "$pid")"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    (cd "$ROOT/tracing-support" && mvn -B -q install)
+    (cd "$ROOT/Aston2" && mvn -B -q -DskipTests package)
+    (cd "$ROOT/user-service-reactive" && mvn -B -q -DskipTests package)
+fi
+
+echo "connections=$CONNECTIONS threads=$THREADS duration=$DURATION users=$USERS"
+for module in Aston2 user-service-reactive; do
+    measure "$module"
+done
@@ -1,11 +1,14 @@
 package com.example.discovery;
 
+import com.example.discovery.config.EurekaServerRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
 @EnableEurekaServer
+@ImportRuntimeHints(EurekaServerRuntimeHints.class)
 public class ServiceDiscoveryApplication {
     public static void main(String[] args) {
         SpringApplication.run(ServiceDiscoveryApplication.class, args);
@@ -0,0 +1,62 @@
+package com.example.discovery.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Хинты для native-image сборки Eureka Server.
+ * В отличие от eureka-client, spring-cloud-netflix-eureka-server своих хинтов не поставляет:
+ * Jersey-ресурсы, кодеки и шаблоны дашборда подключаются рефлексией и через classpath.
+ */
+public class EurekaServerRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> JERSEY_RESOURCES = List.of(
+            "com.netflix.eureka.resources.ApplicationsResource",
+            "com.netflix.eureka.resources.ApplicationResource",
+            "com.netflix.eureka.resources.InstancesResource",
+            "com.netflix.eureka.resources.InstanceResource",
+            "com.netflix.eureka.resources.PeerReplicationResource",
+            "com.netflix.eureka.resources.ServerInfoResource",
+            "com.netflix.eureka.resources.StatusResource",
+            "com.netflix.eureka.resources.VIPResource",
+            "com.netflix.eureka.resources.SecureVIPResource",
+            "com.netflix.eureka.resources.ASGResource"
+    );
+
+    private static final List<String> CODEC_TYPES = List.of(
+            "com.netflix.appinfo.InstanceInfo",
+            "com.netflix.appinfo.LeaseInfo",
+            "com.netflix.appinfo.MyDataCenterInfo",
+            "com.netflix.appinfo.DataCenterInfo",
+            "com.netflix.discovery.shared.Application",
+            "com.netflix.discovery.shared.Applications",
+            "com.netflix.eureka.cluster.protocol.ReplicationList",
+            "com.netflix.eureka.cluster.protocol.ReplicationInstance",
+            "com.netflix.eureka.cluster.protocol.ReplicationListResponse",
+            "com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse",
+            "com.netflix.discovery.converters.jackson.mixin.InstanceInfoJsonMixIn",
+            "com.netflix.discovery.converters.jackson.builder.ApplicationsJacksonBuilder",
+            "com.netflix.discovery.converters.jackson.DataCenterTypeInfoResolver"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JERSEY_RESOURCES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (String type : CODEC_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.values());
+        }
+
+        hints.resources().registerPattern("templates/eureka/*.ftlh");
+        hints.resources().registerPattern("static/eureka/**");
+        hints.resources().registerPattern("eureka/server.properties");
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.netflix.eureka.RestTemplateTimeoutProperties;
+import org.springframework.cloud.netflix.eureka.http.DefaultEurekaClientHttpRequestFactorySupplier;
+import org.springframework.cloud.netflix.eureka.http.RestTemplateDiscoveryClientOptionalArgs;
+import org.springframework.cloud.netflix.eureka.http.RestTemplateTransportClientFactories;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Eureka-сервер с профилем fast-discovery и несколько Eureka-клиентов в одной JVM:
+ * новые инстансы должны доходить до клиента через delta-fetch за несколько секунд.
+ */
+@SpringBootTest(classes = ServiceDiscoveryApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("fast-discovery")
+class RegistryPropagationTest {
+
+    private static final String APP = "PROPAGATION-TEST";
+    // Интервал опроса клиента - как в профиле fast-discovery шлюза
+    private static final int FETCH_INTERVAL_SECONDS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    private final List<ConfigurableApplicationContext> clients = new ArrayList<>();
+
+    @AfterEach
+    void stopClients() {
+        clients.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void shouldPropagateNewInstancesThroughDeltaFetch() throws InterruptedException {
+        EurekaClient watcher = startClient("watcher", false, 0).getBean(EurekaClient.class);
+
+        for (int i = 1; i <= 3; i++) {
+            startClient(APP.toLowerCase(), true, 9000 + i);
+        }
+        // Клиент регистрируется при старте контекста
+        long registeredAt = System.currentTimeMillis();
+        long propagation = awaitInstances(watcher, 3, 20_000) - registeredAt;
+
+        // Худший случай: обновление read-only кэша сервера + интервал опроса клиента
+        assertThat(propagation).isLessThan(3_000 + FETCH_INTERVAL_SECONDS * 1000L + 2_000);
+        assertThat(watcher.getApplications().getAppsHashCode()).contains("UP_3_");
+    }
+
+    private long awaitInstances(EurekaClient client, int expected, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            Application application = client.getApplication(APP);
+            if (application != null && application.getInstances().stream()
+                    .filter(instance -> instance.getStatus() == InstanceInfo.InstanceStatus.UP)
+                    .count() >= expected) {
+                return System.currentTimeMillis();
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Instances of " + APP + " did not propagate in " + timeoutMillis + " ms");
+    }
+
+    private ConfigurableApplicationContext startClient(String name, boolean register, int instancePort) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EurekaClientApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.application.name=" + name,
+                        "spring.config.name=eureka-client-test",
+                        "eureka.client.service-url.defaultZone=http://localhost:" + port + "/eureka/",
+                        "eureka.client.register-with-eureka=" + register,
+                        "eureka.client.fetch-registry=true",
+                        "eureka.client.registry-fetch-interval-seconds=" + FETCH_INTERVAL_SECONDS,
+                        "eureka.client.initial-instance-info-replication-interval-seconds=1",
+                        "eureka.instance.instance-id=" + name + ":" + instancePort,
+                        "eureka.instance.non-secure-port=" + instancePort)
+                .run();
+        clients.add(context);
+        return context;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class EurekaClientApp {
+
+        // На classpath сервера есть Jersey, поэтому RestTemplate-транспорт клиентов (как у шлюза и user-service)
+        // автоконфигурацией не создается
+        @Bean
+        RestTemplateTransportClientFactories restTemplateTransportClientFactories(
+                ObjectProvider<RestTemplateTimeoutProperties> timeoutProperties) {
+            return new RestTemplateTransportClientFactories(new RestTemplateDiscoveryClientOptionalArgs(
+                    new DefaultEurekaClientHttpRequestFactorySupplier(
+                            timeoutProperties.getIfAvailable(RestTemplateTimeoutProperties::new))));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.userservice.config;
+
+import com.example.userservice.refresh.CircuitBreakerRebinder;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+// Те же настройки user-service.circuit-breaker, что у блокирующего user-service
+@Configuration
+@EnableConfigurationProperties(CircuitBreakerProperties.class)
+public class Resilience4jConfig {
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCustomizer(CircuitBreakerProperties properties) {
+        return factory -> factory.configureDefault(id -> apply(new Resilience4JConfigBuilder(id), properties).build());
+    }
+
+    @Bean
+    public CircuitBreakerRebinder circuitBreakerRebinder(ReactiveResilience4JCircuitBreakerFactory factory,
+                                                         Environment environment) {
+        return new CircuitBreakerRebinder(factory, environment);
+    }
+
+    // Используется и при старте, и при перепривязке настроек (CircuitBreakerRebinder)
+    public static Resilience4JConfigBuilder apply(Resilience4JConfigBuilder builder, CircuitBreakerProperties properties) {
+        return builder
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(properties.getTimeout())
+                        .build())
+                .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                        .slidingWindowSize(properties.getSlidingWindowSize())
+                        .failureRateThreshold(properties.getFailureRateThreshold())
+                        .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                        .permittedNumberOfCallsInHalfOpenState(properties.getPermittedNumberOfCallsInHalfOpenState())
+                        .build());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+/**
+ * Тот же контракт /api/users, что у блокирующего UserController: пути, коды ответов и ссылки HAL.
+ */
+@RestController
+@RequestMapping("/api/users")
+@Validated
+public class UserController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReactiveCircuitBreakerFactory circuitBreakerFactory;
+
+    @GetMapping("/test/circuit-breaker")
+    public Mono<ResponseEntity<String>> testCircuitBreaker(
+            @RequestParam(required = false, defaultValue = "0") long delay,
+            @RequestParam(required = false, defaultValue = "false") boolean error,
+            @RequestParam(required = false, defaultValue = "false") boolean success) {
+
+        // Задержка без блокировки потока
+        Mono<String> call = Mono.delay(Duration.ofMillis(delay))
+                .flatMap(tick -> {
+                    if (error) {
+                        return Mono.error(new RuntimeException("Имитированная ошибка для тестирования Circuit Breaker"));
+                    }
+                    if (success) {
+                        return Mono.just("Circuit Breaker Test - SUCCESS. Delay: " + delay + "ms");
+                    }
+                    return Mono.just("Circuit Breaker Test - OK. Delay: " + delay + "ms");
+                });
+
+        return circuitBreakerFactory.create("testCircuitBreaker")
+                .run(call, throwable -> Mono.just(
+                        "Fallback: Service is temporarily unavailable. Original error: " + throwable.getMessage()))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> createUser(@Valid @RequestBody UserRequest userRequest) {
+        return userService.createUser(userRequest)
+                .flatMap(user -> withLinks(user, user.getUserId()))
+                .map(resource -> ResponseEntity.status(HttpStatus.CREATED).body(resource));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> getUserById(@PathVariable Long id) {
+        return userService.getUserById(id)
+                .flatMap(user -> withLinks(user, id))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<CollectionModel<EntityModel<UserResponse>>>> getAllUsers() {
+        Mono<Link> self = linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel().toMono();
+        Mono<Link> create = linkTo(methodOn(UserController.class).createUser(new UserRequest()))
+                .withRel("create-user").toMono();
+
+        return userService.getAllUsers()
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(user -> linkTo(methodOn(UserController.class).getUserById(user.getUserId()))
+                        .withSelfRel().toMono()
+                        .map(link -> EntityModel.of(user, link)))
+                .collectList()
+                .zipWith(Mono.zip(self, create))
+                .map(tuple -> CollectionModel.of(tuple.getT1(), tuple.getT2().getT1(), tuple.getT2().getT2()))
+                .map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> updateUser(@PathVariable Long id,
+                                                                      @Valid @RequestBody UserRequest userRequest) {
+        return userService.updateUser(id, userRequest)
+                .flatMap(user -> withLinks(user, id))
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        return userService.deleteUser(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @GetMapping("/test/circuit-breaker/status")
+    public Mono<ResponseEntity<String>> getCircuitBreakerStatus() {
+        return Mono.just(ResponseEntity.ok("Circuit Breaker endpoints are available. Use /test/circuit-breaker with parameters: delay, error, success"));
+    }
+
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> getUserCount() {
+        return userService.getUserCount().map(ResponseEntity::ok);
+    }
+
+    // EntityModel<Boolean> не сериализуется в HAL (скаляр нельзя развернуть), поэтому значение в поле exists
+    @GetMapping("/check-email/{email}")
+    public Mono<ResponseEntity<EntityModel<Map<String, Boolean>>>> checkEmailExists(@PathVariable String email) {
+        Mono<Link> self = linkTo(methodOn(UserController.class).checkEmailExists(email)).withSelfRel().toMono();
+        Mono<Link> all = linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users").toMono();
+
+        return Mono.zip(userService.existsByEmail(email), self, all)
+                .map(tuple -> EntityModel.of(Map.of("exists", tuple.getT1()), tuple.getT2(), tuple.getT3()))
+                .map(ResponseEntity::ok);
+    }
+
+    private Mono<EntityModel<UserResponse>> withLinks(UserResponse user, Long id) {
+        Mono<Link> self = linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel().toMono();
+        Mono<Link> all = linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users").toMono();
+        return Mono.zip(self, all).map(links -> EntityModel.of(user, links.getT1(), links.getT2()));
+    }
+}
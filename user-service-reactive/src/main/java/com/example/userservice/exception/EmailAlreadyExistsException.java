@@ -0,0 +1,9 @@
+package com.example.userservice.exception;
+
+public class EmailAlreadyExistsException extends RuntimeException {
+    public EmailAlreadyExistsException(String message) {
+        super(message);
+    }
+
+
+}
\ No newline at end of file
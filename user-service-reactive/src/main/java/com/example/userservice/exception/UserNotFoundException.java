@@ -0,0 +1,11 @@
+package com.example.userservice.exception;
+
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(String message) {
+        super(message);
+    }
+
+    public UserNotFoundException(Long id) {
+        super("User not found with id: " + id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.userservice.refresh;
+
+import com.example.userservice.config.CircuitBreakerProperties;
+import com.example.userservice.config.Resilience4jConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Применяет новые пороги circuit breaker без перезапуска.
+ * Resilience4j не меняет конфигурацию существующего breaker'а, поэтому он удаляется из реестра
+ * и создаётся заново при следующем вызове; накопленная статистика и состояние при этом сбрасываются.
+ */
+public class CircuitBreakerRebinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerRebinder.class);
+
+    private final ReactiveResilience4JCircuitBreakerFactory factory;
+    private final Environment environment;
+
+    public CircuitBreakerRebinder(ReactiveResilience4JCircuitBreakerFactory factory, Environment environment) {
+        this.factory = factory;
+        this.environment = environment;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(CircuitBreakerProperties.PREFIX + "."))) {
+            return;
+        }
+        // Биндим напрямую из Environment: порядок относительно ConfigurationPropertiesRebinder не важен
+        CircuitBreakerProperties properties = Binder.get(environment)
+                .bindOrCreate(CircuitBreakerProperties.PREFIX, CircuitBreakerProperties.class);
+
+        factory.configureDefault(id -> Resilience4jConfig.apply(new Resilience4JConfigBuilder(id), properties).build());
+        String[] names = factory.getCircuitBreakerRegistry().getAllCircuitBreakers().stream()
+                .map(CircuitBreaker::getName)
+                .toArray(String[]::new);
+        factory.configure(builder -> Resilience4jConfig.apply(builder, properties), names);
+        for (String name : names) {
+            factory.getCircuitBreakerRegistry().remove(name);
+            factory.getTimeLimiterRegistry().remove(name);
+        }
+        log.info("Настройки circuit breaker обновлены для {}", String.join(", ", names));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.User;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+    Mono<User> findByEmail(String email);
+    Mono<Boolean> existsByEmail(String email);
+
+    @Query("SELECT * FROM users ORDER BY created_at DESC")
+    Flux<User> findAllOrderByCreatedAtDesc();
+}
@@ -0,0 +1,127 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.model.User;
+import com.example.userservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+@Service
+public class UserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReactiveCircuitBreakerFactory circuitBreakerFactory;
+
+    public Mono<UserResponse> createUser(UserRequest userRequest) {
+        return userRepository.existsByEmail(userRequest.getEmail())
+                .flatMap(exists -> {
+                    if (exists) {
+                        return Mono.error(new EmailAlreadyExistsException("Email already exists: " + userRequest.getEmail()));
+                    }
+                    User user = new User();
+                    user.setName(userRequest.getName());
+                    user.setEmail(userRequest.getEmail());
+                    user.setAge(userRequest.getAge());
+                    user.setCreatedAt(LocalDateTime.now());
+                    return userRepository.save(user);
+                })
+                .map(this::mapToUserResponse);
+    }
+
+    public Mono<UserResponse> getUserById(Long id) {
+        Mono<UserResponse> user = userRepository.findById(id)
+                .switchIfEmpty(Mono.error(new UserNotFoundException(id)))
+                .map(this::mapToUserResponse);
+        // Fallback метод при ошибке
+        return circuitBreakerFactory.create("userService")
+                .run(user, throwable -> Mono.just(createFallbackUserResponse(id)));
+    }
+
+    public Mono<List<UserResponse>> getAllUsers() {
+        Mono<List<UserResponse>> users = userRepository.findAllOrderByCreatedAtDesc()
+                .map(this::mapToUserResponse)
+                .collectList();
+        // Fallback при ошибке - возвращаем пустой список
+        return circuitBreakerFactory.create("userService")
+                .run(users, throwable -> Mono.just(Collections.emptyList()));
+    }
+
+    // Fallback метод
+    private UserResponse createFallbackUserResponse(Long id) {
+        UserResponse fallback = new UserResponse();
+        fallback.setUserId(id);
+        fallback.setName("Service Temporarily Unavailable");
+        fallback.setEmail("fallback@example.com");
+        fallback.setAge(0);
+        fallback.setCreatedAt(LocalDateTime.now());
+        return fallback;
+    }
+
+    public Mono<UserResponse> updateUser(Long id, UserRequest userRequest) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(new UserNotFoundException(id)))
+                .flatMap(existingUser -> checkEmailChange(existingUser, userRequest).thenReturn(existingUser))
+                .flatMap(existingUser -> {
+                    if (userRequest.getName() != null) {
+                        existingUser.setName(userRequest.getName());
+                    }
+                    if (userRequest.getEmail() != null) {
+                        existingUser.setEmail(userRequest.getEmail());
+                    }
+                    if (userRequest.getAge() != null) {
+                        existingUser.setAge(userRequest.getAge());
+                    }
+                    return userRepository.save(existingUser);
+                })
+                .map(this::mapToUserResponse);
+    }
+
+    private Mono<Void> checkEmailChange(User existingUser, UserRequest userRequest) {
+        if (userRequest.getEmail() == null || existingUser.getEmail().equals(userRequest.getEmail())) {
+            return Mono.empty();
+        }
+        return userRepository.existsByEmail(userRequest.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.error(new EmailAlreadyExistsException("Email already exists: " + userRequest.getEmail()))
+                        : Mono.empty());
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? userRepository.deleteById(id)
+                        : Mono.error(new UserNotFoundException(id)));
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return userRepository.existsByEmail(email);
+    }
+
+    public Mono<Long> getUserCount() {
+        // Fallback при ошибке
+        return circuitBreakerFactory.create("userService")
+                .run(userRepository.count(), throwable -> Mono.just(0L));
+    }
+
+    private UserResponse mapToUserResponse(User user) {
+        UserResponse response = new UserResponse();
+        response.setUserId(user.getId());
+        response.setName(user.getName());
+        response.setEmail(user.getEmail());
+        response.setAge(user.getAge());
+        response.setCreatedAt(user.getCreatedAt());
+        return response;
+    }
+}
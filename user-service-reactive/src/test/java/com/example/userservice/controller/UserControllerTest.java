@@ -0,0 +1,140 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Контракт /api/users совпадает с блокирующим user-service: коды ответов и ссылки HAL
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "eureka.client.enabled=false")
+class UserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void shouldCreateUserWithLinks() {
+        String email = uniqueEmail();
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("John Doe", email, 30))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNumber()
+                .jsonPath("$.name").isEqualTo("John Doe")
+                .jsonPath("$.email").isEqualTo(email)
+                .jsonPath("$._links.self.href").value(href -> assertThat((String) href).matches(".*/api/users/\\d+"))
+                .jsonPath("$._links.all-users.href").value(href -> assertThat((String) href).endsWith("/api/users"));
+    }
+
+    @Test
+    void shouldRejectDuplicateEmail() {
+        String email = uniqueEmail();
+        create("John Doe", email);
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Jane Doe", email, 25))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Email Already Exists")
+                .jsonPath("$.path").isEqualTo("/api/users");
+    }
+
+    @Test
+    void shouldRejectInvalidUser() {
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("", "not-an-email", 30))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Failed");
+    }
+
+    @Test
+    void shouldGetUserAndListWithLinks() {
+        long id = create("John Doe", uniqueEmail());
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$._links.self.href").value(href -> assertThat((String) href).endsWith("/api/users/" + id));
+
+        webTestClient.get().uri("/api/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.userResponseList[?(@.id == " + id + ")].name").isEqualTo("John Doe")
+                .jsonPath("$._links.self.href").exists()
+                .jsonPath("$._links.create-user.href").exists();
+    }
+
+    @Test
+    void shouldUpdateAndDeleteUser() {
+        long id = create("John Doe", uniqueEmail());
+
+        webTestClient.put().uri("/api/users/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("John Smith", uniqueEmail(), 31))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("John Smith")
+                .jsonPath("$.age").isEqualTo(31);
+
+        webTestClient.delete().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldCountUsersAndCheckEmail() {
+        String email = uniqueEmail();
+        create("John Doe", email);
+
+        webTestClient.get().uri("/api/users/count")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class).value(count -> assertThat(count).isPositive());
+
+        webTestClient.get().uri("/api/users/check-email/{email}", email)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.exists").isEqualTo(true)
+                .jsonPath("$._links.self.href").exists();
+    }
+
+    private long create(String name, String email) {
+        Map<?, ?> body = webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest(name, email, 30))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        return ((Number) body.get("id")).longValue();
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
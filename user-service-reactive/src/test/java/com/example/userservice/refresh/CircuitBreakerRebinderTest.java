@@ -0,0 +1,62 @@
+package com.example.userservice.refresh;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "user-service.circuit-breaker.sliding-window-size=20"
+})
+class CircuitBreakerRebinderTest {
+
+    private static final String OVERRIDES = "test-overrides";
+
+    @Autowired
+    private ReactiveResilience4JCircuitBreakerFactory circuitBreakerFactory;
+
+    @Autowired
+    private ConfigurableEnvironment environment;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        environment.getPropertySources().remove(OVERRIDES);
+    }
+
+    @Test
+    void shouldBindAndRebindCircuitBreakerThresholdsWithoutRestart() {
+        circuitBreakerFactory.create("userService").run(Mono.just("ok")).block();
+        CircuitBreakerRegistry registry = circuitBreakerFactory.getCircuitBreakerRegistry();
+        assertThat(registry.circuitBreaker("userService").getCircuitBreakerConfig().getSlidingWindowSize())
+                .isEqualTo(20);
+
+        environment.getPropertySources().addFirst(new MapPropertySource(OVERRIDES, Map.of(
+                "user-service.circuit-breaker.failure-rate-threshold", "20",
+                "user-service.circuit-breaker.timeout", "2s")));
+        publisher.publishEvent(new EnvironmentChangeEvent(environment, Set.of(
+                "user-service.circuit-breaker.failure-rate-threshold", "user-service.circuit-breaker.timeout")));
+
+        circuitBreakerFactory.create("userService").run(Mono.just("ok")).block();
+        assertThat(registry.circuitBreaker("userService").getCircuitBreakerConfig().getFailureRateThreshold())
+                .isEqualTo(20);
+        assertThat(circuitBreakerFactory.getTimeLimiterRegistry().timeLimiter("userService").getTimeLimiterConfig()
+                .getTimeoutDuration()).isEqualTo(Duration.ofSeconds(2));
+    }
+}
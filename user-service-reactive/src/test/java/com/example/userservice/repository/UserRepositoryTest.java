@@ -0,0 +1,54 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+@DataR2dbcTest
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll().block();
+    }
+
+    @Test
+    void shouldFindByEmail() {
+        userRepository.save(user("John Doe", "john@example.com", LocalDateTime.now())).block();
+
+        StepVerifier.create(userRepository.findByEmail("john@example.com"))
+                .expectNextMatches(found -> found.getId() != null && found.getName().equals("John Doe"))
+                .verifyComplete();
+        StepVerifier.create(userRepository.existsByEmail("john@example.com"))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(userRepository.existsByEmail("missing@example.com"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldOrderByCreatedAtDesc() {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.save(user("Old", "old@example.com", now.minusDays(1))).block();
+        userRepository.save(user("New", "new@example.com", now)).block();
+
+        StepVerifier.create(userRepository.findAllOrderByCreatedAtDesc().map(User::getName))
+                .expectNext("New", "Old")
+                .verifyComplete();
+    }
+
+    private static User user(String name, String email, LocalDateTime createdAt) {
+        User user = new User(name, email, 30);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+}